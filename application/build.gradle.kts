@@ -1,4 +1,5 @@
 import org.gradle.jvm.tasks.Jar
+import org.springframework.boot.gradle.tasks.aot.ProcessAot
 import org.springframework.boot.gradle.tasks.bundling.BootJar
 
 plugins {
@@ -6,10 +7,17 @@ plugins {
     id("io.spring.dependency-management") version "1.1.5"
     id("com.diffplug.spotless") version "6.23.3"
     java
+    id("org.hibernate.orm") version "6.5.2.Final"
 }
 
+apply(plugin = "org.springframework.boot.aot")
+
+group = "com.deanlofts"
+
 val flywayVersion = "10.22.0"
 val awsSdkVersion = "2.25.49"
+val resilience4jVersion = "2.2.0"
+val jsr305Version = "3.0.2"
 
 java {
     sourceCompatibility = JavaVersion.VERSION_21
@@ -34,13 +42,22 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
+    compileOnly("com.google.code.findbugs:jsr305:$jsr305Version")
     implementation("org.flywaydb:flyway-core:$flywayVersion")
     implementation("org.flywaydb:flyway-database-postgresql:$flywayVersion")
     implementation(platform("software.amazon.awssdk:bom:$awsSdkVersion"))
     implementation("software.amazon.awssdk:secretsmanager")
     implementation("software.amazon.awssdk:ssm")
     implementation("software.amazon.awssdk:s3")
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("software.amazon.awssdk:apache-client")
+    implementation("io.github.resilience4j:resilience4j-circuitbreaker:$resilience4jVersion")
+    implementation("io.github.resilience4j:resilience4j-bulkhead:$resilience4jVersion")
+    implementation("io.github.resilience4j:resilience4j-micrometer:$resilience4jVersion")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-csv")
+    implementation("org.postgresql:postgresql")
+    implementation("io.micrometer:micrometer-tracing-bridge-otel")
+    implementation("io.opentelemetry:opentelemetry-exporter-otlp")
+    implementation("io.opentelemetry:opentelemetry-exporter-logging")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation(platform("org.testcontainers:testcontainers-bom:1.20.2"))
@@ -54,6 +71,19 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.register<JavaExec>("fakeAws") {
+    description = "Runs the fake S3, Secrets Manager and SSM endpoints used for local load tests."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer")
+}
+
+tasks.register<JavaExec>("widgetJsonBenchmark") {
+    description = "Compares Jackson and the streaming widget serializer for throughput and allocation."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.deanlofts.awslabjava.application.dto.WidgetJsonBenchmark")
+    jvmArgs("-Xms512m", "-Xmx512m")
+}
+
 spotless {
     java {
         target("src/**/*.java")
@@ -65,6 +95,18 @@ spotless {
     }
 }
 
+tasks.named<ProcessAot>("processAot") {
+    args(
+        "--aws.s3.bucket-name=aot",
+        "--aws.secrets.auth-token-secret-id=aot",
+        "--aws.parameter-store.auth-token-parameter-name=aot",
+    )
+}
+
+tasks.named("processTestAot") {
+    enabled = false
+}
+
 tasks.named<BootJar>("bootJar") {
     archiveFileName.set("app.jar")
 }
@@ -72,3 +114,10 @@ tasks.named<BootJar>("bootJar") {
 tasks.named<Jar>("jar") {
     enabled = false
 }
+
+hibernate {
+    enhancement {
+        enableLazyInitialization.set(true)
+        enableDirtyTracking.set(true)
+    }
+}
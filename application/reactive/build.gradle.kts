@@ -0,0 +1,107 @@
+import org.gradle.jvm.tasks.Jar
+import org.springframework.boot.gradle.tasks.bundling.BootJar
+
+plugins {
+    id("org.springframework.boot")
+    id("io.spring.dependency-management")
+    id("com.diffplug.spotless")
+    java
+}
+
+group = "com.deanlofts"
+
+val awsSdkVersion = "2.25.49"
+val flywayVersion = "10.22.0"
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+repositories {
+    mavenCentral()
+}
+
+val sharedJava = rootProject.file("src/main/java/com/deanlofts/awslabjava/application")
+
+val syncSharedSources by tasks.registering(Sync::class) {
+    from(sharedJava) {
+        include(
+            "domain/UuidV7Generator.java",
+            "domain/WidgetField.java",
+            "domain/WidgetIdVersion.java",
+            "domain/WidgetRequest.java",
+            "dto/WidgetDto.java",
+            "dto/WidgetStatsDto.java",
+        )
+    }
+    into(layout.buildDirectory.dir("generated/shared/java/com/deanlofts/awslabjava/application"))
+}
+
+val syncSharedResources by tasks.registering(Sync::class) {
+    from(rootProject.file("src/main/resources/db/migration"))
+    into(layout.buildDirectory.dir("generated/shared/resources/db/migration"))
+}
+
+sourceSets {
+    main {
+        java.srcDir(layout.buildDirectory.dir("generated/shared/java"))
+        resources.srcDir(layout.buildDirectory.dir("generated/shared/resources"))
+    }
+}
+
+tasks.named("compileJava") {
+    dependsOn(syncSharedSources)
+}
+
+tasks.named("processResources") {
+    dependsOn(syncSharedResources)
+}
+
+dependencies {
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+    implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.postgresql:r2dbc-postgresql")
+    implementation("org.springframework:spring-jdbc")
+    implementation("org.flywaydb:flyway-core:$flywayVersion")
+    implementation("org.flywaydb:flyway-database-postgresql:$flywayVersion")
+    runtimeOnly("org.postgresql:postgresql")
+    implementation(platform("software.amazon.awssdk:bom:$awsSdkVersion"))
+    implementation("software.amazon.awssdk:s3")
+    implementation("software.amazon.awssdk:secretsmanager")
+    implementation("software.amazon.awssdk:netty-nio-client")
+    compileOnly("org.projectlombok:lombok")
+    annotationProcessor("org.projectlombok:lombok")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.projectreactor:reactor-test")
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
+
+spotless {
+    java {
+        target("src/**/*.java")
+        googleJavaFormat("1.17.0")
+        importOrder("java", "jakarta", "javax", "org", "com", "")
+        removeUnusedImports()
+        trimTrailingWhitespace()
+        endWithNewline()
+    }
+}
+
+tasks.named<BootJar>("bootJar") {
+    archiveFileName.set("app.jar")
+}
+
+tasks.named<Jar>("jar") {
+    enabled = false
+}
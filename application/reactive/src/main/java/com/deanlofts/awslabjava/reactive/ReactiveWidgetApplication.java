@@ -0,0 +1,14 @@
+package com.deanlofts.awslabjava.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan("com.deanlofts.awslabjava.reactive.config")
+public class ReactiveWidgetApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveWidgetApplication.class, args);
+  }
+}
@@ -0,0 +1,77 @@
+package com.deanlofts.awslabjava.reactive.config;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import com.deanlofts.awslabjava.application.domain.WidgetIdVersion;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app")
+@Validated
+@Getter
+public class AppProperties {
+
+  @NotBlank private final String deploymentTarget;
+
+  private final String authToken;
+
+  private final Feature feature;
+  private final Cors cors;
+  private final Ids ids;
+  private final Stats stats;
+
+  public AppProperties(
+      String deploymentTarget, String authToken, Feature feature, Cors cors, Ids ids, Stats stats) {
+    this.deploymentTarget = deploymentTarget;
+    this.authToken = authToken;
+    this.feature = feature != null ? feature : new Feature(false);
+    this.cors = cors != null ? cors : new Cors(List.of());
+    this.ids = ids != null ? ids : new Ids(WidgetIdVersion.V4);
+    this.stats = stats != null ? stats : new Stats(168);
+  }
+
+  @Getter
+  public static class Feature {
+    private final boolean s3Metadata;
+
+    public Feature(@DefaultValue("false") boolean s3Metadata) {
+      this.s3Metadata = s3Metadata;
+    }
+  }
+
+  @Getter
+  public static class Cors {
+    private final List<String> allowedOrigins;
+
+    public Cors(List<String> allowedOrigins) {
+      this.allowedOrigins =
+          allowedOrigins == null || allowedOrigins.isEmpty()
+              ? List.of()
+              : List.copyOf(allowedOrigins);
+    }
+  }
+
+  @Getter
+  public static class Ids {
+    private final WidgetIdVersion uuidVersion;
+
+    public Ids(@DefaultValue("v4") WidgetIdVersion uuidVersion) {
+      this.uuidVersion = uuidVersion;
+    }
+  }
+
+  @Getter
+  public static class Stats {
+    private final int maxHours;
+
+    public Stats(@DefaultValue("168") int maxHours) {
+      this.maxHours = maxHours;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.deanlofts.awslabjava.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.util.StringUtils;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClientBuilder;
+
+@Configuration
+public class AwsAsyncClientConfiguration {
+
+  @Bean
+  @Lazy
+  SdkAsyncHttpClient awsAsyncHttpClient(AwsProperties properties) {
+    return NettyNioAsyncHttpClient.builder().maxConcurrency(properties.getMaxConcurrency()).build();
+  }
+
+  @Bean
+  @Lazy
+  AwsCredentialsProvider awsCredentialsProvider() {
+    return DefaultCredentialsProvider.builder()
+        .reuseLastProviderEnabled(true)
+        .asyncCredentialUpdateEnabled(true)
+        .build();
+  }
+
+  @Bean
+  @Lazy
+  S3AsyncClient s3AsyncClient(
+      AwsProperties properties,
+      SdkAsyncHttpClient awsAsyncHttpClient,
+      AwsCredentialsProvider awsCredentialsProvider) {
+    S3AsyncClientBuilder builder =
+        S3AsyncClient.builder()
+            .httpClient(awsAsyncHttpClient)
+            .credentialsProvider(awsCredentialsProvider)
+            .overrideConfiguration(overrideConfiguration(properties));
+    Region region = resolveRegion(properties);
+    if (region != null) {
+      builder = builder.region(region);
+    }
+    return builder.build();
+  }
+
+  @Bean
+  @Lazy
+  SecretsManagerAsyncClient secretsManagerAsyncClient(
+      AwsProperties properties,
+      SdkAsyncHttpClient awsAsyncHttpClient,
+      AwsCredentialsProvider awsCredentialsProvider) {
+    SecretsManagerAsyncClientBuilder builder =
+        SecretsManagerAsyncClient.builder()
+            .httpClient(awsAsyncHttpClient)
+            .credentialsProvider(awsCredentialsProvider)
+            .overrideConfiguration(overrideConfiguration(properties));
+    Region region = resolveRegion(properties);
+    if (region != null) {
+      builder = builder.region(region);
+    }
+    return builder.build();
+  }
+
+  private ClientOverrideConfiguration overrideConfiguration(AwsProperties properties) {
+    return ClientOverrideConfiguration.builder()
+        .apiCallTimeout(properties.getApiCallTimeout())
+        .build();
+  }
+
+  private Region resolveRegion(AwsProperties properties) {
+    String region = properties.getRegion();
+    return StringUtils.hasText(region) ? Region.of(region) : null;
+  }
+}
@@ -0,0 +1,52 @@
+package com.deanlofts.awslabjava.reactive.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "aws")
+@Getter
+public class AwsProperties {
+
+  private final String region;
+  private final Secrets secrets;
+  private final S3 s3;
+  private final Duration apiCallTimeout;
+  private final int maxConcurrency;
+
+  public AwsProperties(
+      String region,
+      Secrets secrets,
+      S3 s3,
+      @DefaultValue("5s") Duration apiCallTimeout,
+      @DefaultValue("200") int maxConcurrency) {
+    this.region = region;
+    this.secrets = secrets != null ? secrets : new Secrets(null);
+    this.s3 = s3 != null ? s3 : new S3(null, "widget-metadata/");
+    this.apiCallTimeout = apiCallTimeout;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  @Getter
+  public static class Secrets {
+    private final String authTokenSecretId;
+
+    public Secrets(String authTokenSecretId) {
+      this.authTokenSecretId = authTokenSecretId;
+    }
+  }
+
+  @Getter
+  public static class S3 {
+    private final String bucketName;
+    private final String prefix;
+
+    public S3(String bucketName, @DefaultValue("widget-metadata/") String prefix) {
+      this.bucketName = bucketName;
+      this.prefix = prefix;
+    }
+  }
+}
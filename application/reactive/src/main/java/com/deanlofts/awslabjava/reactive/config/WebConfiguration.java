@@ -0,0 +1,32 @@
+package com.deanlofts.awslabjava.reactive.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+@Configuration
+public class WebConfiguration {
+
+  @Bean
+  CorsWebFilter corsWebFilter(AppProperties appProperties) {
+    CorsConfiguration configuration = new CorsConfiguration();
+    List<String> allowedOrigins = appProperties.getCors().getAllowedOrigins();
+    if (allowedOrigins.isEmpty()) {
+      configuration.addAllowedOriginPattern("*");
+    } else {
+      configuration.setAllowedOrigins(allowedOrigins);
+    }
+    configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+    configuration.setAllowedHeaders(List.of("*"));
+    configuration.setAllowCredentials(false);
+    configuration.setMaxAge(3600L);
+
+    UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    source.registerCorsConfiguration("/**", configuration);
+    return new CorsWebFilter(source);
+  }
+}
@@ -0,0 +1,110 @@
+package com.deanlofts.awslabjava.reactive.controller;
+
+import java.util.Set;
+import java.util.UUID;
+
+import jakarta.validation.Valid;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+import com.deanlofts.awslabjava.reactive.service.ReactiveAuthService;
+import com.deanlofts.awslabjava.reactive.service.ReactiveWidgetService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(path = "/api/v1/widgets", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactiveWidgetController {
+
+  private static final String AUTH_HEADER = "X-Demo-Auth";
+
+  private final ReactiveWidgetService widgetService;
+  private final ReactiveAuthService authService;
+
+  public ReactiveWidgetController(
+      ReactiveWidgetService widgetService, ReactiveAuthService authService) {
+    this.widgetService = widgetService;
+    this.authService = authService;
+  }
+
+  @GetMapping
+  public Flux<WidgetDto> list(@RequestParam(required = false) String fields) {
+    return widgetService.findAll(parseFields(fields));
+  }
+
+  @GetMapping("/stats")
+  public Mono<WidgetStatsDto> stats(@RequestParam(defaultValue = "24") int hours) {
+    return widgetService.stats(hours);
+  }
+
+  @GetMapping("/{id}")
+  public Mono<WidgetDto> get(@PathVariable UUID id, @RequestParam(required = false) String fields) {
+    return widgetService.findById(id, parseFields(fields));
+  }
+
+  @GetMapping(path = "/{id}/description", produces = "text/plain;charset=UTF-8")
+  public Mono<ResponseEntity<Flux<DataBuffer>>> description(@PathVariable UUID id) {
+    return widgetService
+        .openDescription(id)
+        .map(
+            description -> {
+              ResponseEntity.BodyBuilder response =
+                  ResponseEntity.ok().contentLength(description.length());
+              if (description.sha256() != null) {
+                response.eTag(description.sha256());
+              }
+              return response.body(
+                  description.content().map(DefaultDataBufferFactory.sharedInstance::wrap));
+            });
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<WidgetDto> create(
+      @RequestHeader(AUTH_HEADER) String token, @Valid @RequestBody WidgetRequest request) {
+    return authService.assertAuthorized(token).then(widgetService.create(request));
+  }
+
+  @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<WidgetDto> update(
+      @RequestHeader(AUTH_HEADER) String token,
+      @PathVariable UUID id,
+      @Valid @RequestBody WidgetRequest request) {
+    return authService.assertAuthorized(token).then(widgetService.update(id, request));
+  }
+
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public Mono<Void> delete(@RequestHeader(AUTH_HEADER) String token, @PathVariable UUID id) {
+    return authService.assertAuthorized(token).then(widgetService.delete(id));
+  }
+
+  private Set<WidgetField> parseFields(String fields) {
+    try {
+      return WidgetField.parse(fields);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
+}
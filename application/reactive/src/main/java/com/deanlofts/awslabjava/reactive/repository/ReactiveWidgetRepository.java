@@ -0,0 +1,155 @@
+package com.deanlofts.awslabjava.reactive.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class ReactiveWidgetRepository {
+
+  private static final String SUMMARY_COLUMNS = "id, name, created_at, updated_at";
+  private static final String DETAIL_COLUMNS = SUMMARY_COLUMNS + ", description, description_ref";
+
+  private static final String INSERT_SQL =
+      "INSERT INTO widgets (id, name, description, created_at, updated_at)"
+          + " VALUES (:id, :name, :description, :createdAt, :updatedAt)";
+
+  private static final String UPDATE_SQL =
+      """
+      WITH previous AS (
+        SELECT id, description_ref FROM widgets WHERE id = :id FOR UPDATE
+      )
+      UPDATE widgets w
+         SET name = :name,
+             description = :description,
+             description_ref = NULL,
+             description_sha256 = NULL,
+             description_size = NULL,
+             content_sha256 = NULL,
+             updated_at = :updatedAt
+        FROM previous
+       WHERE w.id = previous.id
+      RETURNING w.id, w.name, w.description, w.created_at, w.updated_at,
+                previous.description_ref AS previous_ref
+      """;
+
+  private static final String DELETE_SQL =
+      "DELETE FROM widgets WHERE id = :id RETURNING description_ref";
+
+  private static final String DESCRIPTION_SQL =
+      "SELECT description, description_ref, description_sha256, description_size FROM widgets"
+          + " WHERE id = :id";
+
+  private static final String ADVANCE_WRITE_EPOCH_SQL = "SELECT nextval('widget_write_epoch')";
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveWidgetRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Flux<WidgetRow> findAll(boolean withDescription) {
+    String columns = withDescription ? DETAIL_COLUMNS : SUMMARY_COLUMNS;
+    return databaseClient
+        .sql("SELECT " + columns + " FROM widgets")
+        .map(row -> toWidget(row, withDescription))
+        .all();
+  }
+
+  public Mono<WidgetRow> findById(UUID id, boolean withDescription) {
+    String columns = withDescription ? DETAIL_COLUMNS : SUMMARY_COLUMNS;
+    return databaseClient
+        .sql("SELECT " + columns + " FROM widgets WHERE id = :id")
+        .bind("id", id)
+        .map(row -> toWidget(row, withDescription))
+        .one();
+  }
+
+  public Mono<Void> insert(WidgetRow widget) {
+    return databaseClient
+        .sql(INSERT_SQL)
+        .bind("id", widget.id())
+        .bind("name", widget.name())
+        .bind("description", widget.description())
+        .bind("createdAt", widget.createdAt())
+        .bind("updatedAt", widget.updatedAt())
+        .then();
+  }
+
+  public Mono<UpdatedWidget> update(UUID id, String name, String description, Instant updatedAt) {
+    return databaseClient
+        .sql(UPDATE_SQL)
+        .bind("id", id)
+        .bind("name", name)
+        .bind("description", description)
+        .bind("updatedAt", updatedAt)
+        .map(
+            row ->
+                new UpdatedWidget(
+                    new WidgetRow(
+                        row.get("id", UUID.class),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        null,
+                        row.get("created_at", Instant.class),
+                        row.get("updated_at", Instant.class)),
+                    row.get("previous_ref", String.class)))
+        .one();
+  }
+
+  public Mono<Optional<String>> delete(UUID id) {
+    return databaseClient
+        .sql(DELETE_SQL)
+        .bind("id", id)
+        .map(row -> Optional.ofNullable(row.get("description_ref", String.class)))
+        .one();
+  }
+
+  public Mono<Void> advanceWriteEpoch() {
+    return databaseClient.sql(ADVANCE_WRITE_EPOCH_SQL).then();
+  }
+
+  public Mono<DescriptionRow> findDescription(UUID id) {
+    return databaseClient
+        .sql(DESCRIPTION_SQL)
+        .bind("id", id)
+        .map(
+            row ->
+                new DescriptionRow(
+                    row.get("description", String.class),
+                    row.get("description_ref", String.class),
+                    row.get("description_sha256", String.class),
+                    row.get("description_size", Long.class)))
+        .one();
+  }
+
+  public Mono<Long> countByDescriptionRef(String descriptionRef) {
+    return databaseClient
+        .sql("SELECT count(*) AS refs FROM widgets WHERE description_ref = :ref")
+        .bind("ref", descriptionRef)
+        .map(row -> row.get("refs", Long.class))
+        .one();
+  }
+
+  private static WidgetRow toWidget(Readable row, boolean withDescription) {
+    return new WidgetRow(
+        row.get("id", UUID.class),
+        row.get("name", String.class),
+        withDescription ? row.get("description", String.class) : null,
+        withDescription ? row.get("description_ref", String.class) : null,
+        row.get("created_at", Instant.class),
+        row.get("updated_at", Instant.class));
+  }
+
+  public record UpdatedWidget(WidgetRow widget, String previousDescriptionRef) {}
+
+  public record DescriptionRow(
+      String description, String descriptionRef, String sha256, Long size) {}
+}
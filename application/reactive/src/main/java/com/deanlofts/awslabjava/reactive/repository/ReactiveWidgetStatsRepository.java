@@ -0,0 +1,100 @@
+package com.deanlofts.awslabjava.reactive.repository;
+
+import java.time.Instant;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public class ReactiveWidgetStatsRepository {
+
+  private static final String TOTALS_SQL =
+      "SELECT widget_count, created_count, updated_count, deleted_count FROM widget_stats"
+          + " WHERE id = 1";
+
+  private static final String HOURLY_SQL =
+      "SELECT bucket_start, created_count, updated_count, deleted_count FROM widget_stats_hourly"
+          + " WHERE bucket_start >= :from ORDER BY bucket_start";
+
+  private static final String APPLY_TOTALS_SQL =
+      """
+      INSERT INTO widget_stats (id, widget_count, created_count, updated_count, deleted_count)
+      VALUES (1, :widgets, :created, :updated, :deleted)
+      ON CONFLICT (id) DO UPDATE
+        SET widget_count = widget_stats.widget_count + EXCLUDED.widget_count,
+            created_count = widget_stats.created_count + EXCLUDED.created_count,
+            updated_count = widget_stats.updated_count + EXCLUDED.updated_count,
+            deleted_count = widget_stats.deleted_count + EXCLUDED.deleted_count
+      """;
+
+  private static final String APPLY_HOURLY_SQL =
+      """
+      INSERT INTO widget_stats_hourly (bucket_start, created_count, updated_count, deleted_count)
+      VALUES (:hour, :created, :updated, :deleted)
+      ON CONFLICT (bucket_start) DO UPDATE
+        SET created_count = widget_stats_hourly.created_count + EXCLUDED.created_count,
+            updated_count = widget_stats_hourly.updated_count + EXCLUDED.updated_count,
+            deleted_count = widget_stats_hourly.deleted_count + EXCLUDED.deleted_count
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveWidgetStatsRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Mono<Totals> readTotals() {
+    return databaseClient
+        .sql(TOTALS_SQL)
+        .map(
+            row ->
+                new Totals(
+                    row.get("widget_count", Long.class),
+                    row.get("created_count", Long.class),
+                    row.get("updated_count", Long.class),
+                    row.get("deleted_count", Long.class)))
+        .one()
+        .defaultIfEmpty(new Totals(0, 0, 0, 0));
+  }
+
+  public Flux<WidgetStatsDto.HourlyActivity> readHourly(Instant from) {
+    return databaseClient
+        .sql(HOURLY_SQL)
+        .bind("from", from)
+        .map(
+            row ->
+                new WidgetStatsDto.HourlyActivity(
+                    row.get("bucket_start", Instant.class),
+                    row.get("created_count", Long.class),
+                    row.get("updated_count", Long.class),
+                    row.get("deleted_count", Long.class)))
+        .all();
+  }
+
+  public Mono<Void> apply(Instant hour, long created, long updated, long deleted) {
+    Mono<Void> totals =
+        databaseClient
+            .sql(APPLY_TOTALS_SQL)
+            .bind("widgets", created - deleted)
+            .bind("created", created)
+            .bind("updated", updated)
+            .bind("deleted", deleted)
+            .then();
+    Mono<Void> hourly =
+        databaseClient
+            .sql(APPLY_HOURLY_SQL)
+            .bind("hour", hour)
+            .bind("created", created)
+            .bind("updated", updated)
+            .bind("deleted", deleted)
+            .then();
+    return totals.then(hourly);
+  }
+
+  public record Totals(long widgetCount, long created, long updated, long deleted) {}
+}
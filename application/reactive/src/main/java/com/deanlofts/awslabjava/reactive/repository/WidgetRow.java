@@ -0,0 +1,12 @@
+package com.deanlofts.awslabjava.reactive.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record WidgetRow(
+    UUID id,
+    String name,
+    String description,
+    String descriptionRef,
+    Instant createdAt,
+    Instant updatedAt) {}
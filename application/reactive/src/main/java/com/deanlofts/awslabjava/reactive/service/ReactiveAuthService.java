@@ -0,0 +1,111 @@
+package com.deanlofts.awslabjava.reactive.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.reactive.config.AppProperties;
+import com.deanlofts.awslabjava.reactive.config.AwsProperties;
+
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+@Service
+public class ReactiveAuthService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReactiveAuthService.class);
+
+  private final AppProperties appProperties;
+  private final AwsProperties awsProperties;
+  private final ObjectProvider<SecretsManagerAsyncClient> secretsManagerClient;
+  private final AtomicReference<Mono<String>> token = new AtomicReference<>();
+
+  public ReactiveAuthService(
+      AppProperties appProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<SecretsManagerAsyncClient> secretsManagerClient) {
+    this.appProperties = appProperties;
+    this.awsProperties = awsProperties;
+    this.secretsManagerClient = secretsManagerClient;
+  }
+
+  public Mono<Void> assertAuthorized(String providedToken) {
+    if (providedToken == null || providedToken.isBlank()) {
+      log.warn("Unauthorized request denied: missing token");
+      return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+    }
+    return currentToken()
+        .flatMap(
+            expected -> {
+              if (expected.equals(providedToken)) {
+                return Mono.<Void>empty();
+              }
+              log.info("Auth token mismatch detected; refreshing from source");
+              token.set(null);
+              return currentToken()
+                  .flatMap(
+                      refreshed ->
+                          refreshed.equals(providedToken)
+                              ? Mono.<Void>empty()
+                              : Mono.error(
+                                  new ResponseStatusException(
+                                      HttpStatus.UNAUTHORIZED, "Unauthorized")));
+            })
+        .onErrorMap(
+            IllegalStateException.class,
+            ex ->
+                new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Authentication service unavailable", ex));
+  }
+
+  private Mono<String> currentToken() {
+    Mono<String> cached = token.get();
+    if (cached != null) {
+      return cached;
+    }
+    Mono<String> loading =
+        loadToken()
+            .doOnNext(value -> log.info("Demo auth token loaded"))
+            .cache(
+                value -> Duration.ofMillis(Long.MAX_VALUE),
+                ex -> Duration.ZERO,
+                () -> Duration.ZERO);
+    return token.compareAndSet(null, loading) ? loading : currentToken();
+  }
+
+  private Mono<String> loadToken() {
+    String secretId = awsProperties.getSecrets().getAuthTokenSecretId();
+    if (StringUtils.hasText(secretId)) {
+      SecretsManagerAsyncClient client = secretsManagerClient.getIfAvailable();
+      if (client == null) {
+        return Mono.error(
+            new IllegalStateException("Secrets Manager client missing while secret id configured"));
+      }
+      return Mono.fromFuture(
+              () ->
+                  client.getSecretValue(GetSecretValueRequest.builder().secretId(secretId).build()))
+          .map(GetSecretValueResponse::secretString)
+          .filter(StringUtils::hasText)
+          .switchIfEmpty(Mono.error(new IllegalStateException("Secrets Manager secret is empty")))
+          .onErrorMap(
+              ex -> !(ex instanceof IllegalStateException),
+              ex -> new IllegalStateException("Failed to fetch secret from Secrets Manager", ex));
+    }
+    String configuredToken = appProperties.getAuthToken();
+    if (StringUtils.hasText(configuredToken)) {
+      return Mono.just(configuredToken);
+    }
+    return Mono.error(
+        new IllegalStateException(
+            "No auth token configured: set aws.secrets.auth-token-secret-id or app.auth-token"));
+  }
+}
@@ -0,0 +1,164 @@
+package com.deanlofts.awslabjava.reactive.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.reactive.config.AppProperties;
+import com.deanlofts.awslabjava.reactive.config.AwsProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@Service
+public class ReactiveS3Service {
+
+  private static final Logger log = LoggerFactory.getLogger(ReactiveS3Service.class);
+
+  private final AppProperties appProperties;
+  private final AwsProperties awsProperties;
+  private final ObjectProvider<S3AsyncClient> s3Client;
+  private final ObjectMapper objectMapper;
+  private final Counter failedCounter;
+
+  public ReactiveS3Service(
+      AppProperties appProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<S3AsyncClient> s3Client,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.appProperties = appProperties;
+    this.awsProperties = awsProperties;
+    this.s3Client = s3Client;
+    this.objectMapper = objectMapper;
+    this.failedCounter = meterRegistry.counter("aws.s3.metadata.failed");
+  }
+
+  public Mono<Void> writeWidgetMetadata(WidgetDto widget) {
+    if (!appProperties.getFeature().isS3Metadata()) {
+      return Mono.empty();
+    }
+    return Mono.defer(
+            () -> {
+              String payload;
+              try {
+                payload =
+                    objectMapper.writeValueAsString(
+                        new WidgetMetadata(
+                            widget, Instant.now(), appProperties.getDeploymentTarget()));
+              } catch (JsonProcessingException ex) {
+                return Mono.error(
+                    new IllegalStateException("Failed to serialise widget metadata", ex));
+              }
+              PutObjectRequest request =
+                  PutObjectRequest.builder()
+                      .bucket(bucketName())
+                      .key(metadataKey(widget.id().toString()))
+                      .contentType("application/json")
+                      .build();
+              return Mono.fromFuture(
+                  () -> client().putObject(request, AsyncRequestBody.fromString(payload)));
+            })
+        .then()
+        .onErrorResume(ex -> metadataFailed("put", widget.id().toString(), ex));
+  }
+
+  public Mono<Void> deleteWidgetMetadata(String widgetId) {
+    if (!appProperties.getFeature().isS3Metadata()) {
+      return Mono.empty();
+    }
+    return Mono.defer(
+            () ->
+                Mono.fromFuture(
+                    () ->
+                        client()
+                            .deleteObject(
+                                DeleteObjectRequest.builder()
+                                    .bucket(bucketName())
+                                    .key(metadataKey(widgetId))
+                                    .build())))
+        .then()
+        .onErrorResume(ex -> metadataFailed("delete", widgetId, ex));
+  }
+
+  public Flux<ByteBuffer> openDescription(String descriptionRef) {
+    GetObjectRequest request =
+        GetObjectRequest.builder().bucket(bucketName()).key(descriptionRef).build();
+    return Mono.fromFuture(
+            () -> client().getObject(request, AsyncResponseTransformer.toPublisher()))
+        .flatMapMany(Flux::from)
+        .onErrorMap(
+            ex -> !(ex instanceof ResponseStatusException),
+            ex ->
+                new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Description storage unavailable", ex));
+  }
+
+  public Mono<Void> deleteDescription(String descriptionRef) {
+    return Mono.fromFuture(
+            () ->
+                client()
+                    .deleteObject(
+                        DeleteObjectRequest.builder()
+                            .bucket(bucketName())
+                            .key(descriptionRef)
+                            .build()))
+        .then()
+        .onErrorResume(
+            ex -> {
+              log.warn("Failed to delete offloaded description key={}", descriptionRef, ex);
+              return Mono.empty();
+            });
+  }
+
+  private Mono<Void> metadataFailed(String operation, String widgetId, Throwable ex) {
+    failedCounter.increment();
+    log.warn("S3 metadata {} failed for widget {}", operation, widgetId, ex);
+    return Mono.empty();
+  }
+
+  private S3AsyncClient client() {
+    S3AsyncClient client = s3Client.getIfAvailable();
+    if (client == null) {
+      throw new IllegalStateException("S3 async client is not available");
+    }
+    return client;
+  }
+
+  private String bucketName() {
+    String bucketName = awsProperties.getS3().getBucketName();
+    if (!StringUtils.hasText(bucketName)) {
+      throw new IllegalStateException("aws.s3.bucket-name is not configured");
+    }
+    return bucketName;
+  }
+
+  private String metadataKey(String widgetId) {
+    String prefix = awsProperties.getS3().getPrefix();
+    String normalisedPrefix = StringUtils.hasText(prefix) ? prefix : "";
+    if (!normalisedPrefix.endsWith("/")) {
+      normalisedPrefix = normalisedPrefix + "/";
+    }
+    return normalisedPrefix + widgetId + ".json";
+  }
+
+  private record WidgetMetadata(WidgetDto widget, Instant capturedAt, String deploymentTarget) {}
+}
@@ -0,0 +1,173 @@
+package com.deanlofts.awslabjava.reactive.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+import com.deanlofts.awslabjava.reactive.config.AppProperties;
+import com.deanlofts.awslabjava.reactive.repository.ReactiveWidgetRepository;
+import com.deanlofts.awslabjava.reactive.repository.WidgetRow;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveWidgetService {
+
+  private final ReactiveWidgetRepository widgetRepository;
+  private final ReactiveWidgetStatsService statsService;
+  private final ReactiveS3Service s3Service;
+  private final TransactionalOperator transactionalOperator;
+  private final AppProperties appProperties;
+
+  public ReactiveWidgetService(
+      ReactiveWidgetRepository widgetRepository,
+      ReactiveWidgetStatsService statsService,
+      ReactiveS3Service s3Service,
+      TransactionalOperator transactionalOperator,
+      AppProperties appProperties) {
+    this.widgetRepository = widgetRepository;
+    this.statsService = statsService;
+    this.s3Service = s3Service;
+    this.transactionalOperator = transactionalOperator;
+    this.appProperties = appProperties;
+  }
+
+  public Flux<WidgetDto> findAll(Set<WidgetField> fields) {
+    return widgetRepository
+        .findAll(fields.contains(WidgetField.DESCRIPTION))
+        .map(row -> toDto(row, fields));
+  }
+
+  public Mono<WidgetDto> findById(UUID id, Set<WidgetField> fields) {
+    return widgetRepository
+        .findById(id, fields.contains(WidgetField.DESCRIPTION))
+        .map(row -> toDto(row, fields))
+        .switchIfEmpty(Mono.error(() -> notFound(id)));
+  }
+
+  public Mono<WidgetStatsDto> stats(int hours) {
+    return statsService.stats(hours);
+  }
+
+  public Mono<DescriptionContent> openDescription(UUID id) {
+    return widgetRepository
+        .findDescription(id)
+        .switchIfEmpty(Mono.error(() -> notFound(id)))
+        .map(
+            row -> {
+              if (row.descriptionRef() == null) {
+                byte[] bytes = row.description().getBytes(StandardCharsets.UTF_8);
+                return new DescriptionContent(
+                    Flux.just(ByteBuffer.wrap(bytes)), bytes.length, null);
+              }
+              return new DescriptionContent(
+                  s3Service.openDescription(row.descriptionRef()), row.size(), row.sha256());
+            });
+  }
+
+  public Mono<WidgetDto> create(WidgetRequest request) {
+    return Mono.defer(
+        () -> {
+          Instant now = Instant.now();
+          WidgetRow row =
+              new WidgetRow(
+                  appProperties.getIds().getUuidVersion().newId(),
+                  request.name(),
+                  request.description(),
+                  null,
+                  now,
+                  now);
+          WidgetDto created = toDto(row);
+          return widgetRepository
+              .insert(row)
+              .as(transactionalOperator::transactional)
+              .doOnSuccess(ignored -> statsService.recordCreated())
+              .then(widgetRepository.advanceWriteEpoch())
+              .then(s3Service.writeWidgetMetadata(created))
+              .thenReturn(created);
+        });
+  }
+
+  public Mono<WidgetDto> update(UUID id, WidgetRequest request) {
+    return widgetRepository
+        .update(id, request.name(), request.description(), Instant.now())
+        .as(transactionalOperator::transactional)
+        .switchIfEmpty(Mono.error(() -> notFound(id)))
+        .flatMap(
+            updated -> {
+              statsService.recordUpdated();
+              WidgetDto dto = toDto(updated.widget());
+              return widgetRepository
+                  .advanceWriteEpoch()
+                  .then(releaseDescription(updated.previousDescriptionRef()))
+                  .then(s3Service.writeWidgetMetadata(dto))
+                  .thenReturn(dto);
+            });
+  }
+
+  public Mono<Void> delete(UUID id) {
+    return widgetRepository
+        .delete(id)
+        .as(transactionalOperator::transactional)
+        .flatMap(
+            descriptionRef -> {
+              statsService.recordDeleted();
+              return widgetRepository
+                  .advanceWriteEpoch()
+                  .then(releaseDescription(descriptionRef.orElse(null)));
+            })
+        .then(s3Service.deleteWidgetMetadata(id.toString()));
+  }
+
+  private Mono<Void> releaseDescription(String descriptionRef) {
+    if (descriptionRef == null) {
+      return Mono.empty();
+    }
+    return widgetRepository
+        .countByDescriptionRef(descriptionRef)
+        .filter(references -> references == 0)
+        .flatMap(references -> s3Service.deleteDescription(descriptionRef));
+  }
+
+  private static WidgetDto toDto(WidgetRow row) {
+    return new WidgetDto(
+        row.id(),
+        row.name(),
+        row.description(),
+        row.createdAt(),
+        row.updatedAt(),
+        offloaded(row.descriptionRef()));
+  }
+
+  private static WidgetDto toDto(WidgetRow row, Set<WidgetField> fields) {
+    return new WidgetDto(
+        fields.contains(WidgetField.ID) ? row.id() : null,
+        fields.contains(WidgetField.NAME) ? row.name() : null,
+        fields.contains(WidgetField.DESCRIPTION) ? row.description() : null,
+        fields.contains(WidgetField.CREATED_AT) ? row.createdAt() : null,
+        fields.contains(WidgetField.UPDATED_AT) ? row.updatedAt() : null,
+        offloaded(row.descriptionRef()));
+  }
+
+  private static Boolean offloaded(String descriptionRef) {
+    return descriptionRef != null ? Boolean.TRUE : null;
+  }
+
+  private static ResponseStatusException notFound(UUID id) {
+    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id));
+  }
+
+  public record DescriptionContent(Flux<ByteBuffer> content, long length, String sha256) {}
+}
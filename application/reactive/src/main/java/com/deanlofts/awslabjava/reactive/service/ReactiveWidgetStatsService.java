@@ -0,0 +1,190 @@
+package com.deanlofts.awslabjava.reactive.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+import com.deanlofts.awslabjava.reactive.config.AppProperties;
+import com.deanlofts.awslabjava.reactive.repository.ReactiveWidgetStatsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveWidgetStatsService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReactiveWidgetStatsService.class);
+  private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+
+  private final ReactiveWidgetStatsRepository statsRepository;
+  private final TransactionalOperator transactionalOperator;
+  private final AppProperties appProperties;
+  private final Clock clock;
+  private final ConcurrentMap<Instant, long[]> pending = new ConcurrentHashMap<>();
+  private final Counter flushFailures;
+  private Disposable flusher;
+
+  public ReactiveWidgetStatsService(
+      ReactiveWidgetStatsRepository statsRepository,
+      TransactionalOperator transactionalOperator,
+      AppProperties appProperties,
+      MeterRegistry meterRegistry) {
+    this.statsRepository = statsRepository;
+    this.transactionalOperator = transactionalOperator;
+    this.appProperties = appProperties;
+    this.clock = Clock.systemUTC();
+    this.flushFailures = meterRegistry.counter("widgets.stats.flush.failures");
+  }
+
+  @PostConstruct
+  void start() {
+    flusher = Flux.interval(FLUSH_INTERVAL, FLUSH_INTERVAL).concatMap(tick -> flush()).subscribe();
+  }
+
+  @PreDestroy
+  void stop() {
+    if (flusher != null) {
+      flusher.dispose();
+    }
+    flush().block(FLUSH_INTERVAL);
+  }
+
+  public void recordCreated() {
+    record(0);
+  }
+
+  public void recordUpdated() {
+    record(1);
+  }
+
+  public void recordDeleted() {
+    record(2);
+  }
+
+  public Mono<WidgetStatsDto> stats(int hours) {
+    int window = Math.max(1, Math.min(hours, appProperties.getStats().getMaxHours()));
+    Instant currentHour = hourOf(clock.instant());
+    Instant from = currentHour.minus(window - 1L, ChronoUnit.HOURS);
+    return Mono.zip(
+            statsRepository.readTotals(),
+            statsRepository
+                .readHourly(from)
+                .collectMap(WidgetStatsDto.HourlyActivity::hour, activity -> activity))
+        .map(
+            persisted -> {
+              Map<Instant, long[]> buckets = new HashMap<>();
+              persisted
+                  .getT2()
+                  .forEach(
+                      (hour, activity) ->
+                          buckets.put(
+                              hour,
+                              new long[] {
+                                activity.created(), activity.updated(), activity.deleted()
+                              }));
+              long[] totalsPending = new long[3];
+              pending.forEach(
+                  (hour, counts) -> {
+                    synchronized (counts) {
+                      for (int i = 0; i < 3; i++) {
+                        totalsPending[i] += counts[i];
+                      }
+                      if (!hour.isBefore(from)) {
+                        long[] bucket = buckets.computeIfAbsent(hour, key -> new long[3]);
+                        for (int i = 0; i < 3; i++) {
+                          bucket[i] += counts[i];
+                        }
+                      }
+                    }
+                  });
+              List<WidgetStatsDto.HourlyActivity> hourly = new ArrayList<>(window);
+              for (int i = 0; i < window; i++) {
+                Instant hour = from.plus(i, ChronoUnit.HOURS);
+                long[] bucket = buckets.getOrDefault(hour, new long[3]);
+                hourly.add(
+                    new WidgetStatsDto.HourlyActivity(hour, bucket[0], bucket[1], bucket[2]));
+              }
+              ReactiveWidgetStatsRepository.Totals totals = persisted.getT1();
+              return new WidgetStatsDto(
+                  totals.widgetCount() + totalsPending[0] - totalsPending[2],
+                  totals.created() + totalsPending[0],
+                  totals.updated() + totalsPending[1],
+                  totals.deleted() + totalsPending[2],
+                  clock.instant(),
+                  hourly);
+            });
+  }
+
+  Mono<Void> flush() {
+    Map<Instant, long[]> drained = new HashMap<>();
+    pending.forEach(
+        (hour, counts) -> {
+          synchronized (counts) {
+            if (counts[0] != 0 || counts[1] != 0 || counts[2] != 0) {
+              drained.put(hour, counts.clone());
+              counts[0] = 0;
+              counts[1] = 0;
+              counts[2] = 0;
+            }
+          }
+        });
+    Instant currentHour = hourOf(clock.instant());
+    pending.keySet().removeIf(hour -> hour.isBefore(currentHour.minus(1, ChronoUnit.HOURS)));
+    if (drained.isEmpty()) {
+      return Mono.empty();
+    }
+    return Flux.fromIterable(drained.entrySet())
+        .concatMap(
+            entry -> {
+              long[] counts = entry.getValue();
+              return statsRepository.apply(entry.getKey(), counts[0], counts[1], counts[2]);
+            })
+        .then()
+        .as(transactionalOperator::transactional)
+        .onErrorResume(
+            ex -> {
+              flushFailures.increment();
+              log.warn("Widget stats flush failed; retrying with the next flush", ex);
+              drained.forEach(
+                  (hour, counts) -> {
+                    long[] bucket = pending.computeIfAbsent(hour, key -> new long[3]);
+                    synchronized (bucket) {
+                      for (int i = 0; i < 3; i++) {
+                        bucket[i] += counts[i];
+                      }
+                    }
+                  });
+              return Mono.empty();
+            });
+  }
+
+  private void record(int index) {
+    long[] bucket = pending.computeIfAbsent(hourOf(clock.instant()), key -> new long[3]);
+    synchronized (bucket) {
+      bucket[index]++;
+    }
+  }
+
+  private static Instant hourOf(Instant instant) {
+    return instant.truncatedTo(ChronoUnit.HOURS);
+  }
+}
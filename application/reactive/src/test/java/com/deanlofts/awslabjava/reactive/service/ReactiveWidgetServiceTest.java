@@ -0,0 +1,122 @@
+package com.deanlofts.awslabjava.reactive.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetIdVersion;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.reactive.config.AppProperties;
+import com.deanlofts.awslabjava.reactive.repository.ReactiveWidgetRepository;
+import com.deanlofts.awslabjava.reactive.repository.WidgetRow;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveWidgetServiceTest {
+
+  private final ReactiveWidgetRepository repository = mock(ReactiveWidgetRepository.class);
+  private final ReactiveWidgetStatsService statsService = mock(ReactiveWidgetStatsService.class);
+  private final ReactiveS3Service s3Service = mock(ReactiveS3Service.class);
+  private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+  private ReactiveWidgetService service;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(transactionalOperator.transactional(any(Mono.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(s3Service.writeWidgetMetadata(any())).thenReturn(Mono.empty());
+    when(s3Service.deleteWidgetMetadata(any())).thenReturn(Mono.empty());
+    when(s3Service.deleteDescription(any())).thenReturn(Mono.empty());
+    when(repository.advanceWriteEpoch()).thenReturn(Mono.empty());
+    service =
+        new ReactiveWidgetService(
+            repository,
+            statsService,
+            s3Service,
+            transactionalOperator,
+            new AppProperties(
+                "test", "token", null, null, new AppProperties.Ids(WidgetIdVersion.V7), null));
+  }
+
+  @Test
+  void createInsertsRowRecordsStatsAndWritesMetadata() {
+    when(repository.insert(any())).thenReturn(Mono.empty());
+
+    StepVerifier.create(service.create(new WidgetRequest("name", "description")))
+        .assertNext(
+            widget -> {
+              assertThat(widget.id().version()).isEqualTo(7);
+              assertThat(widget.name()).isEqualTo("name");
+              assertThat(widget.createdAt()).isEqualTo(widget.updatedAt());
+            })
+        .verifyComplete();
+
+    ArgumentCaptor<WidgetRow> row = ArgumentCaptor.forClass(WidgetRow.class);
+    verify(repository).insert(row.capture());
+    assertThat(row.getValue().description()).isEqualTo("description");
+    verify(statsService).recordCreated();
+    verify(s3Service).writeWidgetMetadata(any());
+  }
+
+  @Test
+  void findByIdMapsMissingRowsToNotFound() {
+    UUID id = UUID.randomUUID();
+    when(repository.findById(eq(id), anyBoolean())).thenReturn(Mono.empty());
+
+    StepVerifier.create(service.findById(id, WidgetField.ALL))
+        .expectErrorSatisfies(
+            ex ->
+                assertThat(((ResponseStatusException) ex).getStatusCode())
+                    .isEqualTo(HttpStatus.NOT_FOUND))
+        .verify();
+  }
+
+  @Test
+  void deleteReleasesUnreferencedOffloadedDescription() {
+    UUID id = UUID.randomUUID();
+    when(repository.delete(id)).thenReturn(Mono.just(Optional.of("widget-descriptions/abc.txt")));
+    when(repository.countByDescriptionRef("widget-descriptions/abc.txt")).thenReturn(Mono.just(0L));
+
+    StepVerifier.create(service.delete(id)).verifyComplete();
+
+    verify(statsService).recordDeleted();
+    verify(s3Service).deleteDescription("widget-descriptions/abc.txt");
+    verify(s3Service).deleteWidgetMetadata(id.toString());
+  }
+
+  @Test
+  void sparseFieldsetsOmitUnrequestedFields() {
+    Instant now = Instant.now();
+    WidgetRow row = new WidgetRow(UUID.randomUUID(), "name", null, null, now, now);
+    when(repository.findById(row.id(), false)).thenReturn(Mono.just(row));
+
+    StepVerifier.create(service.findById(row.id(), WidgetField.parse("id,name")))
+        .assertNext(
+            widget -> {
+              assertThat(List.of(widget.id(), widget.name())).containsExactly(row.id(), "name");
+              assertThat(widget.createdAt()).isNull();
+            })
+        .verifyComplete();
+    verify(repository, never()).findById(row.id(), true);
+  }
+}
@@ -1 +1,3 @@
 rootProject.name = "aws-lab-java-demo"
+
+include("reactive")
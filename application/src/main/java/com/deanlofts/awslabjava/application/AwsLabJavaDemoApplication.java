@@ -9,6 +9,9 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 public class AwsLabJavaDemoApplication {
 
   public static void main(String[] args) {
+    if (SchemaMigrationApplication.isRequested(args)) {
+      System.exit(SchemaMigrationApplication.run(args));
+    }
     SpringApplication.run(AwsLabJavaDemoApplication.class, args);
   }
 }
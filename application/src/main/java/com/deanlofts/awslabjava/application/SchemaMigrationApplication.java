@@ -0,0 +1,45 @@
+package com.deanlofts.awslabjava.application;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.deanlofts.awslabjava.application.config.MigrationProperties;
+import com.deanlofts.awslabjava.application.config.SchemaMigrationStrategy;
+
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class})
+@EnableConfigurationProperties(MigrationProperties.class)
+@Import(SchemaMigrationStrategy.class)
+final class SchemaMigrationApplication {
+
+  private SchemaMigrationApplication() {}
+
+  static boolean isRequested(String[] args) {
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+    return Binder.get(environment)
+        .bind("app.migration.mode", MigrationProperties.Mode.class)
+        .map(MigrationProperties.Mode.MIGRATE_ONLY::equals)
+        .orElse(false);
+  }
+
+  static int run(String[] args) {
+    System.setProperty(AotDetector.AOT_ENABLED, "false");
+    SpringApplication application = new SpringApplication(SchemaMigrationApplication.class);
+    application.setMainApplicationClass(SchemaMigrationApplication.class);
+    application.setWebApplicationType(WebApplicationType.NONE);
+    try {
+      return SpringApplication.exit(application.run(args));
+    } catch (RuntimeException ex) {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.archive")
+@Getter
+public class ArchiveProperties {
+
+  private final boolean enabled;
+  private final Duration olderThan;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final Duration interval;
+  private final String prefix;
+  private final int cacheSize;
+
+  public ArchiveProperties(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("180d") Duration olderThan,
+      @DefaultValue("500") int batchSize,
+      @DefaultValue("20") int maxBatchesPerRun,
+      @DefaultValue("1h") Duration interval,
+      @DefaultValue("widget-archive/") String prefix,
+      @DefaultValue("10000") int cacheSize) {
+    this.enabled = enabled;
+    this.olderThan = olderThan;
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.interval = interval;
+    this.prefix = prefix;
+    this.cacheSize = cacheSize;
+  }
+}
@@ -4,8 +4,20 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.util.StringUtils;
 
+import com.deanlofts.awslabjava.application.observability.AwsSdkMetricPublisher;
+import com.deanlofts.awslabjava.application.observability.TracingExecutionInterceptor;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.DeadlineExecutionInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
@@ -19,38 +31,137 @@ import software.amazon.awssdk.services.ssm.SsmClientBuilder;
 public class AwsClientConfiguration {
 
   @Bean
+  AwsCallGuards awsCallGuards(AwsProperties properties, MeterRegistry meterRegistry) {
+    return new AwsCallGuards(properties.getResilience(), meterRegistry);
+  }
+
+  @Bean
+  AwsSdkMetricPublisher awsSdkMetricPublisher(MeterRegistry meterRegistry) {
+    return new AwsSdkMetricPublisher(meterRegistry);
+  }
+
+  @Bean
+  @Lazy
+  SdkHttpClient awsHttpClient(AwsProperties properties) {
+    AwsProperties.Http http = properties.getHttp();
+    return ApacheHttpClient.builder()
+        .maxConnections(http.getMaxConnections())
+        .connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout())
+        .connectionTimeout(http.getConnectionTimeout())
+        .socketTimeout(http.getSocketTimeout())
+        .connectionTimeToLive(http.getConnectionTimeToLive())
+        .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+        .tcpKeepAlive(http.isTcpKeepAlive())
+        .useIdleConnectionReaper(http.isUseIdleConnectionReaper())
+        .build();
+  }
+
+  @Bean
+  @Lazy
+  AwsCredentialsProvider awsCredentialsProvider() {
+    return DefaultCredentialsProvider.builder()
+        .reuseLastProviderEnabled(true)
+        .asyncCredentialUpdateEnabled(true)
+        .build();
+  }
+
+  @Bean
+  @Lazy
   @ConditionalOnProperty(prefix = "aws.secrets", name = "auth-token-secret-id")
-  SecretsManagerClient secretsManagerClient(AwsProperties properties) {
-    SecretsManagerClientBuilder builder = SecretsManagerClient.builder();
+  SecretsManagerClient secretsManagerClient(
+      AwsProperties properties,
+      SdkHttpClient awsHttpClient,
+      AwsCredentialsProvider awsCredentialsProvider,
+      AwsSdkMetricPublisher awsSdkMetricPublisher,
+      TracingExecutionInterceptor tracingExecutionInterceptor) {
+    SecretsManagerClientBuilder builder =
+        SecretsManagerClient.builder()
+            .httpClient(awsHttpClient)
+            .credentialsProvider(awsCredentialsProvider)
+            .overrideConfiguration(
+                overrideConfiguration(
+                    properties.getResilience().getSecretsManager(),
+                    awsSdkMetricPublisher,
+                    tracingExecutionInterceptor));
     Region region = resolveRegion(properties);
     if (region != null) {
       builder = builder.region(region);
     }
+    if (properties.getEndpoints().getSecretsManager() != null) {
+      builder = builder.endpointOverride(properties.getEndpoints().getSecretsManager());
+    }
     return builder.build();
   }
 
   @Bean
+  @Lazy
   @ConditionalOnProperty(prefix = "aws.parameter-store", name = "auth-token-parameter-name")
-  SsmClient ssmClient(AwsProperties properties) {
-    SsmClientBuilder builder = SsmClient.builder();
+  SsmClient ssmClient(
+      AwsProperties properties,
+      SdkHttpClient awsHttpClient,
+      AwsCredentialsProvider awsCredentialsProvider,
+      AwsSdkMetricPublisher awsSdkMetricPublisher,
+      TracingExecutionInterceptor tracingExecutionInterceptor) {
+    SsmClientBuilder builder =
+        SsmClient.builder()
+            .httpClient(awsHttpClient)
+            .credentialsProvider(awsCredentialsProvider)
+            .overrideConfiguration(
+                overrideConfiguration(
+                    properties.getResilience().getSsm(),
+                    awsSdkMetricPublisher,
+                    tracingExecutionInterceptor));
     Region region = resolveRegion(properties);
     if (region != null) {
       builder = builder.region(region);
     }
+    if (properties.getEndpoints().getSsm() != null) {
+      builder = builder.endpointOverride(properties.getEndpoints().getSsm());
+    }
     return builder.build();
   }
 
   @Bean
+  @Lazy
   @ConditionalOnProperty(prefix = "aws.s3", name = "bucket-name")
-  S3Client s3Client(AwsProperties properties) {
-    S3ClientBuilder builder = S3Client.builder();
+  S3Client s3Client(
+      AwsProperties properties,
+      SdkHttpClient awsHttpClient,
+      AwsCredentialsProvider awsCredentialsProvider,
+      AwsSdkMetricPublisher awsSdkMetricPublisher,
+      TracingExecutionInterceptor tracingExecutionInterceptor) {
+    S3ClientBuilder builder =
+        S3Client.builder()
+            .httpClient(awsHttpClient)
+            .credentialsProvider(awsCredentialsProvider)
+            .overrideConfiguration(
+                overrideConfiguration(
+                    properties.getResilience().getS3(),
+                    awsSdkMetricPublisher,
+                    tracingExecutionInterceptor));
     Region region = resolveRegion(properties);
     if (region != null) {
       builder = builder.region(region);
     }
+    if (properties.getEndpoints().getS3() != null) {
+      builder = builder.endpointOverride(properties.getEndpoints().getS3()).forcePathStyle(true);
+    }
     return builder.build();
   }
 
+  private ClientOverrideConfiguration overrideConfiguration(
+      AwsProperties.Dependency settings,
+      AwsSdkMetricPublisher metricPublisher,
+      TracingExecutionInterceptor tracingExecutionInterceptor) {
+    return ClientOverrideConfiguration.builder()
+        .apiCallTimeout(settings.getApiCallTimeout())
+        .apiCallAttemptTimeout(settings.getApiCallAttemptTimeout())
+        .addMetricPublisher(metricPublisher)
+        .addExecutionInterceptor(tracingExecutionInterceptor)
+        .addExecutionInterceptor(new DeadlineExecutionInterceptor(settings.getApiCallTimeout()))
+        .build();
+  }
+
   private Region resolveRegion(AwsProperties properties) {
     String region = properties.getRegion();
     return StringUtils.hasText(region) ? Region.of(region) : null;
@@ -1,5 +1,8 @@
 package com.deanlofts.awslabjava.application.config;
 
+import java.net.URI;
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
@@ -13,12 +16,25 @@ public class AwsProperties {
   private final Secrets secrets;
   private final ParameterStore parameterStore;
   private final S3 s3;
+  private final Resilience resilience;
+  private final Http http;
+  private final Endpoints endpoints;
 
-  public AwsProperties(String region, Secrets secrets, ParameterStore parameterStore, S3 s3) {
+  public AwsProperties(
+      String region,
+      Secrets secrets,
+      ParameterStore parameterStore,
+      S3 s3,
+      Resilience resilience,
+      Http http,
+      Endpoints endpoints) {
     this.region = region;
     this.secrets = secrets != null ? secrets : new Secrets(null);
     this.parameterStore = parameterStore != null ? parameterStore : new ParameterStore(null);
-    this.s3 = s3 != null ? s3 : new S3(null, "widget-metadata/");
+    this.s3 = s3 != null ? s3 : new S3(null, "widget-metadata/", 500, Duration.ofSeconds(5));
+    this.resilience = resilience != null ? resilience : new Resilience(null, null, null);
+    this.http = http != null ? http : Http.defaults();
+    this.endpoints = endpoints != null ? endpoints : new Endpoints(null, null, null);
   }
 
   @Getter
@@ -43,10 +59,134 @@ public class AwsProperties {
   public static class S3 {
     private final String bucketName;
     private final String prefix;
+    private final int deferredWriteCapacity;
+    private final Duration deferredReplayInterval;
 
-    public S3(String bucketName, @DefaultValue("widget-metadata/") String prefix) {
+    public S3(
+        String bucketName,
+        @DefaultValue("widget-metadata/") String prefix,
+        @DefaultValue("500") int deferredWriteCapacity,
+        @DefaultValue("5s") Duration deferredReplayInterval) {
       this.bucketName = bucketName;
       this.prefix = prefix;
+      this.deferredWriteCapacity = deferredWriteCapacity;
+      this.deferredReplayInterval = deferredReplayInterval;
+    }
+  }
+
+  @Getter
+  public static class Resilience {
+    private final Dependency s3;
+    private final Dependency secretsManager;
+    private final Dependency ssm;
+
+    public Resilience(Dependency s3, Dependency secretsManager, Dependency ssm) {
+      this.s3 = s3 != null ? s3 : Dependency.defaults();
+      this.secretsManager = secretsManager != null ? secretsManager : Dependency.defaults();
+      this.ssm = ssm != null ? ssm : Dependency.defaults();
+    }
+  }
+
+  @Getter
+  public static class Dependency {
+    private final Duration apiCallTimeout;
+    private final Duration apiCallAttemptTimeout;
+    private final float failureRateThreshold;
+    private final Duration slowCallDurationThreshold;
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final Duration waitDurationInOpenState;
+    private final int maxConcurrentCalls;
+    private final Duration maxWaitDuration;
+
+    public Dependency(
+        @DefaultValue("5s") Duration apiCallTimeout,
+        @DefaultValue("2s") Duration apiCallAttemptTimeout,
+        @DefaultValue("50") float failureRateThreshold,
+        @DefaultValue("2s") Duration slowCallDurationThreshold,
+        @DefaultValue("20") int slidingWindowSize,
+        @DefaultValue("10") int minimumNumberOfCalls,
+        @DefaultValue("30s") Duration waitDurationInOpenState,
+        @DefaultValue("10") int maxConcurrentCalls,
+        @DefaultValue("100ms") Duration maxWaitDuration) {
+      this.apiCallTimeout = apiCallTimeout;
+      this.apiCallAttemptTimeout = apiCallAttemptTimeout;
+      this.failureRateThreshold = failureRateThreshold;
+      this.slowCallDurationThreshold = slowCallDurationThreshold;
+      this.slidingWindowSize = slidingWindowSize;
+      this.minimumNumberOfCalls = minimumNumberOfCalls;
+      this.waitDurationInOpenState = waitDurationInOpenState;
+      this.maxConcurrentCalls = maxConcurrentCalls;
+      this.maxWaitDuration = maxWaitDuration;
+    }
+
+    public static Dependency defaults() {
+      return new Dependency(
+          Duration.ofSeconds(5),
+          Duration.ofSeconds(2),
+          50f,
+          Duration.ofSeconds(2),
+          20,
+          10,
+          Duration.ofSeconds(30),
+          10,
+          Duration.ofMillis(100));
+    }
+  }
+
+  @Getter
+  public static class Http {
+    private final int maxConnections;
+    private final Duration connectionAcquisitionTimeout;
+    private final Duration connectionTimeout;
+    private final Duration socketTimeout;
+    private final Duration connectionTimeToLive;
+    private final Duration connectionMaxIdleTime;
+    private final boolean tcpKeepAlive;
+    private final boolean useIdleConnectionReaper;
+
+    public Http(
+        @DefaultValue("50") int maxConnections,
+        @DefaultValue("1s") Duration connectionAcquisitionTimeout,
+        @DefaultValue("2s") Duration connectionTimeout,
+        @DefaultValue("5s") Duration socketTimeout,
+        @DefaultValue("5m") Duration connectionTimeToLive,
+        @DefaultValue("30s") Duration connectionMaxIdleTime,
+        @DefaultValue("true") boolean tcpKeepAlive,
+        @DefaultValue("true") boolean useIdleConnectionReaper) {
+      this.maxConnections = maxConnections;
+      this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+      this.connectionTimeout = connectionTimeout;
+      this.socketTimeout = socketTimeout;
+      this.connectionTimeToLive = connectionTimeToLive;
+      this.connectionMaxIdleTime = connectionMaxIdleTime;
+      this.tcpKeepAlive = tcpKeepAlive;
+      this.useIdleConnectionReaper = useIdleConnectionReaper;
+    }
+
+    public static Http defaults() {
+      return new Http(
+          50,
+          Duration.ofSeconds(1),
+          Duration.ofSeconds(2),
+          Duration.ofSeconds(5),
+          Duration.ofMinutes(5),
+          Duration.ofSeconds(30),
+          true,
+          true);
+    }
+  }
+
+  @Getter
+  public static class Endpoints {
+    private final URI s3;
+    private final URI secretsManager;
+    private final URI ssm;
+
+    public Endpoints(URI s3, URI secretsManager, URI ssm) {
+      this.s3 = s3;
+      this.secretsManager = secretsManager;
+      this.ssm = ssm;
     }
   }
 }
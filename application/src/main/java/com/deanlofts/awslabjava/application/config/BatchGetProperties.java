@@ -0,0 +1,17 @@
+package com.deanlofts.awslabjava.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.batch-get")
+@Getter
+public class BatchGetProperties {
+
+  private final int maxIds;
+
+  public BatchGetProperties(@DefaultValue("100") int maxIds) {
+    this.maxIds = maxIds;
+  }
+}
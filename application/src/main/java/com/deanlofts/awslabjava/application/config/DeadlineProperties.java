@@ -0,0 +1,30 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.deadline")
+@Getter
+public class DeadlineProperties {
+
+  private final boolean enabled;
+  private final Duration budget;
+  private final String header;
+  private final List<String> excludedPaths;
+
+  public DeadlineProperties(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("30s") Duration budget,
+      @DefaultValue("X-Request-Timeout-Ms") String header,
+      @DefaultValue({"/actuator/**", "/api/v1/widgets/imports/**"}) List<String> excludedPaths) {
+    this.enabled = enabled;
+    this.budget = budget;
+    this.header = header;
+    this.excludedPaths = excludedPaths;
+  }
+}
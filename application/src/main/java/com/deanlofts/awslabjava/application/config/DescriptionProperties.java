@@ -0,0 +1,33 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.descriptions")
+@Getter
+public class DescriptionProperties {
+
+  private final boolean offloadEnabled;
+  private final DataSize offloadThreshold;
+  private final String prefix;
+  private final int cleanupAttempts;
+  private final Duration cleanupRetryDelay;
+
+  public DescriptionProperties(
+      @DefaultValue("false") boolean offloadEnabled,
+      @DefaultValue("256KB") DataSize offloadThreshold,
+      @DefaultValue("widget-descriptions/") String prefix,
+      @DefaultValue("5") int cleanupAttempts,
+      @DefaultValue("30s") Duration cleanupRetryDelay) {
+    this.offloadEnabled = offloadEnabled;
+    this.offloadThreshold = offloadThreshold;
+    this.prefix = prefix;
+    this.cleanupAttempts = cleanupAttempts;
+    this.cleanupRetryDelay = cleanupRetryDelay;
+  }
+}
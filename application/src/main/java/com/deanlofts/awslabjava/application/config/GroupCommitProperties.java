@@ -0,0 +1,32 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.group-commit")
+@Getter
+public class GroupCommitProperties {
+
+  private final boolean enabled;
+  private final int maxBatchSize;
+  private final Duration maxDelay;
+  private final int queueCapacity;
+  private final Duration awaitTimeout;
+
+  public GroupCommitProperties(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("128") int maxBatchSize,
+      @DefaultValue("5ms") Duration maxDelay,
+      @DefaultValue("10000") int queueCapacity,
+      @DefaultValue("10s") Duration awaitTimeout) {
+    this.enabled = enabled;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelay = maxDelay;
+    this.queueCapacity = queueCapacity;
+    this.awaitTimeout = awaitTimeout;
+  }
+}
@@ -0,0 +1,19 @@
+package com.deanlofts.awslabjava.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.deanlofts.awslabjava.application.domain.WidgetIdVersion;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.ids")
+@Getter
+public class IdProperties {
+
+  private final WidgetIdVersion uuidVersion;
+
+  public IdProperties(@DefaultValue("v4") WidgetIdVersion uuidVersion) {
+    this.uuidVersion = uuidVersion;
+  }
+}
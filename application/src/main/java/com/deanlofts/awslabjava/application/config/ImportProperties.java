@@ -0,0 +1,30 @@
+package com.deanlofts.awslabjava.application.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.import")
+@Getter
+public class ImportProperties {
+
+  private final String localDirectory;
+  private final int copyBufferSize;
+  private final long progressInterval;
+  private final int metadataPageSize;
+  private final int retainedJobs;
+
+  public ImportProperties(
+      String localDirectory,
+      @DefaultValue("65536") int copyBufferSize,
+      @DefaultValue("100000") long progressInterval,
+      @DefaultValue("500") int metadataPageSize,
+      @DefaultValue("20") int retainedJobs) {
+    this.localDirectory = localDirectory;
+    this.copyBufferSize = copyBufferSize;
+    this.progressInterval = progressInterval;
+    this.metadataPageSize = metadataPageSize;
+    this.retainedJobs = retainedJobs;
+  }
+}
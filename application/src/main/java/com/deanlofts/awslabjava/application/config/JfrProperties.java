@@ -0,0 +1,45 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.jfr")
+@Getter
+public class JfrProperties {
+
+  private final boolean continuousEnabled;
+  private final String continuousSettings;
+  private final Duration continuousMaxAge;
+  private final DataSize continuousMaxSize;
+  private final String defaultSettings;
+  private final Duration defaultDuration;
+  private final Duration maxDuration;
+  private final DataSize maxSize;
+  private final int maxRecordings;
+
+  public JfrProperties(
+      @DefaultValue("true") boolean continuousEnabled,
+      @DefaultValue("default") String continuousSettings,
+      @DefaultValue("30m") Duration continuousMaxAge,
+      @DefaultValue("128MB") DataSize continuousMaxSize,
+      @DefaultValue("profile") String defaultSettings,
+      @DefaultValue("60s") Duration defaultDuration,
+      @DefaultValue("10m") Duration maxDuration,
+      @DefaultValue("256MB") DataSize maxSize,
+      @DefaultValue("4") int maxRecordings) {
+    this.continuousEnabled = continuousEnabled;
+    this.continuousSettings = continuousSettings;
+    this.continuousMaxAge = continuousMaxAge;
+    this.continuousMaxSize = continuousMaxSize;
+    this.defaultSettings = defaultSettings;
+    this.defaultDuration = defaultDuration;
+    this.maxDuration = maxDuration;
+    this.maxSize = maxSize;
+    this.maxRecordings = maxRecordings;
+  }
+}
@@ -0,0 +1,36 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.list-cache")
+@Getter
+public class ListCacheProperties {
+
+  private final boolean enabled;
+  private final DataSize maxSize;
+  private final boolean gzip;
+  private final DataSize gzipMinSize;
+  private final Duration epochCheckInterval;
+  private final boolean streamingSerializer;
+
+  public ListCacheProperties(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("32MB") DataSize maxSize,
+      @DefaultValue("true") boolean gzip,
+      @DefaultValue("1KB") DataSize gzipMinSize,
+      @DefaultValue("0s") Duration epochCheckInterval,
+      @DefaultValue("true") boolean streamingSerializer) {
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.gzip = gzip;
+    this.gzipMinSize = gzipMinSize;
+    this.epochCheckInterval = epochCheckInterval;
+    this.streamingSerializer = streamingSerializer;
+  }
+}
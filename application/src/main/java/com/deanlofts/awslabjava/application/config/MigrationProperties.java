@@ -0,0 +1,32 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.migration")
+@Getter
+public class MigrationProperties {
+
+  private final Mode mode;
+  private final String lockName;
+  private final Duration lockTimeout;
+
+  public MigrationProperties(
+      @DefaultValue("migrate") Mode mode,
+      @DefaultValue("aws-lab-java-schema-migration") String lockName,
+      @DefaultValue("5m") Duration lockTimeout) {
+    this.mode = mode;
+    this.lockName = lockName;
+    this.lockTimeout = lockTimeout;
+  }
+
+  public enum Mode {
+    MIGRATE,
+    VALIDATE,
+    MIGRATE_ONLY
+  }
+}
@@ -0,0 +1,35 @@
+package com.deanlofts.awslabjava.application.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.deanlofts.awslabjava.application.entity.WidgetIdGenerator;
+import com.deanlofts.awslabjava.application.observability.SqlStatementTrackingDataSource;
+
+@Configuration
+public class PersistenceConfiguration {
+
+  @Bean
+  HibernatePropertiesCustomizer widgetIdHibernateProperties(IdProperties idProperties) {
+    return properties ->
+        properties.put(WidgetIdGenerator.VERSION_SETTING, idProperties.getUuidVersion());
+  }
+
+  @Bean
+  static BeanPostProcessor trackingDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)
+            || bean instanceof SqlStatementTrackingDataSource) {
+          return bean;
+        }
+        return new SqlStatementTrackingDataSource(dataSource);
+      }
+    };
+  }
+}
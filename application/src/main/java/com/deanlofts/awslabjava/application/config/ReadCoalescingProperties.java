@@ -0,0 +1,22 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.read-coalescing")
+@Getter
+public class ReadCoalescingProperties {
+
+  private final boolean enabled;
+  private final Duration maxWait;
+
+  public ReadCoalescingProperties(
+      @DefaultValue("true") boolean enabled, @DefaultValue("5s") Duration maxWait) {
+    this.enabled = enabled;
+    this.maxWait = maxWait;
+  }
+}
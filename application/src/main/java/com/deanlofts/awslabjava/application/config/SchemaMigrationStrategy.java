@@ -0,0 +1,131 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.flywaydb.core.api.output.ValidateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SchemaMigrationStrategy implements FlywayMigrationStrategy {
+
+  private static final Logger log = LoggerFactory.getLogger(SchemaMigrationStrategy.class);
+
+  private final MigrationProperties properties;
+
+  public SchemaMigrationStrategy(MigrationProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public void migrate(Flyway flyway) {
+    long started = System.nanoTime();
+    if (properties.getMode() == MigrationProperties.Mode.VALIDATE) {
+      validate(flyway, started);
+      return;
+    }
+    MigrationInfoService info = flyway.info();
+    if (info.pending().length == 0) {
+      log.info(
+          "schemaMigration mode={} action=skipped version={} durationMs={}",
+          properties.getMode(),
+          version(info.current()),
+          elapsedMillis(started));
+      return;
+    }
+    DataSource dataSource = flyway.getConfiguration().getDataSource();
+    try (Connection connection = dataSource.getConnection()) {
+      long lockStarted = System.nanoTime();
+      lock(connection);
+      long lockWaitMillis = elapsedMillis(lockStarted);
+      try {
+        info = flyway.info();
+        if (info.pending().length == 0) {
+          log.info(
+              "schemaMigration mode={} action=skipped version={} lockWaitMs={} durationMs={}",
+              properties.getMode(),
+              version(info.current()),
+              lockWaitMillis,
+              elapsedMillis(started));
+          return;
+        }
+        MigrateResult result = flyway.migrate();
+        log.info(
+            "schemaMigration mode={} action=migrated fromVersion={} toVersion={} applied={}"
+                + " lockWaitMs={} durationMs={}",
+            properties.getMode(),
+            result.initialSchemaVersion,
+            result.targetSchemaVersion,
+            result.migrationsExecuted,
+            lockWaitMillis,
+            elapsedMillis(started));
+      } finally {
+        unlock(connection);
+      }
+    } catch (SQLException ex) {
+      throw new IllegalStateException(
+          "Schema migration lock failed for " + properties.getLockName(), ex);
+    }
+  }
+
+  private void validate(Flyway flyway, long started) {
+    ValidateResult result = flyway.validateWithResult();
+    if (!result.validationSuccessful) {
+      throw new IllegalStateException(
+          "Database schema does not match this build; run the task with"
+              + " app.migration.mode=migrate-only first: "
+              + result.getAllErrorMessages());
+    }
+    log.info(
+        "schemaMigration mode={} action=validated migrations={} durationMs={}",
+        properties.getMode(),
+        result.validateCount,
+        elapsedMillis(started));
+  }
+
+  private void lock(Connection connection) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement("SELECT set_config('lock_timeout', ?, false)")) {
+      statement.setString(1, properties.getLockTimeout().toMillis() + "ms");
+      statement.execute();
+    }
+    try (PreparedStatement statement =
+        connection.prepareStatement("SELECT pg_advisory_lock(hashtext(?))")) {
+      statement.setString(1, properties.getLockName());
+      statement.execute();
+    } finally {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("RESET lock_timeout");
+      }
+    }
+  }
+
+  private void unlock(Connection connection) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+      statement.setString(1, properties.getLockName());
+      statement.execute();
+    }
+  }
+
+  private static String version(MigrationInfo current) {
+    return current != null && current.getVersion() != null
+        ? current.getVersion().getVersion()
+        : "none";
+  }
+
+  private static long elapsedMillis(long started) {
+    return (System.nanoTime() - started) / 1_000_000;
+  }
+}
@@ -0,0 +1,19 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.sql")
+@Getter
+public class SqlProperties {
+
+  private final Duration slowQueryThreshold;
+
+  public SqlProperties(@DefaultValue("250ms") Duration slowQueryThreshold) {
+    this.slowQueryThreshold = slowQueryThreshold;
+  }
+}
@@ -0,0 +1,26 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.stats")
+@Getter
+public class StatsProperties {
+
+  private final Duration flushInterval;
+  private final int maxHours;
+  private final Duration retention;
+
+  public StatsProperties(
+      @DefaultValue("5s") Duration flushInterval,
+      @DefaultValue("168") int maxHours,
+      @DefaultValue("30d") Duration retention) {
+    this.flushInterval = flushInterval;
+    this.maxHours = maxHours;
+    this.retention = retention;
+  }
+}
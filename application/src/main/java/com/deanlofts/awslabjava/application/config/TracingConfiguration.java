@@ -0,0 +1,72 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.deanlofts.awslabjava.application.observability.InMemorySpanExporter;
+import com.deanlofts.awslabjava.application.observability.RepositoryTracingInterceptor;
+import com.deanlofts.awslabjava.application.observability.TracingExecutionInterceptor;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@Configuration
+public class TracingConfiguration {
+
+  static final String INSTRUMENTATION_SCOPE = "com.deanlofts.awslabjava.application";
+
+  @Bean
+  SpanExporter applicationSpanExporter(TracingProperties properties) {
+    return switch (properties.getExporter()) {
+      case OTLP -> OtlpHttpSpanExporter.builder()
+          .setEndpoint(properties.getOtlpEndpoint())
+          .setTimeout(properties.getOtlpTimeout())
+          .build();
+      case LOGGING -> LoggingSpanExporter.create();
+      case IN_MEMORY -> new InMemorySpanExporter(properties.getInMemoryCapacity());
+      case NONE -> SpanExporter.composite();
+    };
+  }
+
+  @Bean
+  TracingExecutionInterceptor tracingExecutionInterceptor(OpenTelemetry openTelemetry) {
+    return new TracingExecutionInterceptor(openTelemetry.getTracer(INSTRUMENTATION_SCOPE));
+  }
+
+  @Bean
+  static BeanPostProcessor repositoryTracingPostProcessor(
+      ObjectProvider<OpenTelemetry> openTelemetry) {
+    Supplier<Tracer> tracer = SingletonSupplier.of(() -> tracer(openTelemetry));
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(
+              factory ->
+                  factory.addRepositoryProxyPostProcessor(
+                      (proxyFactory, repositoryInformation) ->
+                          proxyFactory.addAdvice(
+                              new RepositoryTracingInterceptor(
+                                  tracer,
+                                  repositoryInformation
+                                      .getRepositoryInterface()
+                                      .getSimpleName()))));
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static Tracer tracer(ObjectProvider<OpenTelemetry> openTelemetry) {
+    return openTelemetry.getIfAvailable(OpenTelemetry::noop).getTracer(INSTRUMENTATION_SCOPE);
+  }
+}
@@ -0,0 +1,36 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.tracing")
+@Getter
+public class TracingProperties {
+
+  private final Exporter exporter;
+  private final String otlpEndpoint;
+  private final Duration otlpTimeout;
+  private final int inMemoryCapacity;
+
+  public TracingProperties(
+      @DefaultValue("none") Exporter exporter,
+      @DefaultValue("http://localhost:4318/v1/traces") String otlpEndpoint,
+      @DefaultValue("10s") Duration otlpTimeout,
+      @DefaultValue("2048") int inMemoryCapacity) {
+    this.exporter = exporter;
+    this.otlpEndpoint = otlpEndpoint;
+    this.otlpTimeout = otlpTimeout;
+    this.inMemoryCapacity = inMemoryCapacity;
+  }
+
+  public enum Exporter {
+    NONE,
+    OTLP,
+    LOGGING,
+    IN_MEMORY
+  }
+}
@@ -0,0 +1,29 @@
+package com.deanlofts.awslabjava.application.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import lombok.Getter;
+
+@ConfigurationProperties(prefix = "app.warmup")
+@Getter
+public class WarmupProperties {
+
+  private final boolean enabled;
+  private final int iterations;
+  private final Duration maxDuration;
+  private final int connections;
+
+  public WarmupProperties(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("3000") int iterations,
+      @DefaultValue("20s") Duration maxDuration,
+      @DefaultValue("0") int connections) {
+    this.enabled = enabled;
+    this.iterations = iterations;
+    this.maxDuration = maxDuration;
+    this.connections = connections;
+  }
+}
@@ -0,0 +1,56 @@
+package com.deanlofts.awslabjava.application.controller;
+
+import java.util.List;
+import java.util.Set;
+
+import jakarta.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.BatchGetProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetBatchGetRequest;
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.dto.WidgetBatchGetResult;
+import com.deanlofts.awslabjava.application.service.WidgetService;
+
+@RestController
+public class WidgetBatchController {
+
+  private final WidgetService widgetService;
+  private final BatchGetProperties properties;
+
+  public WidgetBatchController(WidgetService widgetService, BatchGetProperties properties) {
+    this.widgetService = widgetService;
+    this.properties = properties;
+  }
+
+  @PostMapping(
+      path = "/api/v1/widgets:batchGet",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<WidgetBatchGetResult> batchGet(
+      @Valid @RequestBody WidgetBatchGetRequest request,
+      @RequestParam(required = false) String fields) {
+    if (request.ids().size() > properties.getMaxIds()) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "At most %d ids may be requested, got %d"
+              .formatted(properties.getMaxIds(), request.ids().size()));
+    }
+    return widgetService.findByIds(request.ids(), parseFields(fields));
+  }
+
+  private Set<WidgetField> parseFields(String fields) {
+    try {
+      return WidgetField.parse(fields);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
+}
@@ -1,27 +1,41 @@
 package com.deanlofts.awslabjava.application.controller;
 
-import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import jakarta.validation.Valid;
 
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetPatch;
 import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDescriptionContent;
 import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
 import com.deanlofts.awslabjava.application.service.AuthService;
+import com.deanlofts.awslabjava.application.service.WidgetGroupCommitService;
+import com.deanlofts.awslabjava.application.service.WidgetListCache;
 import com.deanlofts.awslabjava.application.service.WidgetService;
+import com.fasterxml.jackson.databind.JsonNode;
 
 @RestController
 @RequestMapping(path = "/api/v1/widgets", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -30,21 +44,54 @@ public class WidgetController {
   private static final String AUTH_HEADER = "X-Demo-Auth";
 
   private final WidgetService widgetService;
+  private final WidgetGroupCommitService widgetGroupCommitService;
+  private final WidgetListCache widgetListCache;
   private final AuthService authService;
 
-  public WidgetController(WidgetService widgetService, AuthService authService) {
+  public WidgetController(
+      WidgetService widgetService,
+      WidgetGroupCommitService widgetGroupCommitService,
+      WidgetListCache widgetListCache,
+      AuthService authService) {
     this.widgetService = widgetService;
+    this.widgetGroupCommitService = widgetGroupCommitService;
+    this.widgetListCache = widgetListCache;
     this.authService = authService;
   }
 
   @GetMapping
-  public List<WidgetDto> list() {
-    return widgetService.findAll();
+  public ResponseEntity<byte[]> list(
+      @RequestParam(required = false) String fields,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    WidgetListCache.CachedList widgets = widgetListCache.list(parseFields(fields));
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (widgets.gzip() != null && acceptsGzip(acceptEncoding)) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(widgets.gzip());
+    }
+    return response.body(widgets.json());
+  }
+
+  @GetMapping("/stats")
+  public WidgetStatsDto stats(@RequestParam(defaultValue = "24") int hours) {
+    return widgetService.stats(hours);
   }
 
   @GetMapping("/{id}")
-  public WidgetDto get(@PathVariable UUID id) {
-    return widgetService.findById(id);
+  public WidgetDto get(@PathVariable UUID id, @RequestParam(required = false) String fields) {
+    return widgetService.findById(id, parseFields(fields));
+  }
+
+  @GetMapping(path = "/{id}/description", produces = "text/plain;charset=UTF-8")
+  public ResponseEntity<Resource> description(@PathVariable UUID id) {
+    WidgetDescriptionContent description = widgetService.openDescription(id);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentLength(description.length());
+    if (description.sha256() != null) {
+      response.eTag(description.sha256());
+    }
+    return response.body(new InputStreamResource(description.content()));
   }
 
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -52,7 +99,7 @@ public class WidgetController {
   public WidgetDto create(
       @RequestHeader(AUTH_HEADER) String token, @Valid @RequestBody WidgetRequest request) {
     authService.assertAuthorized(token);
-    return widgetService.create(request);
+    return widgetGroupCommitService.create(request);
   }
 
   @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -64,10 +111,50 @@ public class WidgetController {
     return widgetService.update(id, request);
   }
 
+  @PatchMapping(
+      path = "/{id}",
+      consumes = {WidgetPatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+  public WidgetDto patch(
+      @RequestHeader(AUTH_HEADER) String token,
+      @PathVariable UUID id,
+      @RequestBody JsonNode patch) {
+    authService.assertAuthorized(token);
+    return widgetService.patch(id, parsePatch(patch));
+  }
+
   @DeleteMapping("/{id}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   public void delete(@RequestHeader(AUTH_HEADER) String token, @PathVariable UUID id) {
     authService.assertAuthorized(token);
     widgetService.delete(id);
   }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private WidgetPatch parsePatch(JsonNode patch) {
+    try {
+      return WidgetPatch.fromMergePatch(patch);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
+
+  private Set<WidgetField> parseFields(String fields) {
+    try {
+      return WidgetField.parse(fields);
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+  }
 }
@@ -0,0 +1,66 @@
+package com.deanlofts.awslabjava.application.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.domain.WidgetImportFormat;
+import com.deanlofts.awslabjava.application.dto.WidgetImportStatus;
+import com.deanlofts.awslabjava.application.service.AuthService;
+import com.deanlofts.awslabjava.application.service.WidgetImportService;
+
+@RestController
+@RequestMapping(path = "/api/v1/widgets/imports", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WidgetImportController {
+
+  private static final String AUTH_HEADER = "X-Demo-Auth";
+
+  private final WidgetImportService widgetImportService;
+  private final AuthService authService;
+
+  public WidgetImportController(WidgetImportService widgetImportService, AuthService authService) {
+    this.widgetImportService = widgetImportService;
+    this.authService = authService;
+  }
+
+  @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, WidgetImportFormat.TEXT_CSV_VALUE})
+  public ResponseEntity<WidgetImportStatus> importUpload(
+      @RequestHeader(AUTH_HEADER) String token,
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      HttpServletRequest request)
+      throws IOException {
+    authService.assertAuthorized(token);
+    try (InputStream body = request.getInputStream()) {
+      WidgetImportStatus status =
+          widgetImportService.importStream(
+              body, WidgetImportFormat.fromMediaType(contentType), "upload");
+      HttpStatus httpStatus =
+          "FAILED".equals(status.phase()) ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.OK;
+      return ResponseEntity.status(httpStatus).body(status);
+    }
+  }
+
+  @GetMapping("/{jobId}")
+  public WidgetImportStatus get(@PathVariable UUID jobId) {
+    return widgetImportService
+        .find(jobId)
+        .orElseThrow(
+            () ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Widget import %s not found".formatted(jobId)));
+  }
+}
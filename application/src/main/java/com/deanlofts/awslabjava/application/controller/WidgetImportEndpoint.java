@@ -0,0 +1,40 @@
+package com.deanlofts.awslabjava.application.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.deanlofts.awslabjava.application.dto.WidgetImportStatus;
+import com.deanlofts.awslabjava.application.service.WidgetImportService;
+
+@Component
+@Endpoint(id = "widgetimports")
+public class WidgetImportEndpoint {
+
+  private final WidgetImportService widgetImportService;
+
+  public WidgetImportEndpoint(WidgetImportService widgetImportService) {
+    this.widgetImportService = widgetImportService;
+  }
+
+  @ReadOperation
+  public List<WidgetImportStatus> jobs() {
+    return widgetImportService.list();
+  }
+
+  @ReadOperation
+  public WidgetImportStatus job(@Selector UUID jobId) {
+    return widgetImportService.find(jobId).orElse(null);
+  }
+
+  @WriteOperation
+  public WidgetImportStatus start(String source, @Nullable String format) {
+    return widgetImportService.start(source, format);
+  }
+}
@@ -0,0 +1,45 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public final class UuidV7Generator {
+
+  private static final int COUNTER_BITS = 12;
+
+  private final LongSupplier clock;
+  private final Random random;
+  private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+  public UuidV7Generator() {
+    this(System::currentTimeMillis, new SecureRandom());
+  }
+
+  UuidV7Generator(LongSupplier clock, Random random) {
+    this.clock = clock;
+    this.random = random;
+  }
+
+  public UUID generate() {
+    long timestampAndCounter = nextTimestampAndCounter();
+    long timestamp = timestampAndCounter >>> COUNTER_BITS;
+    long counter = timestampAndCounter & ((1L << COUNTER_BITS) - 1);
+    long mostSignificant = (timestamp << 16) | 0x7000L | counter;
+    long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(mostSignificant, leastSignificant);
+  }
+
+  private long nextTimestampAndCounter() {
+    long now = (clock.getAsLong() & 0xFFFFFFFFFFFFL) << COUNTER_BITS;
+    while (true) {
+      long previous = lastTimestampAndCounter.get();
+      long next = now > previous ? now : previous + 1;
+      if (lastTimestampAndCounter.compareAndSet(previous, next)) {
+        return next;
+      }
+    }
+  }
+}
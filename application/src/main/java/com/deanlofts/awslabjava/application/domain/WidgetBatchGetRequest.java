@@ -0,0 +1,9 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+public record WidgetBatchGetRequest(@NotEmpty List<@NotNull UUID> ids) {}
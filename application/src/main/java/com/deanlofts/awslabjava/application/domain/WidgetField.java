@@ -0,0 +1,46 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum WidgetField {
+  ID("id"),
+  NAME("name"),
+  DESCRIPTION("description"),
+  CREATED_AT("createdAt"),
+  UPDATED_AT("updatedAt");
+
+  public static final Set<WidgetField> ALL =
+      Collections.unmodifiableSet(EnumSet.allOf(WidgetField.class));
+
+  private final String property;
+
+  WidgetField(String property) {
+    this.property = property;
+  }
+
+  public static Set<WidgetField> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return ALL;
+    }
+    EnumSet<WidgetField> selected = EnumSet.noneOf(WidgetField.class);
+    for (String candidate : fields.split(",")) {
+      String trimmed = candidate.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      selected.add(fromProperty(trimmed));
+    }
+    return selected.isEmpty() ? ALL : selected;
+  }
+
+  private static WidgetField fromProperty(String property) {
+    for (WidgetField field : values()) {
+      if (field.property.equals(property)) {
+        return field;
+      }
+    }
+    throw new IllegalArgumentException("Unknown widget field '%s'".formatted(property));
+  }
+}
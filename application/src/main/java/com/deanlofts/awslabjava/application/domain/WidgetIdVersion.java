@@ -0,0 +1,29 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.util.Locale;
+import java.util.UUID;
+
+public enum WidgetIdVersion {
+  V4 {
+    @Override
+    public UUID newId() {
+      return UUID.randomUUID();
+    }
+  },
+  V7 {
+    @Override
+    public UUID newId() {
+      return TIME_ORDERED.generate();
+    }
+  };
+
+  private static final UuidV7Generator TIME_ORDERED = new UuidV7Generator();
+
+  public abstract UUID newId();
+
+  public static WidgetIdVersion parse(String value) {
+    return value == null || value.isBlank()
+        ? V4
+        : WidgetIdVersion.valueOf(value.trim().toUpperCase(Locale.ROOT));
+  }
+}
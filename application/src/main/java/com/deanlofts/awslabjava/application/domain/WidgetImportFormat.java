@@ -0,0 +1,26 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+public enum WidgetImportFormat {
+  NDJSON,
+  CSV;
+
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  public static WidgetImportFormat fromMediaType(MediaType mediaType) {
+    if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+      return CSV;
+    }
+    return NDJSON;
+  }
+
+  public static WidgetImportFormat resolve(String format, String source) {
+    if (format != null && !format.isBlank()) {
+      return valueOf(format.trim().toUpperCase(Locale.ROOT));
+    }
+    return source != null && source.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+  }
+}
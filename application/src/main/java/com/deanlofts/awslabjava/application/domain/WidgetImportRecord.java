@@ -0,0 +1,13 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+public record WidgetImportRecord(
+    UUID id,
+    String name,
+    String description,
+    @JsonAlias("created_at") Instant createdAt,
+    @JsonAlias("updated_at") Instant updatedAt) {}
@@ -0,0 +1,48 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public record WidgetPatch(String name, String description) {
+
+  public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+  public static WidgetPatch fromMergePatch(JsonNode patch) {
+    if (patch == null || !patch.isObject()) {
+      throw new IllegalArgumentException("Merge patch must be a JSON object");
+    }
+    String name = null;
+    String description = null;
+    Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      switch (field.getKey()) {
+        case "name" -> name = text(field);
+        case "description" -> description = text(field);
+        case "id",
+            "createdAt",
+            "updatedAt",
+            "descriptionOffloaded" -> throw new IllegalArgumentException(
+            "Widget field '%s' is read-only".formatted(field.getKey()));
+        default -> throw new IllegalArgumentException(
+            "Unknown widget field '%s'".formatted(field.getKey()));
+      }
+    }
+    return new WidgetPatch(name, description);
+  }
+
+  private static String text(Map.Entry<String, JsonNode> field) {
+    JsonNode value = field.getValue();
+    if (value.isNull()) {
+      throw new IllegalArgumentException(
+          "Widget field '%s' is required and cannot be removed".formatted(field.getKey()));
+    }
+    if (!value.isTextual() || value.textValue().isBlank()) {
+      throw new IllegalArgumentException(
+          "Widget field '%s' must be a non-blank string".formatted(field.getKey()));
+    }
+    return value.textValue();
+  }
+}
@@ -0,0 +1,17 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WidgetBatchGetResult(UUID id, boolean found, WidgetDto widget) {
+
+  public static WidgetBatchGetResult found(UUID id, WidgetDto widget) {
+    return new WidgetBatchGetResult(id, true, widget);
+  }
+
+  public static WidgetBatchGetResult notFound(UUID id) {
+    return new WidgetBatchGetResult(id, false, null);
+  }
+}
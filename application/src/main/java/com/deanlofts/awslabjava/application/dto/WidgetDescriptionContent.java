@@ -0,0 +1,5 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.io.InputStream;
+
+public record WidgetDescriptionContent(InputStream content, long length, String sha256) {}
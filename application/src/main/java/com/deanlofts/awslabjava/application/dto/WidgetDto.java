@@ -3,5 +3,18 @@ package com.deanlofts.awslabjava.application.dto;
 import java.time.Instant;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record WidgetDto(
-    UUID id, String name, String description, Instant createdAt, Instant updatedAt) {}
+    UUID id,
+    String name,
+    String description,
+    Instant createdAt,
+    Instant updatedAt,
+    Boolean descriptionOffloaded) {
+
+  public WidgetDto(UUID id, String name, String description, Instant createdAt, Instant updatedAt) {
+    this(id, name, description, createdAt, updatedAt, null);
+  }
+}
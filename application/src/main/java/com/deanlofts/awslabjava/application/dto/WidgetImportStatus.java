@@ -0,0 +1,18 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record WidgetImportStatus(
+    UUID id,
+    String source,
+    String format,
+    String phase,
+    long rowsRead,
+    long rowsRejected,
+    long rowsMerged,
+    long metadataWritten,
+    double rowsPerSecond,
+    Instant startedAt,
+    Instant finishedAt,
+    String error) {}
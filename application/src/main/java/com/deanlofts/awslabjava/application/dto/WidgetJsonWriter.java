@@ -0,0 +1,306 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public final class WidgetJsonWriter {
+
+  private static final int SEGMENT_SIZE = 64 * 1024;
+  private static final int INITIAL_SEGMENTS = 16;
+  private static final int SHARED_SEGMENTS = 32;
+  private static final int STRING_CHUNK = 2048;
+  private static final long SECONDS_PER_DAY = 86_400;
+  private static final long DAYS_0000_TO_1970 = 719_468;
+  private static final byte[] LOWER_HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] UPPER_HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ID = ascii("\"id\":");
+  private static final byte[] NAME = ascii("\"name\":");
+  private static final byte[] DESCRIPTION = ascii("\"description\":");
+  private static final byte[] CREATED_AT = ascii("\"createdAt\":");
+  private static final byte[] UPDATED_AT = ascii("\"updatedAt\":");
+  private static final byte[] DESCRIPTION_OFFLOADED = ascii("\"descriptionOffloaded\":");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+  private static final BlockingQueue<byte[]> SPARE_SEGMENTS =
+      new ArrayBlockingQueue<>(SHARED_SEGMENTS);
+  private static final ThreadLocal<WidgetJsonWriter> WRITERS =
+      ThreadLocal.withInitial(WidgetJsonWriter::new);
+
+  private final List<byte[]> segments = new ArrayList<>();
+  private int[] lengths = new int[INITIAL_SEGMENTS];
+  private int segment;
+  private byte[] buffer;
+  private int position;
+
+  private WidgetJsonWriter() {
+    buffer = new byte[SEGMENT_SIZE];
+    segments.add(buffer);
+  }
+
+  public static byte[] toJson(List<WidgetDto> widgets) {
+    WidgetJsonWriter writer = WRITERS.get();
+    try {
+      writer.writeArray(widgets);
+      return writer.toByteArray();
+    } finally {
+      writer.reset();
+    }
+  }
+
+  private void writeArray(List<WidgetDto> widgets) {
+    ensure(2);
+    buffer[position++] = '[';
+    for (int i = 0; i < widgets.size(); i++) {
+      if (i > 0) {
+        ensure(1);
+        buffer[position++] = ',';
+      }
+      writeWidget(widgets.get(i));
+    }
+    ensure(1);
+    buffer[position++] = ']';
+  }
+
+  private void writeWidget(WidgetDto widget) {
+    ensure(1);
+    buffer[position++] = '{';
+    boolean first = true;
+    if (widget.id() != null) {
+      first = writeName(ID, first);
+      writeUuid(widget.id());
+    }
+    if (widget.name() != null) {
+      first = writeName(NAME, first);
+      writeString(widget.name());
+    }
+    if (widget.description() != null) {
+      first = writeName(DESCRIPTION, first);
+      writeString(widget.description());
+    }
+    if (widget.createdAt() != null) {
+      first = writeName(CREATED_AT, first);
+      writeInstant(widget.createdAt());
+    }
+    if (widget.updatedAt() != null) {
+      first = writeName(UPDATED_AT, first);
+      writeInstant(widget.updatedAt());
+    }
+    if (widget.descriptionOffloaded() != null) {
+      writeName(DESCRIPTION_OFFLOADED, first);
+      writeRaw(widget.descriptionOffloaded() ? TRUE : FALSE);
+    }
+    ensure(1);
+    buffer[position++] = '}';
+  }
+
+  private boolean writeName(byte[] name, boolean first) {
+    if (!first) {
+      ensure(1);
+      buffer[position++] = ',';
+    }
+    writeRaw(name);
+    return false;
+  }
+
+  private void writeUuid(UUID id) {
+    ensure(38);
+    buffer[position++] = '"';
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    writeHex(msb >>> 32, 8);
+    buffer[position++] = '-';
+    writeHex(msb >>> 16, 4);
+    buffer[position++] = '-';
+    writeHex(msb, 4);
+    buffer[position++] = '-';
+    writeHex(lsb >>> 48, 4);
+    buffer[position++] = '-';
+    writeHex(lsb, 12);
+    buffer[position++] = '"';
+  }
+
+  private void writeHex(long value, int digits) {
+    for (int i = digits - 1; i >= 0; i--) {
+      buffer[position + i] = LOWER_HEX[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+    position += digits;
+  }
+
+  private void writeInstant(Instant instant) {
+    long epochSecond = instant.getEpochSecond();
+    long days = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+    long shifted = days + DAYS_0000_TO_1970;
+    long era = Math.floorDiv(shifted, 146_097);
+    int dayOfEra = (int) (shifted - era * 146_097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    if (year < 0 || year > 9999) {
+      writeString(instant.toString());
+      return;
+    }
+    ensure(32);
+    buffer[position++] = '"';
+    writeDigits((int) year, 4);
+    buffer[position++] = '-';
+    writeDigits(month, 2);
+    buffer[position++] = '-';
+    writeDigits(day, 2);
+    buffer[position++] = 'T';
+    writeDigits(secondOfDay / 3600, 2);
+    buffer[position++] = ':';
+    writeDigits(secondOfDay / 60 % 60, 2);
+    buffer[position++] = ':';
+    writeDigits(secondOfDay % 60, 2);
+    int nanos = instant.getNano();
+    if (nanos != 0) {
+      buffer[position++] = '.';
+      if (nanos % 1_000_000 == 0) {
+        writeDigits(nanos / 1_000_000, 3);
+      } else if (nanos % 1_000 == 0) {
+        writeDigits(nanos / 1_000, 6);
+      } else {
+        writeDigits(nanos, 9);
+      }
+    }
+    buffer[position++] = 'Z';
+    buffer[position++] = '"';
+  }
+
+  private void writeDigits(int value, int digits) {
+    for (int i = digits - 1; i >= 0; i--) {
+      buffer[position + i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    position += digits;
+  }
+
+  private void writeString(String value) {
+    ensure(1);
+    buffer[position++] = '"';
+    int length = value.length();
+    for (int start = 0; start < length; start += STRING_CHUNK) {
+      int end = Math.min(length, start + STRING_CHUNK);
+      ensure((end - start) * 6);
+      byte[] out = buffer;
+      int pos = position;
+      for (int i = start; i < end; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          if (c >= 0x20 && c != '"' && c != '\\') {
+            out[pos++] = (byte) c;
+          } else {
+            pos = writeEscape(out, pos, c);
+          }
+        } else if (c < 0x800) {
+          out[pos++] = (byte) (0xC0 | (c >> 6));
+          out[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          pos = writeUnicodeEscape(out, pos, c);
+        } else {
+          out[pos++] = (byte) (0xE0 | (c >> 12));
+          out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          out[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      position = pos;
+    }
+    ensure(1);
+    buffer[position++] = '"';
+  }
+
+  private static int writeEscape(byte[] out, int pos, char c) {
+    char shortForm =
+        switch (c) {
+          case '"' -> '"';
+          case '\\' -> '\\';
+          case '\b' -> 'b';
+          case '\t' -> 't';
+          case '\n' -> 'n';
+          case '\f' -> 'f';
+          case '\r' -> 'r';
+          default -> 0;
+        };
+    if (shortForm == 0) {
+      return writeUnicodeEscape(out, pos, c);
+    }
+    out[pos++] = '\\';
+    out[pos++] = (byte) shortForm;
+    return pos;
+  }
+
+  private static int writeUnicodeEscape(byte[] out, int pos, char c) {
+    out[pos++] = '\\';
+    out[pos++] = 'u';
+    out[pos++] = UPPER_HEX[(c >> 12) & 0xF];
+    out[pos++] = UPPER_HEX[(c >> 8) & 0xF];
+    out[pos++] = UPPER_HEX[(c >> 4) & 0xF];
+    out[pos++] = UPPER_HEX[c & 0xF];
+    return pos;
+  }
+
+  private void writeRaw(byte[] bytes) {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void ensure(int bytes) {
+    if (position + bytes <= buffer.length) {
+      return;
+    }
+    if (segment + 1 == lengths.length) {
+      lengths = Arrays.copyOf(lengths, lengths.length * 2);
+    }
+    lengths[segment++] = position;
+    if (segment == segments.size()) {
+      byte[] spare = SPARE_SEGMENTS.poll();
+      segments.add(spare != null ? spare : new byte[SEGMENT_SIZE]);
+    }
+    buffer = segments.get(segment);
+    position = 0;
+  }
+
+  private byte[] toByteArray() {
+    lengths[segment] = position;
+    int size = 0;
+    for (int i = 0; i <= segment; i++) {
+      size += lengths[i];
+    }
+    byte[] json = new byte[size];
+    int offset = 0;
+    for (int i = 0; i <= segment; i++) {
+      System.arraycopy(segments.get(i), 0, json, offset, lengths[i]);
+      offset += lengths[i];
+    }
+    return json;
+  }
+
+  private void reset() {
+    List<byte[]> extra = segments.subList(1, segments.size());
+    for (byte[] spare : extra) {
+      if (!SPARE_SEGMENTS.offer(spare)) {
+        break;
+      }
+    }
+    extra.clear();
+    segment = 0;
+    buffer = segments.get(0);
+    position = 0;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
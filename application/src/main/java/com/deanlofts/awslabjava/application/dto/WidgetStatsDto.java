@@ -0,0 +1,15 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record WidgetStatsDto(
+    long total,
+    long created,
+    long updated,
+    long deleted,
+    Instant asOf,
+    List<HourlyActivity> hourly) {
+
+  public record HourlyActivity(Instant hour, long created, long updated, long deleted) {}
+}
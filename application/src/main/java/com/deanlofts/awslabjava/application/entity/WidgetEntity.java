@@ -3,15 +3,16 @@ package com.deanlofts.awslabjava.application.entity;
 import java.time.Instant;
 import java.util.UUID;
 
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
-import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.annotations.DynamicUpdate;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,6 +21,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@DynamicUpdate
 @Table(name = "widgets")
 @Getter
 @Setter
@@ -29,17 +31,28 @@ import lombok.Setter;
 public class WidgetEntity {
 
   @Id
-  @GeneratedValue
-  @UuidGenerator
+  @WidgetId
   @Column(updatable = false, nullable = false)
   private UUID id;
 
   @Column(nullable = false)
   private String name;
 
-  @Column(nullable = false)
+  @Basic(fetch = FetchType.LAZY)
   private String description;
 
+  @Column(name = "description_ref")
+  private String descriptionRef;
+
+  @Column(name = "description_sha256")
+  private String descriptionSha256;
+
+  @Column(name = "description_size")
+  private Long descriptionSize;
+
+  @Column(name = "content_sha256")
+  private String contentSha256;
+
   @Column(name = "created_at", nullable = false, updatable = false)
   private Instant createdAt;
 
@@ -0,0 +1,48 @@
+package com.deanlofts.awslabjava.application.entity;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import com.deanlofts.awslabjava.application.domain.WidgetIdVersion;
+
+public class WidgetIdGenerator implements BeforeExecutionGenerator {
+
+  public static final String VERSION_SETTING = "app.ids.uuid-version";
+
+  private final WidgetIdVersion version;
+
+  public WidgetIdGenerator(
+      WidgetId annotation, Member member, CustomIdGeneratorCreationContext context) {
+    Object setting =
+        context
+            .getServiceRegistry()
+            .requireService(ConfigurationService.class)
+            .getSettings()
+            .get(VERSION_SETTING);
+    this.version =
+        setting instanceof WidgetIdVersion configured
+            ? configured
+            : WidgetIdVersion.parse(setting != null ? setting.toString() : null);
+  }
+
+  @Override
+  public Object generate(
+      SharedSessionContractImplementor session,
+      Object owner,
+      Object currentValue,
+      EventType eventType) {
+    return version.newId();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
@@ -0,0 +1,118 @@
+package com.deanlofts.awslabjava.application.filter;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.deanlofts.awslabjava.application.config.DeadlineProperties;
+import com.deanlofts.awslabjava.application.resilience.AwsDependencyUnavailableException;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadlineExceededException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+
+  private final DeadlineProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final PathMatcher pathMatcher = new AntPathMatcher();
+
+  public RequestDeadlineFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    String path = request.getRequestURI();
+    return properties.getExcludedPaths().stream()
+        .anyMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    Duration budget = budget(request.getHeader(properties.getHeader()));
+    RequestDeadline deadline = RequestDeadline.start(budget);
+    try {
+      filterChain.doFilter(request, response);
+    } catch (ServletException | RuntimeException ex) {
+      String dependency = timedOutDependency(ex);
+      if (!deadline.isExpired() || dependency == null || response.isCommitted()) {
+        throw ex;
+      }
+      deadline.exceeded(dependency);
+      log.warn(
+          "requestDeadlineExceeded method={} path={} budgetMs={} dependency={}",
+          request.getMethod(),
+          request.getRequestURI(),
+          budget.toMillis(),
+          dependency);
+      response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Request deadline exceeded");
+    } finally {
+      deadline.close();
+      for (String dependency : deadline.exceededDependencies()) {
+        meterRegistry
+            .counter("http.server.deadline.exceeded", "dependency", dependency)
+            .increment();
+      }
+    }
+  }
+
+  Duration budget(String header) {
+    Duration configured = properties.getBudget();
+    if (header == null || header.isBlank()) {
+      return configured;
+    }
+    try {
+      long requested = Long.parseLong(header.trim());
+      if (requested > 0 && requested < configured.toMillis()) {
+        return Duration.ofMillis(requested);
+      }
+    } catch (NumberFormatException ex) {
+      log.debug("Ignoring malformed {} header {}", properties.getHeader(), header);
+    }
+    return configured;
+  }
+
+  private static String timedOutDependency(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof RequestDeadlineExceededException deadlineExceeded) {
+        return deadlineExceeded.getDependency();
+      }
+      if (cause instanceof AwsDependencyUnavailableException unavailable) {
+        return unavailable.getDependency();
+      }
+      if (cause instanceof SQLException || cause instanceof DataAccessException) {
+        return RequestDeadline.POSTGRES;
+      }
+    }
+    return null;
+  }
+}
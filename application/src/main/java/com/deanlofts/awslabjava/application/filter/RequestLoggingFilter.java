@@ -13,21 +13,42 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import com.deanlofts.awslabjava.application.config.AppProperties;
+import com.deanlofts.awslabjava.application.config.SqlProperties;
+import com.deanlofts.awslabjava.application.observability.HttpRequestEvent;
+import com.deanlofts.awslabjava.application.observability.SqlStatementTracker;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
 
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
   private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
 
+  private static final String TRACE_ID_KEY = "traceId";
+
   private final AppProperties appProperties;
+  private final SqlProperties sqlProperties;
+  private final MeterRegistry meterRegistry;
 
-  public RequestLoggingFilter(AppProperties appProperties) {
+  public RequestLoggingFilter(
+      AppProperties appProperties, SqlProperties sqlProperties, MeterRegistry meterRegistry) {
     this.appProperties = appProperties;
+    this.sqlProperties = sqlProperties;
+    this.meterRegistry = meterRegistry;
   }
 
   @Override
@@ -37,21 +58,58 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
       @NonNull FilterChain filterChain)
       throws ServletException, IOException {
     Instant start = Instant.now();
-    String traceId = UUID.randomUUID().toString();
-    MDC.put("traceId", traceId);
+    HttpRequestEvent event = new HttpRequestEvent();
+    event.begin();
+    SpanContext spanContext = Span.current().getSpanContext();
+    boolean fallbackTraceId = !spanContext.isValid();
+    String traceId = fallbackTraceId ? UUID.randomUUID().toString() : spanContext.getTraceId();
+    if (fallbackTraceId) {
+      MDC.put(TRACE_ID_KEY, traceId);
+    }
+    SqlStatementTracker sql = SqlStatementTracker.start(sqlProperties.getSlowQueryThreshold());
     try {
       filterChain.doFilter(request, response);
     } finally {
-      MDC.remove("traceId");
+      if (fallbackTraceId) {
+        MDC.remove(TRACE_ID_KEY);
+      }
+      sql.close();
       long duration = Duration.between(start, Instant.now()).toMillis();
+      recordSqlMetrics(request, sql);
+      if (event.shouldCommit()) {
+        event.method = request.getMethod();
+        event.path = request.getRequestURI();
+        event.status = response.getStatus();
+        event.traceId = traceId;
+        event.sqlStatements = sql.statements();
+        event.commit();
+      }
       log.info(
-          "requestHandled traceId={} method={} path={} status={} durationMs={} deploymentTarget={}",
+          "requestHandled traceId={} method={} path={} status={} durationMs={} sqlStatements={}"
+              + " sqlTimeMs={} deploymentTarget={}",
           traceId,
           request.getMethod(),
           request.getRequestURI(),
           response.getStatus(),
           duration,
+          sql.statements(),
+          sql.jdbcTime().toMillis(),
           appProperties.getDeploymentTarget());
     }
   }
+
+  private void recordSqlMetrics(HttpServletRequest request, SqlStatementTracker sql) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    Tags tags =
+        Tags.of(
+            "method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+    DistributionSummary.builder("http.server.sql.statements")
+        .tags(tags)
+        .register(meterRegistry)
+        .record(sql.statements());
+    Timer.builder("http.server.sql.time").tags(tags).register(meterRegistry).record(sql.jdbcTime());
+    if (sql.slowStatements() > 0) {
+      meterRegistry.counter("http.server.sql.slow", tags).increment(sql.slowStatements());
+    }
+  }
 }
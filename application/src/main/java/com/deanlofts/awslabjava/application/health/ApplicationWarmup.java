@@ -0,0 +1,205 @@
+package com.deanlofts.awslabjava.application.health;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.WarmupProperties;
+import com.deanlofts.awslabjava.application.controller.WidgetController;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.service.AuthTokenProvider;
+import com.deanlofts.awslabjava.application.service.WidgetListCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class ApplicationWarmup implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(ApplicationWarmup.class);
+
+  private static final int SYNTHETIC_WIDGETS = 50;
+
+  private final WarmupProperties properties;
+  private final WidgetController widgetController;
+  private final WidgetListCache widgetListCache;
+  private final ObjectMapper objectMapper;
+  private final DataSource dataSource;
+  private final AuthTokenProvider authTokenProvider;
+  private final S3HealthIndicator s3HealthIndicator;
+  private final MeterRegistry meterRegistry;
+
+  public ApplicationWarmup(
+      WarmupProperties properties,
+      WidgetController widgetController,
+      WidgetListCache widgetListCache,
+      ObjectMapper objectMapper,
+      DataSource dataSource,
+      AuthTokenProvider authTokenProvider,
+      S3HealthIndicator s3HealthIndicator,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.widgetController = widgetController;
+    this.widgetListCache = widgetListCache;
+    this.objectMapper = objectMapper;
+    this.dataSource = dataSource;
+    this.authTokenProvider = authTokenProvider;
+    this.s3HealthIndicator = s3HealthIndicator;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    long started = System.nanoTime();
+    long deadline = started + properties.getMaxDuration().toNanos();
+    Step<Boolean> token = step("token", () -> !authTokenProvider.requiredToken().isEmpty());
+    Step<Integer> connections = step("connections", this::fillConnectionPool);
+    Step<String> aws = step("aws", () -> s3HealthIndicator.health().getStatus().getCode());
+    Step<ReadPathResult> reads = step("reads", () -> warmReadPath(deadline));
+    Duration total = record("total", System.nanoTime() - started);
+    ReadPathResult readPath = reads.result() != null ? reads.result() : ReadPathResult.EMPTY;
+    log.info(
+        "applicationWarmup durationMs={} tokenMs={} tokenLoaded={} connectionsMs={} connections={}"
+            + " awsMs={} s3={} readsMs={} iterations={} firstIterationMicros={}"
+            + " lastIterationMicros={}",
+        total.toMillis(),
+        token.duration().toMillis(),
+        Boolean.TRUE.equals(token.result()),
+        connections.duration().toMillis(),
+        connections.result(),
+        aws.duration().toMillis(),
+        aws.result(),
+        reads.duration().toMillis(),
+        readPath.iterations(),
+        readPath.firstIterationMicros(),
+        readPath.lastIterationMicros());
+  }
+
+  int fillConnectionPool() {
+    int target = properties.getConnections() > 0 ? properties.getConnections() : poolSize();
+    List<Connection> held = new ArrayList<>(target);
+    try {
+      for (int i = 0; i < target; i++) {
+        Connection connection = dataSource.getConnection();
+        held.add(connection);
+        connection.isValid(5);
+      }
+      return held.size();
+    } catch (SQLException ex) {
+      throw new IllegalStateException("Failed to open warm-up connection", ex);
+    } finally {
+      for (Connection connection : held) {
+        try {
+          connection.close();
+        } catch (SQLException ex) {
+          log.debug("Failed to return warm-up connection", ex);
+        }
+      }
+    }
+  }
+
+  ReadPathResult warmReadPath(long deadline) {
+    Instant now = Instant.now();
+    List<WidgetDto> synthetic =
+        IntStream.range(0, SYNTHETIC_WIDGETS)
+            .mapToObj(
+                i ->
+                    new WidgetDto(
+                        UUID.randomUUID(),
+                        "warmup-" + i,
+                        "Synthetic widget " + i + " used to warm the read path",
+                        now,
+                        now))
+            .toList();
+    long[] samples = new long[Math.max(1, properties.getIterations())];
+    int completed = 0;
+    try {
+      byte[] request = objectMapper.writeValueAsBytes(new WidgetRequest("warmup", "warmup"));
+      while (completed < properties.getIterations() && System.nanoTime() < deadline) {
+        long iterationStarted = System.nanoTime();
+        readMissingWidget(completed % 2 == 0 ? null : "id,name");
+        widgetListCache.render(synthetic);
+        objectMapper.writeValueAsBytes(synthetic.get(completed % synthetic.size()));
+        objectMapper.readValue(request, WidgetRequest.class);
+        samples[completed++] = System.nanoTime() - iterationStarted;
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    if (completed == 0) {
+      return ReadPathResult.EMPTY;
+    }
+    long[] tail = Arrays.copyOfRange(samples, completed - Math.max(1, completed / 10), completed);
+    Arrays.sort(tail);
+    return new ReadPathResult(completed, samples[0] / 1_000, tail[tail.length / 2] / 1_000);
+  }
+
+  private void readMissingWidget(String fields) {
+    try {
+      widgetController.get(UUID.randomUUID(), fields);
+    } catch (ResponseStatusException ex) {
+      if (!HttpStatus.NOT_FOUND.equals(ex.getStatusCode())) {
+        throw ex;
+      }
+    }
+  }
+
+  private int poolSize() {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException ex) {
+      log.debug("Unable to inspect the connection pool", ex);
+    }
+    return 1;
+  }
+
+  private <T> Step<T> step(String name, Supplier<T> action) {
+    long started = System.nanoTime();
+    T result = null;
+    try {
+      result = action.get();
+    } catch (RuntimeException ex) {
+      log.warn("Warm-up step {} failed; continuing", name, ex);
+    }
+    return new Step<>(record(name, System.nanoTime() - started), result);
+  }
+
+  private Duration record(String step, long nanos) {
+    Duration duration = Duration.ofNanos(nanos);
+    Timer.builder("app.warmup.duration").tag("step", step).register(meterRegistry).record(duration);
+    return duration;
+  }
+
+  private record Step<T>(Duration duration, T result) {}
+
+  record ReadPathResult(int iterations, long firstIterationMicros, long lastIterationMicros) {
+    static final ReadPathResult EMPTY = new ReadPathResult(0, 0, 0);
+  }
+}
@@ -1,5 +1,6 @@
 package com.deanlofts.awslabjava.application.health;
 
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -8,6 +9,7 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
 import com.deanlofts.awslabjava.application.service.AuthTokenProvider;
 
 @Component
@@ -16,9 +18,12 @@ public class AuthTokenHealthIndicator implements HealthIndicator {
   private static final Logger log = LoggerFactory.getLogger(AuthTokenHealthIndicator.class);
 
   private final AuthTokenProvider authTokenProvider;
+  private final AwsCallGuards awsCallGuards;
 
-  public AuthTokenHealthIndicator(AuthTokenProvider authTokenProvider) {
+  public AuthTokenHealthIndicator(
+      AuthTokenProvider authTokenProvider, AwsCallGuards awsCallGuards) {
     this.authTokenProvider = authTokenProvider;
+    this.awsCallGuards = awsCallGuards;
   }
 
   @Override
@@ -29,10 +34,19 @@ public class AuthTokenHealthIndicator implements HealthIndicator {
       return Health.up()
           .withDetail("source", snapshot.source().name())
           .withDetail("fetchedAt", snapshot.fetchedAt().toString())
+          .withDetails(circuitBreakers())
           .build();
     }
 
     log.warn("Auth token metadata unavailable; reporting health DOWN");
-    return Health.down().withDetail("error", "UNAVAILABLE").build();
+    return Health.down().withDetail("error", "UNAVAILABLE").withDetails(circuitBreakers()).build();
+  }
+
+  private Map<String, Object> circuitBreakers() {
+    return Map.of(
+        "secretsManagerCircuitBreaker",
+        awsCallGuards.secretsManager().getState().name(),
+        "ssmCircuitBreaker",
+        awsCallGuards.ssm().getState().name());
   }
 }
@@ -1,9 +1,8 @@
 package com.deanlofts.awslabjava.application.health;
 
-import java.util.Optional;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
@@ -11,6 +10,9 @@ import org.springframework.util.StringUtils;
 
 import com.deanlofts.awslabjava.application.config.AppProperties;
 import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuard;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.AwsDependencyUnavailableException;
 
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -24,13 +26,18 @@ public class S3HealthIndicator implements HealthIndicator {
 
   private final AppProperties appProperties;
   private final AwsProperties awsProperties;
-  private final Optional<S3Client> s3Client;
+  private final ObjectProvider<S3Client> s3Client;
+  private final AwsCallGuard s3Guard;
 
   public S3HealthIndicator(
-      AppProperties appProperties, AwsProperties awsProperties, Optional<S3Client> s3Client) {
+      AppProperties appProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<S3Client> s3Client,
+      AwsCallGuards awsCallGuards) {
     this.appProperties = appProperties;
     this.awsProperties = awsProperties;
     this.s3Client = s3Client;
+    this.s3Guard = awsCallGuards.s3();
   }
 
   @Override
@@ -44,23 +51,37 @@ public class S3HealthIndicator implements HealthIndicator {
       return Health.down().withDetail("error", "bucket-not-configured").build();
     }
 
-    if (s3Client.isEmpty()) {
+    S3Client client = s3Client.getIfAvailable();
+    if (client == null) {
       return Health.down().withDetail("error", "s3-client-missing").build();
     }
 
+    String circuitBreaker = s3Guard.getState().name();
     try {
-      s3Client.get().headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
-      return Health.up().withDetail("bucket", bucketName).build();
+      s3Guard.call(() -> client.headBucket(HeadBucketRequest.builder().bucket(bucketName).build()));
+      return Health.up()
+          .withDetail("bucket", bucketName)
+          .withDetail("circuitBreaker", s3Guard.getState().name())
+          .build();
+    } catch (AwsDependencyUnavailableException ex) {
+      return Health.down()
+          .withDetail("error", "circuit-open")
+          .withDetail("circuitBreaker", circuitBreaker)
+          .build();
     } catch (S3Exception ex) {
       log.warn("S3 health check failed", ex);
       return Health.down()
           .withDetail(
               "error", ex.awsErrorDetails() != null ? ex.awsErrorDetails().errorCode() : "s3-error")
           .withDetail("statusCode", ex.statusCode())
+          .withDetail("circuitBreaker", s3Guard.getState().name())
           .build();
     } catch (SdkClientException ex) {
       log.warn("S3 health check failed", ex);
-      return Health.down().withDetail("error", "sdk-client-error").build();
+      return Health.down()
+          .withDetail("error", "sdk-client-error")
+          .withDetail("circuitBreaker", s3Guard.getState().name())
+          .build();
     }
   }
 }
@@ -0,0 +1,23 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.deanlofts.awslabjava.AuthTokenRefresh")
+@Label("Auth Token Refresh")
+@Description("A load of the demo auth token from Secrets Manager, SSM or properties")
+@Category({"AWS Lab Java", "AWS"})
+public class AuthTokenRefreshEvent extends Event {
+
+  @Label("Source")
+  public String source;
+
+  @Label("Success")
+  public boolean success;
+
+  @Label("Error")
+  public String error;
+}
@@ -0,0 +1,94 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+public class AwsSdkMetricPublisher implements MetricPublisher {
+
+  private static final String API_CALL_ATTEMPT = "ApiCallAttempt";
+  private static final String HTTP_CLIENT = "HttpClient";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<String, PoolGauges> pools = new ConcurrentHashMap<>();
+
+  public AwsSdkMetricPublisher(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void publish(MetricCollection metrics) {
+    String service = first(metrics, CoreMetric.SERVICE_ID).orElse("unknown");
+    String operation = first(metrics, CoreMetric.OPERATION_NAME).orElse("unknown");
+    first(metrics, CoreMetric.API_CALL_DURATION)
+        .ifPresent(
+            duration ->
+                Timer.builder("aws.sdk.api.call")
+                    .tag("service", service)
+                    .tag("operation", operation)
+                    .tag(
+                        "successful",
+                        String.valueOf(
+                            first(metrics, CoreMetric.API_CALL_SUCCESSFUL).orElse(false)))
+                    .register(meterRegistry)
+                    .record(duration));
+
+    metrics
+        .childrenWithName(API_CALL_ATTEMPT)
+        .flatMap(attempt -> attempt.childrenWithName(HTTP_CLIENT))
+        .forEach(http -> recordHttp(service, http));
+  }
+
+  @Override
+  public void close() {}
+
+  private void recordHttp(String service, MetricCollection http) {
+    String client = first(http, HttpMetric.HTTP_CLIENT_NAME).orElse("unknown");
+    PoolGauges gauges = pools.computeIfAbsent(client, this::registerPool);
+    first(http, HttpMetric.MAX_CONCURRENCY).ifPresent(gauges.max()::set);
+    first(http, HttpMetric.AVAILABLE_CONCURRENCY).ifPresent(gauges.available()::set);
+    first(http, HttpMetric.LEASED_CONCURRENCY).ifPresent(gauges.leased()::set);
+    first(http, HttpMetric.PENDING_CONCURRENCY_ACQUIRES).ifPresent(gauges.pending()::set);
+    first(http, HttpMetric.CONCURRENCY_ACQUIRE_DURATION)
+        .ifPresent(duration -> acquireTimer(client, service).record(duration));
+  }
+
+  private Timer acquireTimer(String client, String service) {
+    return Timer.builder("aws.sdk.http.pool.acquire")
+        .tag("client", client)
+        .tag("service", service)
+        .register(meterRegistry);
+  }
+
+  private PoolGauges registerPool(String client) {
+    PoolGauges gauges =
+        new PoolGauges(
+            new AtomicInteger(), new AtomicInteger(), new AtomicInteger(), new AtomicInteger());
+    gauge("aws.sdk.http.pool.max", client, gauges.max());
+    gauge("aws.sdk.http.pool.available", client, gauges.available());
+    gauge("aws.sdk.http.pool.leased", client, gauges.leased());
+    gauge("aws.sdk.http.pool.pending", client, gauges.pending());
+    return gauges;
+  }
+
+  private void gauge(String name, String client, AtomicInteger value) {
+    Gauge.builder(name, value, AtomicInteger::get).tag("client", client).register(meterRegistry);
+  }
+
+  private static <T> Optional<T> first(MetricCollection metrics, SdkMetric<T> metric) {
+    return metrics.metricValues(metric).stream().findFirst();
+  }
+
+  private record PoolGauges(
+      AtomicInteger max, AtomicInteger available, AtomicInteger leased, AtomicInteger pending) {}
+}
@@ -0,0 +1,31 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.deanlofts.awslabjava.HttpRequest")
+@Label("HTTP Request")
+@Description("An HTTP request handled by the application")
+@Category({"AWS Lab Java", "HTTP"})
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+  @Label("Method")
+  public String method;
+
+  @Label("Path")
+  public String path;
+
+  @Label("Status")
+  public int status;
+
+  @Label("Trace Id")
+  public String traceId;
+
+  @Label("SQL Statements")
+  public int sqlStatements;
+}
@@ -0,0 +1,49 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+public class InMemorySpanExporter implements SpanExporter {
+
+  private final int capacity;
+  private final Deque<SpanData> spans = new ArrayDeque<>();
+
+  public InMemorySpanExporter(int capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+    for (SpanData span : batch) {
+      if (spans.size() == capacity) {
+        spans.removeFirst();
+      }
+      spans.addLast(span);
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  public synchronized List<SpanData> getFinishedSpanItems() {
+    return List.copyOf(spans);
+  }
+
+  public synchronized void reset() {
+    spans.clear();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return CompletableResultCode.ofSuccess();
+  }
+}
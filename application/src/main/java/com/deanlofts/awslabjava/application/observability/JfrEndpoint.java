@@ -0,0 +1,45 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+  private final JfrRecordings jfrRecordings;
+
+  public JfrEndpoint(JfrRecordings jfrRecordings) {
+    this.jfrRecordings = jfrRecordings;
+  }
+
+  @ReadOperation
+  public List<JfrRecordings.RecordingSummary> recordings() {
+    return jfrRecordings.list();
+  }
+
+  @ReadOperation(produces = "application/octet-stream")
+  public Resource dump(@Selector String name) {
+    return jfrRecordings.dump(name).orElse(null);
+  }
+
+  @WriteOperation
+  public JfrRecordings.RecordingSummary start(
+      @Nullable String name, @Nullable Duration duration, @Nullable String settings) {
+    return jfrRecordings.start(name, duration, settings);
+  }
+
+  @DeleteOperation
+  public JfrRecordings.RecordingSummary stop(@Selector String name) {
+    return jfrRecordings.close(name).orElse(null);
+  }
+}
@@ -0,0 +1,203 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.deanlofts.awslabjava.application.config.JfrProperties;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+@Component
+public class JfrRecordings {
+
+  public static final String CONTINUOUS = "continuous";
+
+  private static final Logger log = LoggerFactory.getLogger(JfrRecordings.class);
+
+  private final JfrProperties properties;
+  private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+
+  public JfrRecordings(JfrProperties properties) {
+    this.properties = properties;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startContinuous() {
+    if (!properties.isContinuousEnabled() || recordings.containsKey(CONTINUOUS)) {
+      return;
+    }
+    Recording recording = new Recording(configuration(properties.getContinuousSettings()));
+    recording.setName(CONTINUOUS);
+    recording.setToDisk(true);
+    recording.setMaxAge(properties.getContinuousMaxAge());
+    recording.setMaxSize(properties.getContinuousMaxSize().toBytes());
+    recording.start();
+    recordings.put(CONTINUOUS, recording);
+    log.info(
+        "Continuous JFR recording started settings={} maxAge={} maxSize={}",
+        properties.getContinuousSettings(),
+        properties.getContinuousMaxAge(),
+        properties.getContinuousMaxSize());
+  }
+
+  public synchronized RecordingSummary start(String name, Duration duration, String settings) {
+    String recordingName = StringUtils.hasText(name) ? name : "recording-" + Instant.now();
+    if (recordings.containsKey(recordingName)) {
+      throw new InvalidEndpointRequestException(
+          "Recording %s already exists".formatted(recordingName), "duplicate recording name");
+    }
+    long onDemand = recordings.keySet().stream().filter(key -> !CONTINUOUS.equals(key)).count();
+    if (onDemand >= properties.getMaxRecordings()) {
+      throw new InvalidEndpointRequestException(
+          "At most %d recordings may be held; delete one first"
+              .formatted(properties.getMaxRecordings()),
+          "too many recordings");
+    }
+    Duration requested = duration != null ? duration : properties.getDefaultDuration();
+    if (requested.isNegative() || requested.isZero()) {
+      throw new InvalidEndpointRequestException(
+          "Recording duration must be positive", "invalid duration");
+    }
+    Duration bounded =
+        requested.compareTo(properties.getMaxDuration()) > 0
+            ? properties.getMaxDuration()
+            : requested;
+    String settingsName =
+        StringUtils.hasText(settings) ? settings : properties.getDefaultSettings();
+
+    Recording recording = new Recording(configuration(settingsName));
+    recording.setName(recordingName);
+    recording.setToDisk(true);
+    recording.setDuration(bounded);
+    recording.setMaxSize(properties.getMaxSize().toBytes());
+    recording.start();
+    recordings.put(recordingName, recording);
+    log.info(
+        "JFR recording started name={} settings={} duration={}",
+        recordingName,
+        settingsName,
+        bounded);
+    return summarise(recording);
+  }
+
+  public List<RecordingSummary> list() {
+    return recordings.values().stream()
+        .map(JfrRecordings::summarise)
+        .sorted(Comparator.comparing(RecordingSummary::name))
+        .toList();
+  }
+
+  public Optional<Resource> dump(String name) {
+    Recording recording = recordings.get(name);
+    if (recording == null) {
+      return Optional.empty();
+    }
+    try {
+      Path file = Files.createTempFile("jfr-" + sanitise(name) + "-", ".jfr");
+      recording.dump(file);
+      return Optional.of(new TemporaryFileResource(file));
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to dump JFR recording " + name, ex);
+    }
+  }
+
+  public Optional<RecordingSummary> close(String name) {
+    Recording recording = recordings.remove(name);
+    if (recording == null) {
+      return Optional.empty();
+    }
+    RecordingSummary summary = summarise(recording);
+    recording.close();
+    log.info("JFR recording closed name={}", name);
+    return Optional.of(summary);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    recordings.values().forEach(Recording::close);
+    recordings.clear();
+  }
+
+  private static Configuration configuration(String settings) {
+    try {
+      return Configuration.getConfiguration(settings);
+    } catch (IOException | ParseException ex) {
+      throw new InvalidEndpointRequestException(
+          "Unknown JFR settings %s".formatted(settings), "unknown settings");
+    }
+  }
+
+  private static RecordingSummary summarise(Recording recording) {
+    return new RecordingSummary(
+        recording.getName(),
+        recording.getState(),
+        recording.getStartTime(),
+        recording.getDuration(),
+        recording.getMaxAge(),
+        recording.getMaxSize(),
+        recording.getSize());
+  }
+
+  private static String sanitise(String name) {
+    return name.replaceAll("[^A-Za-z0-9._-]", "_");
+  }
+
+  public record RecordingSummary(
+      String name,
+      RecordingState state,
+      Instant startTime,
+      Duration duration,
+      Duration maxAge,
+      long maxSize,
+      long size) {}
+
+  private static final class TemporaryFileResource extends FileSystemResource {
+
+    private final Path file;
+
+    private TemporaryFileResource(Path file) {
+      super(file);
+      this.file = file;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return new FilterInputStream(super.getInputStream()) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            Files.deleteIfExists(file);
+          }
+        }
+      };
+    }
+  }
+}
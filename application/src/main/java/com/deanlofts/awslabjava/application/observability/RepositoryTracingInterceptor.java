@@ -0,0 +1,46 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+public class RepositoryTracingInterceptor implements MethodInterceptor {
+
+  private final Supplier<Tracer> tracer;
+  private final String repositoryName;
+
+  public RepositoryTracingInterceptor(Supplier<Tracer> tracer, String repositoryName) {
+    this.tracer = tracer;
+    this.repositoryName = repositoryName;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    String method = invocation.getMethod().getName();
+    Span span =
+        tracer
+            .get()
+            .spanBuilder(repositoryName + "." + method)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("db.system", "postgresql")
+            .setAttribute("code.namespace", repositoryName)
+            .setAttribute("code.function", method)
+            .startSpan();
+    try (Scope ignored = span.makeCurrent()) {
+      return invocation.proceed();
+    } catch (Throwable ex) {
+      span.recordException(ex);
+      span.setStatus(StatusCode.ERROR, ex.getClass().getSimpleName());
+      throw ex;
+    } finally {
+      span.end();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.deanlofts.awslabjava.S3MetadataWrite")
+@Label("S3 Metadata Write")
+@Description("A widget metadata put or delete against S3")
+@Category({"AWS Lab Java", "AWS"})
+public class S3MetadataWriteEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Object Key")
+  public String objectKey;
+
+  @Label("Outcome")
+  public String outcome;
+
+  public static S3MetadataWriteEvent begin(String operation, String objectKey) {
+    S3MetadataWriteEvent event = new S3MetadataWriteEvent();
+    event.operation = operation;
+    event.objectKey = objectKey;
+    event.outcome = "failed";
+    event.begin();
+    return event;
+  }
+
+  public void finish(String outcome) {
+    this.outcome = outcome;
+    if (shouldCommit()) {
+      commit();
+    }
+  }
+}
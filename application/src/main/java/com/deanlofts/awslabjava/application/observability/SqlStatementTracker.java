@@ -0,0 +1,116 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class SqlStatementTracker implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(SqlStatementTracker.class);
+  private static final ThreadLocal<SqlStatementTracker> CURRENT = new ThreadLocal<>();
+
+  private final SqlStatementTracker parent;
+  private final long slowThresholdNanos;
+  private final List<String> capturedSql;
+  private int statements;
+  private int slowStatements;
+  private long jdbcNanos;
+
+  private SqlStatementTracker(
+      SqlStatementTracker parent, Duration slowThreshold, boolean captureSql) {
+    this.parent = parent;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+    this.capturedSql = captureSql ? new ArrayList<>() : null;
+  }
+
+  public static SqlStatementTracker start(Duration slowThreshold) {
+    return open(slowThreshold, false);
+  }
+
+  public static SqlStatementTracker capture() {
+    return open(Duration.ZERO, true);
+  }
+
+  private static SqlStatementTracker open(Duration slowThreshold, boolean captureSql) {
+    SqlStatementTracker tracker = new SqlStatementTracker(CURRENT.get(), slowThreshold, captureSql);
+    CURRENT.set(tracker);
+    return tracker;
+  }
+
+  static SqlStatementTracker current() {
+    return CURRENT.get();
+  }
+
+  public int statements() {
+    return statements;
+  }
+
+  public int slowStatements() {
+    return slowStatements;
+  }
+
+  public Duration jdbcTime() {
+    return Duration.ofNanos(jdbcNanos);
+  }
+
+  public List<String> capturedSql() {
+    return capturedSql != null ? List.copyOf(capturedSql) : List.of();
+  }
+
+  @Override
+  public void close() {
+    if (CURRENT.get() != this) {
+      return;
+    }
+    if (parent != null) {
+      CURRENT.set(parent);
+    } else {
+      CURRENT.remove();
+    }
+  }
+
+  void executed(String sql, long elapsed) {
+    boolean slow = slowThresholdNanos > 0 && elapsed >= slowThresholdNanos;
+    if (slow) {
+      log.warn(
+          "slowQuery durationMs={} parameters={} sql={}",
+          Duration.ofNanos(elapsed).toMillis(),
+          countParameters(sql),
+          sql);
+    }
+    for (SqlStatementTracker tracker = this; tracker != null; tracker = tracker.parent) {
+      tracker.record(sql, elapsed, slow);
+    }
+  }
+
+  private void record(String sql, long elapsed, boolean slow) {
+    statements++;
+    jdbcNanos += elapsed;
+    if (slow) {
+      slowStatements++;
+    }
+    if (capturedSql != null) {
+      capturedSql.add(sql);
+    }
+  }
+
+  static int countParameters(String sql) {
+    if (sql == null) {
+      return 0;
+    }
+    int parameters = 0;
+    boolean quoted = false;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (c == '?' && !quoted) {
+        parameters++;
+      }
+    }
+    return parameters;
+  }
+}
@@ -0,0 +1,184 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.jdbc.PgStatement;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+
+public class SqlStatementTrackingDataSource extends DelegatingDataSource {
+
+  public SqlStatementTrackingDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return track(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return track(super.getConnection(username, password));
+  }
+
+  private static Connection track(Connection connection) {
+    return (Connection)
+        Proxy.newProxyInstance(
+            SqlStatementTrackingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new ConnectionHandler(connection));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getTargetException();
+    }
+  }
+
+  private static Object unwrap(Object proxy, Object target, Method method, Object[] args)
+      throws Throwable {
+    Class<?> iface = (Class<?>) args[0];
+    if (method.getName().equals("isWrapperFor")) {
+      return iface.isInstance(proxy) || (boolean) invoke(target, method, args);
+    }
+    return iface.isInstance(proxy) ? proxy : invoke(target, method, args);
+  }
+
+  private static final class ConnectionHandler implements InvocationHandler {
+
+    private final Connection target;
+
+    private ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "unwrap", "isWrapperFor" -> {
+          return unwrap(proxy, target, method, args);
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+          return "Tracked " + target;
+        }
+        default -> {}
+      }
+      Object result = SqlStatementTrackingDataSource.invoke(target, method, args);
+      if (!(result instanceof Statement statement)) {
+        return result;
+      }
+      String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+      Class<?> type =
+          statement instanceof CallableStatement
+              ? CallableStatement.class
+              : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+      return Proxy.newProxyInstance(
+          SqlStatementTrackingDataSource.class.getClassLoader(),
+          new Class<?>[] {type},
+          new StatementHandler(statement, (Connection) proxy, sql));
+    }
+  }
+
+  private static final class StatementHandler implements InvocationHandler {
+
+    private final Statement target;
+    private final Connection connection;
+    private final String preparedSql;
+    private String batchSql;
+    private boolean bounded;
+
+    private StatementHandler(Statement target, Connection connection, String preparedSql) {
+      this.target = target;
+      this.connection = connection;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      switch (name) {
+        case "unwrap", "isWrapperFor" -> {
+          return unwrap(proxy, target, method, args);
+        }
+        case "getConnection" -> {
+          return connection;
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+          return "Tracked " + target;
+        }
+        case "addBatch" -> {
+          if (args != null && args.length == 1 && args[0] instanceof String sql) {
+            batchSql = sql;
+          }
+        }
+        default -> {}
+      }
+      if (!name.startsWith("execute")) {
+        return SqlStatementTrackingDataSource.invoke(target, method, args);
+      }
+      bound();
+      SqlStatementTracker tracker = SqlStatementTracker.current();
+      if (tracker == null) {
+        return SqlStatementTrackingDataSource.invoke(target, method, args);
+      }
+      String sql =
+          args != null && args.length > 0 && args[0] instanceof String s
+              ? s
+              : preparedSql != null ? preparedSql : batchSql;
+      long started = System.nanoTime();
+      try {
+        return SqlStatementTrackingDataSource.invoke(target, method, args);
+      } finally {
+        tracker.executed(sql, System.nanoTime() - started);
+      }
+    }
+
+    private void bound() throws SQLException {
+      RequestDeadline deadline = RequestDeadline.current();
+      if (deadline == null) {
+        if (bounded) {
+          setQueryTimeoutMillis(0);
+          bounded = false;
+        }
+        return;
+      }
+      RequestDeadline.checkRemaining(RequestDeadline.POSTGRES);
+      setQueryTimeoutMillis(Math.max(1, deadline.remaining().toMillis()));
+      bounded = true;
+    }
+
+    private void setQueryTimeoutMillis(long millis) throws SQLException {
+      if (target.isWrapperFor(PgStatement.class)) {
+        target.unwrap(PgStatement.class).setQueryTimeoutMs(millis);
+      } else {
+        target.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, Math.ceilDiv(millis, 1000)));
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+public class TracingExecutionInterceptor implements ExecutionInterceptor {
+
+  private static final ExecutionAttribute<Span> SPAN = new ExecutionAttribute<>("OtelSpan");
+
+  private final Tracer tracer;
+
+  public TracingExecutionInterceptor(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  public void beforeExecution(
+      Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+    String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+    String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+    Span span =
+        tracer
+            .spanBuilder(service + "." + operation)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("rpc.system", "aws-api")
+            .setAttribute("rpc.service", service)
+            .setAttribute("rpc.method", operation)
+            .startSpan();
+    executionAttributes.putAttribute(SPAN, span);
+  }
+
+  @Override
+  public void afterExecution(
+      Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+    Span span = executionAttributes.getAttribute(SPAN);
+    if (span == null) {
+      return;
+    }
+    recordResponse(span, context.httpResponse());
+    span.end();
+  }
+
+  @Override
+  public void onExecutionFailure(
+      Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+    Span span = executionAttributes.getAttribute(SPAN);
+    if (span == null) {
+      return;
+    }
+    context.httpResponse().ifPresent(response -> recordResponse(span, response));
+    span.recordException(context.exception());
+    span.setStatus(StatusCode.ERROR, context.exception().getClass().getSimpleName());
+    span.end();
+  }
+
+  private void recordResponse(Span span, SdkHttpResponse response) {
+    span.setAttribute("http.response.status_code", response.statusCode());
+    response
+        .firstMatchingHeader("x-amzn-RequestId")
+        .or(() -> response.firstMatchingHeader("x-amz-request-id"))
+        .ifPresent(requestId -> span.setAttribute("aws.request_id", requestId));
+  }
+}
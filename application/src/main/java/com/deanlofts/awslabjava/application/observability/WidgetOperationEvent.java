@@ -0,0 +1,43 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.deanlofts.awslabjava.WidgetOperation")
+@Label("Widget Operation")
+@Description("A WidgetService read or mutation")
+@Category({"AWS Lab Java", "Widgets"})
+@StackTrace(false)
+public class WidgetOperationEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Widget Id")
+  public String widgetId;
+
+  @Label("Success")
+  public boolean success;
+
+  public static WidgetOperationEvent begin(String operation) {
+    WidgetOperationEvent event = new WidgetOperationEvent();
+    event.operation = operation;
+    event.begin();
+    return event;
+  }
+
+  public void succeeded(Object widgetId) {
+    this.widgetId = widgetId != null ? widgetId.toString() : null;
+    this.success = true;
+  }
+
+  public void finish() {
+    if (shouldCommit()) {
+      commit();
+    }
+  }
+}
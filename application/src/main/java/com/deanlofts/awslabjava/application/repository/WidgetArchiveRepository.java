@@ -0,0 +1,167 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+
+@Repository
+public class WidgetArchiveRepository {
+
+  private static final String CANDIDATES_SQL =
+      """
+      SELECT id, name, description, created_at, updated_at
+      FROM widgets
+      WHERE updated_at < ? AND description_ref IS NULL
+      ORDER BY updated_at
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  private static final String TOMBSTONE_SQL =
+      """
+      INSERT INTO widget_tombstones (id, archive_key, archived_at)
+      SELECT unnest(?), ?, now()
+      ON CONFLICT (id) DO UPDATE
+        SET archive_key = EXCLUDED.archive_key,
+            archived_at = EXCLUDED.archived_at
+      """;
+
+  private static final String DELETE_WIDGETS_SQL = "DELETE FROM widgets WHERE id = ANY(?)";
+
+  private static final String ARCHIVE_KEYS_SQL =
+      "SELECT id, archive_key FROM widget_tombstones WHERE id = ANY(?)";
+
+  private static final String RESTORE_SQL =
+      """
+      WITH removed AS (
+        DELETE FROM widget_tombstones WHERE id = ? RETURNING id
+      )
+      INSERT INTO widgets (id, name, description, created_at, updated_at)
+      SELECT id, ?::text, ?::text, ?::timestamptz, ?::timestamptz FROM removed
+      ON CONFLICT (id) DO NOTHING
+      """;
+
+  private static final String DISCARD_SQL =
+      "DELETE FROM widget_tombstones WHERE id = ? RETURNING archive_key";
+
+  private static final String COUNT_SQL =
+      "SELECT count(*) FROM widget_tombstones WHERE archive_key = ?";
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetArchiveRepository(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public int archiveBatch(
+      Instant cutoff, int limit, Function<List<WidgetImportRecord>, String> writer) {
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        List<WidgetImportRecord> records = candidates(connection, cutoff, limit);
+        if (records.isEmpty()) {
+          connection.commit();
+          return 0;
+        }
+        String archiveKey = writer.apply(records);
+        Array ids =
+            connection.createArrayOf(
+                "uuid", records.stream().map(WidgetImportRecord::id).toArray());
+        try (PreparedStatement statement = connection.prepareStatement(TOMBSTONE_SQL)) {
+          statement.setArray(1, ids);
+          statement.setString(2, archiveKey);
+          statement.executeUpdate();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_WIDGETS_SQL)) {
+          statement.setArray(1, ids);
+          statement.executeUpdate();
+        }
+        connection.commit();
+        return records.size();
+      } catch (SQLException | RuntimeException ex) {
+        connection.rollback();
+        throw ex;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException ex) {
+      throw new IllegalStateException("Widget archive batch failed", ex);
+    }
+  }
+
+  public Map<UUID, String> findArchiveKeys(Collection<UUID> ids) {
+    Map<UUID, String> keys = new HashMap<>();
+    jdbcTemplate.query(
+        ARCHIVE_KEYS_SQL,
+        statement ->
+            statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids.toArray())),
+        rs -> {
+          keys.put(rs.getObject("id", UUID.class), rs.getString("archive_key"));
+        });
+    return keys;
+  }
+
+  public boolean restore(WidgetImportRecord record) {
+    return jdbcTemplate.update(
+            RESTORE_SQL,
+            record.id(),
+            record.name(),
+            record.description(),
+            Timestamp.from(record.createdAt()),
+            Timestamp.from(record.updatedAt()))
+        > 0;
+  }
+
+  public Optional<String> discard(UUID id) {
+    return jdbcTemplate.query(DISCARD_SQL, (rs, rowNum) -> rs.getString(1), id).stream()
+        .findFirst();
+  }
+
+  public long countByArchiveKey(String archiveKey) {
+    Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, archiveKey);
+    return count != null ? count : 0L;
+  }
+
+  private static List<WidgetImportRecord> candidates(
+      Connection connection, Instant cutoff, int limit) throws SQLException {
+    List<WidgetImportRecord> records = new ArrayList<>(limit);
+    try (PreparedStatement statement = connection.prepareStatement(CANDIDATES_SQL)) {
+      statement.setTimestamp(1, Timestamp.from(cutoff));
+      statement.setInt(2, limit);
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          records.add(
+              new WidgetImportRecord(
+                  rs.getObject("id", UUID.class),
+                  rs.getString("name"),
+                  rs.getString("description"),
+                  rs.getTimestamp("created_at").toInstant(),
+                  rs.getTimestamp("updated_at").toInstant()));
+        }
+      }
+    }
+    return records;
+  }
+}
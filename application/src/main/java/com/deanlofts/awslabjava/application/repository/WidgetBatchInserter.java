@@ -0,0 +1,54 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+
+@Repository
+public class WidgetBatchInserter {
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO widgets (id, name, description, description_ref, description_sha256,"
+          + " description_size, content_sha256, created_at, updated_at) VALUES ";
+
+  private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetBatchInserter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void insertAll(List<WidgetEntity> widgets) {
+    if (widgets.isEmpty()) {
+      return;
+    }
+    String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(widgets.size(), ROW));
+    jdbcTemplate.update(
+        sql,
+        ps -> {
+          int index = 1;
+          for (WidgetEntity widget : widgets) {
+            ps.setObject(index++, widget.getId());
+            ps.setString(index++, widget.getName());
+            ps.setString(index++, widget.getDescription());
+            ps.setString(index++, widget.getDescriptionRef());
+            ps.setString(index++, widget.getDescriptionSha256());
+            if (widget.getDescriptionSize() != null) {
+              ps.setLong(index++, widget.getDescriptionSize());
+            } else {
+              ps.setNull(index++, Types.BIGINT);
+            }
+            ps.setString(index++, widget.getContentSha256());
+            ps.setTimestamp(index++, Timestamp.from(widget.getCreatedAt()));
+            ps.setTimestamp(index++, Timestamp.from(widget.getUpdatedAt()));
+          }
+        });
+  }
+}
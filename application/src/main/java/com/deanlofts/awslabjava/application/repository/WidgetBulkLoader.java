@@ -0,0 +1,283 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+
+@Repository
+public class WidgetBulkLoader {
+
+  private static final String COPY_SQL =
+      "COPY widget_import_staging (import_id, line_number, id, name, description, created_at,"
+          + " updated_at) FROM STDIN WITH (FORMAT csv)";
+
+  private static final String REPLACED_REFS_SQL =
+      """
+      SELECT w.description_ref
+      FROM widgets w
+      JOIN (SELECT DISTINCT id FROM widget_import_staging WHERE import_id = ?) s ON s.id = w.id
+      WHERE w.description_ref IS NOT NULL
+      FOR UPDATE OF w
+      """;
+
+  private static final String MERGE_SQL =
+      """
+      WITH latest AS (
+        SELECT DISTINCT ON (id)
+               id, name, description, coalesce(created_at, now()) AS created_at,
+               coalesce(updated_at, now()) AS updated_at,
+               encode(sha256(convert_to(description, 'UTF8')), 'hex') AS description_sha256
+        FROM widget_import_staging
+        WHERE import_id = ?
+        ORDER BY id, line_number DESC
+      ),
+      discarded AS (
+        DELETE FROM widget_tombstones t
+        USING latest
+        WHERE t.id = latest.id
+        RETURNING t.archive_key
+      ),
+      merged AS (
+        INSERT INTO widgets (id, name, description, description_sha256, content_sha256,
+                             created_at, updated_at)
+        SELECT id, name, description, description_sha256,
+               encode(sha256(convert_to(description_sha256 || name, 'UTF8')), 'hex'),
+               created_at, updated_at
+        FROM latest
+        ON CONFLICT (id) DO UPDATE
+          SET name = EXCLUDED.name,
+              description = EXCLUDED.description,
+              updated_at = EXCLUDED.updated_at,
+              description_ref = NULL,
+              description_sha256 = EXCLUDED.description_sha256,
+              description_size = NULL,
+              content_sha256 = EXCLUDED.content_sha256
+        RETURNING (xmax = 0) AS inserted
+      )
+      SELECT count(*) FILTER (WHERE inserted) AS inserted,
+             count(*) FILTER (WHERE NOT inserted) AS updated,
+             ARRAY(SELECT DISTINCT archive_key FROM discarded) AS discarded_archive_keys
+      FROM merged
+      """;
+
+  private static final String PAGE_SQL =
+      """
+      SELECT w.id, w.name, w.description, w.created_at, w.updated_at
+      FROM widgets w
+      JOIN (SELECT DISTINCT id
+            FROM widget_import_staging
+            WHERE import_id = ? AND id > ?
+            ORDER BY id
+            LIMIT ?) s ON s.id = w.id
+      ORDER BY w.id
+      """;
+
+  private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetBulkLoader(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public LoadResult load(
+      UUID importId,
+      Iterator<WidgetImportRecord> records,
+      int bufferSize,
+      long progressInterval,
+      LongConsumer progress,
+      Runnable onStaged) {
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        Staged staged =
+            stage(connection, importId, records, bufferSize, progressInterval, progress);
+        onStaged.run();
+        Set<String> replacedDescriptionRefs = new LinkedHashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(REPLACED_REFS_SQL)) {
+          statement.setObject(1, importId);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+              replacedDescriptionRefs.add(resultSet.getString(1));
+            }
+          }
+        }
+        long inserted;
+        long updated;
+        List<String> discardedArchiveKeys;
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL)) {
+          statement.setObject(1, importId);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            inserted = resultSet.getLong("inserted");
+            updated = resultSet.getLong("updated");
+            discardedArchiveKeys =
+                List.of((String[]) resultSet.getArray("discarded_archive_keys").getArray());
+          }
+        }
+        connection.commit();
+        return new LoadResult(
+            staged.accepted(),
+            staged.rejected(),
+            inserted,
+            updated,
+            discardedArchiveKeys,
+            List.copyOf(replacedDescriptionRefs));
+      } catch (SQLException | IOException | RuntimeException ex) {
+        connection.rollback();
+        throw ex;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException | IOException ex) {
+      throw new IllegalStateException("Bulk widget load failed", ex);
+    }
+  }
+
+  public void forEachImported(UUID importId, int pageSize, Consumer<WidgetDto> consumer) {
+    UUID after = MIN_UUID;
+    while (true) {
+      List<WidgetDto> page =
+          jdbcTemplate.query(
+              PAGE_SQL,
+              (rs, rowNum) ->
+                  new WidgetDto(
+                      rs.getObject("id", UUID.class),
+                      rs.getString("name"),
+                      rs.getString("description"),
+                      rs.getTimestamp("created_at").toInstant(),
+                      rs.getTimestamp("updated_at").toInstant()),
+              importId,
+              after,
+              pageSize);
+      if (page.isEmpty()) {
+        return;
+      }
+      page.forEach(consumer);
+      after = page.get(page.size() - 1).id();
+    }
+  }
+
+  public void clearStaging(UUID importId) {
+    jdbcTemplate.update("DELETE FROM widget_import_staging WHERE import_id = ?", importId);
+  }
+
+  private Staged stage(
+      Connection connection,
+      UUID importId,
+      Iterator<WidgetImportRecord> records,
+      int bufferSize,
+      long progressInterval,
+      LongConsumer progress)
+      throws SQLException, IOException {
+    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+    PGCopyOutputStream copy =
+        new PGCopyOutputStream(pgConnection.getCopyAPI().copyIn(COPY_SQL), bufferSize);
+    long line = 0;
+    long accepted = 0;
+    long rejected = 0;
+    String importIdValue = importId.toString();
+    try (Writer writer =
+        new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), bufferSize)) {
+      while (records.hasNext()) {
+        WidgetImportRecord record = records.next();
+        line++;
+        if (record == null || isBlank(record.name()) || isBlank(record.description())) {
+          rejected++;
+        } else {
+          writeRow(writer, importIdValue, line, record);
+          accepted++;
+        }
+        if (line % progressInterval == 0) {
+          progress.accept(line);
+        }
+      }
+      if (line % progressInterval != 0) {
+        progress.accept(line);
+      }
+    }
+    return new Staged(accepted, rejected);
+  }
+
+  private static void writeRow(Writer writer, String importId, long line, WidgetImportRecord record)
+      throws IOException {
+    UUID id = record.id() != null ? record.id() : UUID.randomUUID();
+    writer.write(importId);
+    writer.write(',');
+    writer.write(Long.toString(line));
+    writer.write(',');
+    writer.write(id.toString());
+    writer.write(',');
+    writeQuoted(writer, record.name());
+    writer.write(',');
+    writeQuoted(writer, record.description());
+    writer.write(',');
+    writeInstant(writer, record.createdAt());
+    writer.write(',');
+    writeInstant(writer, record.updatedAt());
+    writer.write('\n');
+  }
+
+  private static void writeQuoted(Writer writer, String value) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        writer.write('"');
+      }
+      writer.write(c);
+    }
+    writer.write('"');
+  }
+
+  private static void writeInstant(Writer writer, Instant value) throws IOException {
+    if (value != null) {
+      writer.write(value.toString());
+    }
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+
+  public record LoadResult(
+      long accepted,
+      long rejected,
+      long inserted,
+      long updated,
+      List<String> discardedArchiveKeys,
+      List<String> replacedDescriptionRefs) {
+    public long merged() {
+      return inserted + updated;
+    }
+  }
+
+  private record Staged(long accepted, long rejected) {}
+}
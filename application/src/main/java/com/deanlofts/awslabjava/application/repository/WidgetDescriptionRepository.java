@@ -0,0 +1,35 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class WidgetDescriptionRepository {
+
+  private static final String SHARED_LOCK_SQL =
+      "SELECT pg_advisory_xact_lock_shared(hashtext('widget-description'), hashtext(?))";
+
+  private static final String EXCLUSIVE_LOCK_SQL =
+      "SELECT pg_advisory_xact_lock(hashtext('widget-description'), hashtext(?))";
+
+  private static final String COUNT_SQL = "SELECT count(*) FROM widgets WHERE description_ref = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetDescriptionRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void lockShared(String descriptionRef) {
+    jdbcTemplate.queryForList(SHARED_LOCK_SQL, descriptionRef);
+  }
+
+  public void lockExclusive(String descriptionRef) {
+    jdbcTemplate.queryForList(EXCLUSIVE_LOCK_SQL, descriptionRef);
+  }
+
+  public long countReferences(String descriptionRef) {
+    Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, descriptionRef);
+    return count != null ? count : 0L;
+  }
+}
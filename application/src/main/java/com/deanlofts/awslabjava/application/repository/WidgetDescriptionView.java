@@ -0,0 +1,12 @@
+package com.deanlofts.awslabjava.application.repository;
+
+public interface WidgetDescriptionView {
+
+  String getDescription();
+
+  String getDescriptionRef();
+
+  String getDescriptionSha256();
+
+  Long getDescriptionSize();
+}
@@ -0,0 +1,8 @@
+package com.deanlofts.awslabjava.application.repository;
+
+public interface WidgetDetailView extends WidgetSummaryView {
+
+  String getDescription();
+
+  String getDescriptionRef();
+}
@@ -1,9 +1,39 @@
 package com.deanlofts.awslabjava.application.repository;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.deanlofts.awslabjava.application.entity.WidgetEntity;
 
-public interface WidgetRepository extends JpaRepository<WidgetEntity, UUID> {}
+public interface WidgetRepository extends JpaRepository<WidgetEntity, UUID> {
+
+  List<WidgetSummaryView> findAllSummariesBy();
+
+  Optional<WidgetSummaryView> findSummaryById(UUID id);
+
+  List<WidgetDetailView> findAllDetailsBy();
+
+  Optional<WidgetDetailView> findDetailById(UUID id);
+
+  @Query(
+      value =
+          "SELECT id, name, created_at AS \"createdAt\", updated_at AS \"updatedAt\""
+              + " FROM widgets WHERE id = ANY(:ids)",
+      nativeQuery = true)
+  List<WidgetSummaryView> findSummariesByIds(@Param("ids") UUID[] ids);
+
+  @Query(
+      value =
+          "SELECT id, name, description, description_ref AS \"descriptionRef\","
+              + " created_at AS \"createdAt\", updated_at AS \"updatedAt\""
+              + " FROM widgets WHERE id = ANY(:ids)",
+      nativeQuery = true)
+  List<WidgetDetailView> findDetailsByIds(@Param("ids") UUID[] ids);
+
+  Optional<WidgetDescriptionView> findDescriptionById(UUID id);
+}
@@ -0,0 +1,102 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+
+@Repository
+public class WidgetStatsRepository {
+
+  private static final String TOTALS_SQL =
+      "SELECT widget_count, created_count, updated_count, deleted_count FROM widget_stats"
+          + " WHERE id = 1";
+
+  private static final String HOURLY_SQL =
+      "SELECT bucket_start, created_count, updated_count, deleted_count FROM widget_stats_hourly"
+          + " WHERE bucket_start >= ? ORDER BY bucket_start";
+
+  private static final String APPLY_TOTALS_SQL =
+      """
+      INSERT INTO widget_stats (id, widget_count, created_count, updated_count, deleted_count)
+      VALUES (1, ?, ?, ?, ?)
+      ON CONFLICT (id) DO UPDATE
+        SET widget_count = widget_stats.widget_count + EXCLUDED.widget_count,
+            created_count = widget_stats.created_count + EXCLUDED.created_count,
+            updated_count = widget_stats.updated_count + EXCLUDED.updated_count,
+            deleted_count = widget_stats.deleted_count + EXCLUDED.deleted_count
+      """;
+
+  private static final String APPLY_HOURLY_SQL =
+      """
+      INSERT INTO widget_stats_hourly (bucket_start, created_count, updated_count, deleted_count)
+      VALUES (?, ?, ?, ?)
+      ON CONFLICT (bucket_start) DO UPDATE
+        SET created_count = widget_stats_hourly.created_count + EXCLUDED.created_count,
+            updated_count = widget_stats_hourly.updated_count + EXCLUDED.updated_count,
+            deleted_count = widget_stats_hourly.deleted_count + EXCLUDED.deleted_count
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetStatsRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public Totals readTotals() {
+    List<Totals> totals =
+        jdbcTemplate.query(
+            TOTALS_SQL,
+            (rs, rowNum) ->
+                new Totals(
+                    rs.getLong("widget_count"),
+                    rs.getLong("created_count"),
+                    rs.getLong("updated_count"),
+                    rs.getLong("deleted_count")));
+    return totals.isEmpty() ? new Totals(0, 0, 0, 0) : totals.get(0);
+  }
+
+  public List<WidgetStatsDto.HourlyActivity> readHourly(Instant from) {
+    return jdbcTemplate.query(
+        HOURLY_SQL,
+        (rs, rowNum) ->
+            new WidgetStatsDto.HourlyActivity(
+                rs.getTimestamp("bucket_start").toInstant(),
+                rs.getLong("created_count"),
+                rs.getLong("updated_count"),
+                rs.getLong("deleted_count")),
+        Timestamp.from(from));
+  }
+
+  @Transactional
+  public void apply(Map<Instant, Counts> hourly, Instant pruneBefore) {
+    long created = 0;
+    long updated = 0;
+    long deleted = 0;
+    for (Map.Entry<Instant, Counts> entry : hourly.entrySet()) {
+      Counts counts = entry.getValue();
+      jdbcTemplate.update(
+          APPLY_HOURLY_SQL,
+          Timestamp.from(entry.getKey()),
+          counts.created(),
+          counts.updated(),
+          counts.deleted());
+      created += counts.created();
+      updated += counts.updated();
+      deleted += counts.deleted();
+    }
+    jdbcTemplate.update(APPLY_TOTALS_SQL, created - deleted, created, updated, deleted);
+    jdbcTemplate.update(
+        "DELETE FROM widget_stats_hourly WHERE bucket_start < ?", Timestamp.from(pruneBefore));
+  }
+
+  public record Totals(long widgetCount, long created, long updated, long deleted) {}
+
+  public record Counts(long created, long updated, long deleted) {}
+}
@@ -0,0 +1,15 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface WidgetSummaryView {
+
+  UUID getId();
+
+  String getName();
+
+  Instant getCreatedAt();
+
+  Instant getUpdatedAt();
+}
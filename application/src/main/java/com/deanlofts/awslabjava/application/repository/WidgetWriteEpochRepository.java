@@ -0,0 +1,29 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class WidgetWriteEpochRepository {
+
+  private static final String CURRENT_SQL =
+      "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM widget_write_epoch";
+
+  private static final String ADVANCE_SQL = "SELECT nextval('widget_write_epoch')";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public WidgetWriteEpochRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public long current() {
+    Long epoch = jdbcTemplate.queryForObject(CURRENT_SQL, Long.class);
+    return epoch != null ? epoch : 0L;
+  }
+
+  public long advance() {
+    Long epoch = jdbcTemplate.queryForObject(ADVANCE_SQL, Long.class);
+    return epoch != null ? epoch : 0L;
+  }
+}
@@ -0,0 +1,81 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import java.util.function.Supplier;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+public class AwsCallGuard {
+
+  private final String name;
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+
+  public AwsCallGuard(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+    this.name = name;
+    this.circuitBreaker = circuitBreaker;
+    this.bulkhead = bulkhead;
+  }
+
+  public <T> T call(Supplier<T> supplier) {
+    RequestDeadline deadline = RequestDeadline.current();
+    if (deadline != null && deadline.isExpired()) {
+      deadline.exceeded(name);
+      throw new AwsDependencyUnavailableException(name, "deadline-exceeded", null);
+    }
+    Supplier<T> guarded =
+        CircuitBreaker.decorateSupplier(
+            circuitBreaker, Bulkhead.decorateSupplier(bulkhead, () -> within(deadline, supplier)));
+    try {
+      return guarded.get();
+    } catch (CallNotPermittedException ex) {
+      throw new AwsDependencyUnavailableException(name, "circuit-open", ex);
+    } catch (BulkheadFullException ex) {
+      throw new AwsDependencyUnavailableException(name, "bulkhead-full", ex);
+    }
+  }
+
+  private <T> T within(RequestDeadline deadline, Supplier<T> supplier) {
+    try {
+      return supplier.get();
+    } catch (SdkClientException ex) {
+      if (deadline == null || !deadline.isExpired()) {
+        throw ex;
+      }
+      deadline.exceeded(name);
+      throw new AwsDependencyUnavailableException(name, "deadline-exceeded", ex);
+    }
+  }
+
+  public void run(Runnable runnable) {
+    call(
+        () -> {
+          runnable.run();
+          return null;
+        });
+  }
+
+  public boolean isCallPermitted() {
+    CircuitBreaker.State state = circuitBreaker.getState();
+    return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public CircuitBreaker.State getState() {
+    return circuitBreaker.getState();
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public int getAvailableConcurrentCalls() {
+    return bulkhead.getMetrics().getAvailableConcurrentCalls();
+  }
+}
@@ -0,0 +1,121 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+public class AwsCallGuards {
+
+  public static final String S3 = "s3";
+  public static final String SECRETS_MANAGER = "secretsManager";
+  public static final String SSM = "ssm";
+
+  private static final Logger log = LoggerFactory.getLogger(AwsCallGuards.class);
+
+  private final AwsCallGuard s3;
+  private final AwsCallGuard secretsManager;
+  private final AwsCallGuard ssm;
+
+  public AwsCallGuards(AwsProperties.Resilience resilience, MeterRegistry meterRegistry) {
+    CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+    this.s3 = guard(S3, resilience.getS3(), circuitBreakers, bulkheads, meterRegistry);
+    this.secretsManager =
+        guard(
+            SECRETS_MANAGER,
+            resilience.getSecretsManager(),
+            circuitBreakers,
+            bulkheads,
+            meterRegistry);
+    this.ssm = guard(SSM, resilience.getSsm(), circuitBreakers, bulkheads, meterRegistry);
+    TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+    TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+  }
+
+  public AwsCallGuard s3() {
+    return s3;
+  }
+
+  public AwsCallGuard secretsManager() {
+    return secretsManager;
+  }
+
+  public AwsCallGuard ssm() {
+    return ssm;
+  }
+
+  public List<AwsCallGuard> all() {
+    return List.of(s3, secretsManager, ssm);
+  }
+
+  private static AwsCallGuard guard(
+      String name,
+      AwsProperties.Dependency settings,
+      CircuitBreakerRegistry circuitBreakers,
+      BulkheadRegistry bulkheads,
+      MeterRegistry meterRegistry) {
+    CircuitBreakerConfig circuitBreakerConfig =
+        CircuitBreakerConfig.custom()
+            .failureRateThreshold(settings.getFailureRateThreshold())
+            .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+            .slidingWindowSize(settings.getSlidingWindowSize())
+            .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .recordException(AwsCallGuards::isDependencyFailure)
+            .ignoreExceptions(AwsDependencyUnavailableException.class)
+            .build();
+    BulkheadConfig bulkheadConfig =
+        BulkheadConfig.custom()
+            .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+            .maxWaitDuration(settings.getMaxWaitDuration())
+            .build();
+
+    CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name, circuitBreakerConfig);
+    circuitBreaker
+        .getEventPublisher()
+        .onStateTransition(
+            event -> {
+              CircuitBreaker.StateTransition transition = event.getStateTransition();
+              log.warn(
+                  "AWS circuit breaker transition dependency={} from={} to={}",
+                  name,
+                  transition.getFromState(),
+                  transition.getToState());
+              meterRegistry
+                  .counter(
+                      "aws.circuitbreaker.transitions",
+                      "dependency",
+                      name,
+                      "from",
+                      transition.getFromState().name(),
+                      "to",
+                      transition.getToState().name())
+                  .increment();
+            });
+    Bulkhead bulkhead = bulkheads.bulkhead(name, bulkheadConfig);
+    return new AwsCallGuard(name, circuitBreaker, bulkhead);
+  }
+
+  public static boolean isDependencyFailure(Throwable throwable) {
+    if (throwable instanceof AwsServiceException ex) {
+      return ex.statusCode() >= 500 || ex.isThrottlingException();
+    }
+    return throwable instanceof SdkClientException;
+  }
+}
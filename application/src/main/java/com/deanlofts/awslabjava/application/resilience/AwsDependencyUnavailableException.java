@@ -0,0 +1,15 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+public class AwsDependencyUnavailableException extends IllegalStateException {
+
+  private final String dependency;
+
+  public AwsDependencyUnavailableException(String dependency, String reason, Throwable cause) {
+    super("AWS dependency %s unavailable: %s".formatted(dependency, reason), cause);
+    this.dependency = dependency;
+  }
+
+  public String getDependency() {
+    return dependency;
+  }
+}
@@ -0,0 +1,42 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import java.time.Duration;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+public class DeadlineExecutionInterceptor implements ExecutionInterceptor {
+
+  private final Duration apiCallTimeout;
+
+  public DeadlineExecutionInterceptor(Duration apiCallTimeout) {
+    this.apiCallTimeout = apiCallTimeout;
+  }
+
+  @Override
+  public SdkRequest modifyRequest(
+      Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+    RequestDeadline deadline = RequestDeadline.current();
+    if (deadline == null || !(context.request() instanceof AwsRequest request)) {
+      return context.request();
+    }
+    AwsRequestOverrideConfiguration.Builder override =
+        request
+            .overrideConfiguration()
+            .map(AwsRequestOverrideConfiguration::toBuilder)
+            .orElseGet(AwsRequestOverrideConfiguration::builder);
+    Duration configured =
+        override.apiCallTimeout() != null ? override.apiCallTimeout() : apiCallTimeout;
+    Duration remaining = Duration.ofMillis(Math.max(1, deadline.remaining().toMillis()));
+    if (configured != null && configured.compareTo(remaining) <= 0) {
+      return request;
+    }
+    return request.toBuilder()
+        .overrideConfiguration(override.apiCallTimeout(remaining).build())
+        .build();
+  }
+}
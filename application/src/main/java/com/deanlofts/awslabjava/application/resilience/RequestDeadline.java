@@ -0,0 +1,68 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class RequestDeadline implements AutoCloseable {
+
+  public static final String POSTGRES = "postgres";
+
+  private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+  private final RequestDeadline parent;
+  private final long expiresAt;
+  private final Set<String> exceeded = new LinkedHashSet<>();
+
+  private RequestDeadline(RequestDeadline parent, long expiresAt) {
+    this.parent = parent;
+    this.expiresAt = expiresAt;
+  }
+
+  public static RequestDeadline start(Duration budget) {
+    RequestDeadline deadline =
+        new RequestDeadline(CURRENT.get(), System.nanoTime() + budget.toNanos());
+    CURRENT.set(deadline);
+    return deadline;
+  }
+
+  public static RequestDeadline current() {
+    return CURRENT.get();
+  }
+
+  public static void checkRemaining(String dependency) {
+    RequestDeadline deadline = CURRENT.get();
+    if (deadline != null && deadline.isExpired()) {
+      deadline.exceeded(dependency);
+      throw new RequestDeadlineExceededException(dependency);
+    }
+  }
+
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+  }
+
+  public boolean isExpired() {
+    return System.nanoTime() - expiresAt >= 0;
+  }
+
+  public void exceeded(String dependency) {
+    exceeded.add(dependency);
+  }
+
+  public Set<String> exceededDependencies() {
+    return Set.copyOf(exceeded);
+  }
+
+  @Override
+  public void close() {
+    if (CURRENT.get() != this) {
+      return;
+    }
+    if (parent != null) {
+      CURRENT.set(parent);
+    } else {
+      CURRENT.remove();
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class RequestDeadlineExceededException extends ResponseStatusException {
+
+  private final String dependency;
+
+  public RequestDeadlineExceededException(String dependency) {
+    super(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded before calling " + dependency);
+    this.dependency = dependency;
+  }
+
+  public String getDependency() {
+    return dependency;
+  }
+}
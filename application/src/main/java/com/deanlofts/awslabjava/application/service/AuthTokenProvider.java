@@ -6,13 +6,16 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import com.deanlofts.awslabjava.application.config.AppProperties;
 import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.observability.AuthTokenRefreshEvent;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
 
-import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.ssm.SsmClient;
@@ -25,19 +28,22 @@ public class AuthTokenProvider {
 
   private final AppProperties appProperties;
   private final AwsProperties awsProperties;
-  private final Optional<SecretsManagerClient> secretsManagerClient;
-  private final Optional<SsmClient> ssmClient;
+  private final ObjectProvider<SecretsManagerClient> secretsManagerClient;
+  private final ObjectProvider<SsmClient> ssmClient;
+  private final AwsCallGuards awsCallGuards;
   private final AtomicReference<TokenSnapshot> cache = new AtomicReference<>();
 
   public AuthTokenProvider(
       AppProperties appProperties,
       AwsProperties awsProperties,
-      Optional<SecretsManagerClient> secretsManagerClient,
-      Optional<SsmClient> ssmClient) {
+      ObjectProvider<SecretsManagerClient> secretsManagerClient,
+      ObjectProvider<SsmClient> ssmClient,
+      AwsCallGuards awsCallGuards) {
     this.appProperties = appProperties;
     this.awsProperties = awsProperties;
     this.secretsManagerClient = secretsManagerClient;
     this.ssmClient = ssmClient;
+    this.awsCallGuards = awsCallGuards;
   }
 
   public String requiredToken() {
@@ -56,7 +62,7 @@ public class AuthTokenProvider {
     synchronized (cache) {
       snapshot = cache.get();
       if (snapshot == null) {
-        snapshot = loadToken();
+        snapshot = loadTokenRecorded();
         cache.set(snapshot);
         log.info("Demo auth token loaded from {} at {}", snapshot.source, snapshot.fetchedAt);
       }
@@ -74,46 +80,74 @@ public class AuthTokenProvider {
     }
   }
 
+  private TokenSnapshot loadTokenRecorded() {
+    AuthTokenRefreshEvent event = new AuthTokenRefreshEvent();
+    event.begin();
+    try {
+      TokenSnapshot snapshot = loadToken();
+      event.source = snapshot.source().name();
+      event.success = true;
+      return snapshot;
+    } catch (RuntimeException ex) {
+      event.error = ex.getMessage();
+      throw ex;
+    } finally {
+      event.commit();
+    }
+  }
+
   private TokenSnapshot loadToken() {
     String secretId = awsProperties.getSecrets().getAuthTokenSecretId();
     if (StringUtils.hasText(secretId)) {
-      SecretsManagerClient client =
-          secretsManagerClient.orElseThrow(
-              () ->
-                  new IllegalStateException(
-                      "Secrets Manager client missing while secret id configured"));
+      SecretsManagerClient client = secretsManagerClient.getIfAvailable();
+      if (client == null) {
+        throw new IllegalStateException(
+            "Secrets Manager client missing while secret id configured");
+      }
       try {
         String secretValue =
-            client
-                .getSecretValue(GetSecretValueRequest.builder().secretId(secretId).build())
-                .secretString();
+            awsCallGuards
+                .secretsManager()
+                .call(
+                    () ->
+                        client
+                            .getSecretValue(
+                                GetSecretValueRequest.builder().secretId(secretId).build())
+                            .secretString());
         if (!StringUtils.hasText(secretValue)) {
           throw new IllegalStateException("Secrets Manager secret is empty");
         }
         return new TokenSnapshot(secretValue, TokenSource.SECRETS_MANAGER, Instant.now());
-      } catch (AwsServiceException ex) {
+      } catch (SdkException ex) {
         throw new IllegalStateException("Failed to fetch secret from Secrets Manager", ex);
       }
     }
 
     String parameterName = awsProperties.getParameterStore().getAuthTokenParameterName();
     if (StringUtils.hasText(parameterName)) {
-      SsmClient client =
-          ssmClient.orElseThrow(
-              () ->
-                  new IllegalStateException("SSM client missing while parameter name configured"));
+      SsmClient client = ssmClient.getIfAvailable();
+      if (client == null) {
+        throw new IllegalStateException("SSM client missing while parameter name configured");
+      }
       try {
         String parameterValue =
-            client
-                .getParameter(
-                    GetParameterRequest.builder().name(parameterName).withDecryption(true).build())
-                .parameter()
-                .value();
+            awsCallGuards
+                .ssm()
+                .call(
+                    () ->
+                        client
+                            .getParameter(
+                                GetParameterRequest.builder()
+                                    .name(parameterName)
+                                    .withDecryption(true)
+                                    .build())
+                            .parameter()
+                            .value());
         if (!StringUtils.hasText(parameterValue)) {
           throw new IllegalStateException("SSM parameter is empty");
         }
         return new TokenSnapshot(parameterValue, TokenSource.PARAMETER_STORE, Instant.now());
-      } catch (AwsServiceException ex) {
+      } catch (SdkException ex) {
         throw new IllegalStateException("Failed to fetch parameter from SSM", ex);
       }
     }
@@ -1,10 +1,17 @@
 package com.deanlofts.awslabjava.application.service;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -12,9 +19,17 @@ import org.springframework.util.StringUtils;
 import com.deanlofts.awslabjava.application.config.AppProperties;
 import com.deanlofts.awslabjava.application.config.AwsProperties;
 import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.observability.S3MetadataWriteEvent;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuard;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.AwsDependencyUnavailableException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
@@ -27,24 +42,70 @@ public class S3MetadataService {
 
   private final AppProperties appProperties;
   private final AwsProperties awsProperties;
-  private final Optional<S3Client> s3Client;
+  private final ObjectProvider<S3Client> s3Client;
   private final ObjectMapper objectMapper;
+  private final AwsCallGuard s3Guard;
+  private final Map<String, DeferredWrite> deferredWrites = new LinkedHashMap<>();
+  private final int deferredWriteCapacity;
+  private final ScheduledExecutorService replayExecutor;
+  private final Counter deferredCounter;
+  private final Counter supersededCounter;
+  private final Counter droppedCounter;
 
   public S3MetadataService(
       AppProperties appProperties,
       AwsProperties awsProperties,
-      Optional<S3Client> s3Client,
-      ObjectMapper objectMapper) {
+      ObjectProvider<S3Client> s3Client,
+      ObjectMapper objectMapper,
+      AwsCallGuards awsCallGuards,
+      MeterRegistry meterRegistry) {
     this.appProperties = appProperties;
     this.awsProperties = awsProperties;
     this.s3Client = s3Client;
     this.objectMapper = objectMapper;
+    this.s3Guard = awsCallGuards.s3();
+    this.deferredWriteCapacity = Math.max(1, awsProperties.getS3().getDeferredWriteCapacity());
+    this.replayExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "s3-metadata-replay");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.deferredCounter = meterRegistry.counter("aws.s3.metadata.deferred");
+    this.supersededCounter = meterRegistry.counter("aws.s3.metadata.superseded");
+    this.droppedCounter = meterRegistry.counter("aws.s3.metadata.dropped");
+    meterRegistry.gauge(
+        "aws.s3.metadata.deferred.pending",
+        Tags.empty(),
+        this,
+        S3MetadataService::pendingDeferredWrites);
+    long replayMillis = Math.max(100, awsProperties.getS3().getDeferredReplayInterval().toMillis());
+    replayExecutor.scheduleWithFixedDelay(
+        this::replayDeferredWrites, replayMillis, replayMillis, TimeUnit.MILLISECONDS);
+    s3Guard
+        .getCircuitBreaker()
+        .getEventPublisher()
+        .onStateTransition(
+            event -> {
+              CircuitBreaker.State toState = event.getStateTransition().getToState();
+              if (toState == CircuitBreaker.State.HALF_OPEN
+                  || toState == CircuitBreaker.State.CLOSED) {
+                replayExecutor.execute(this::replayDeferredWrites);
+              }
+            });
   }
 
   public boolean isEnabled() {
     return appProperties.getFeature().isS3Metadata();
   }
 
+  public int pendingDeferredWrites() {
+    synchronized (deferredWrites) {
+      return deferredWrites.size();
+    }
+  }
+
   public void writeWidgetMetadata(WidgetDto widget) {
     if (!isEnabled()) {
       return;
@@ -61,8 +122,23 @@ public class S3MetadataService {
               .key(objectKey)
               .contentType("application/json")
               .build();
-      context.client().putObject(request, RequestBody.fromString(payload));
-      log.info("Widget metadata stored in S3 bucket={} key={}", context.bucketName(), objectKey);
+      S3MetadataWriteEvent event = S3MetadataWriteEvent.begin("put", objectKey);
+      boolean stored;
+      try {
+        stored =
+            execute(
+                new DeferredWrite(
+                    "put",
+                    objectKey,
+                    () -> context.client().putObject(request, RequestBody.fromString(payload))));
+      } catch (RuntimeException ex) {
+        event.finish("failed");
+        throw ex;
+      }
+      event.finish(stored ? "stored" : "deferred");
+      if (stored) {
+        log.info("Widget metadata stored in S3 bucket={} key={}", context.bucketName(), objectKey);
+      }
     } catch (JsonProcessingException ex) {
       throw new IllegalStateException("Failed to serialise widget metadata", ex);
     }
@@ -76,8 +152,100 @@ public class S3MetadataService {
     String objectKey = context.objectKey(widgetId);
     DeleteObjectRequest request =
         DeleteObjectRequest.builder().bucket(context.bucketName()).key(objectKey).build();
-    context.client().deleteObject(request);
-    log.info("Widget metadata deleted from S3 bucket={} key={}", context.bucketName(), objectKey);
+    S3MetadataWriteEvent event = S3MetadataWriteEvent.begin("delete", objectKey);
+    boolean deleted;
+    try {
+      deleted =
+          execute(
+              new DeferredWrite("delete", objectKey, () -> context.client().deleteObject(request)));
+    } catch (RuntimeException ex) {
+      event.finish("failed");
+      throw ex;
+    }
+    event.finish(deleted ? "deleted" : "deferred");
+    if (deleted) {
+      log.info("Widget metadata deleted from S3 bucket={} key={}", context.bucketName(), objectKey);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    replayExecutor.shutdownNow();
+    int pending = pendingDeferredWrites();
+    if (pending > 0) {
+      log.warn("Discarding {} deferred S3 metadata writes on shutdown", pending);
+    }
+  }
+
+  private boolean execute(DeferredWrite write) {
+    if (!s3Guard.isCallPermitted()) {
+      defer(write);
+      return false;
+    }
+    if (pendingDeferredWrites() > 0) {
+      defer(write);
+      replayExecutor.execute(this::replayDeferredWrites);
+      return false;
+    }
+    try {
+      s3Guard.run(write.call());
+      return true;
+    } catch (AwsDependencyUnavailableException ex) {
+      defer(write);
+      return false;
+    }
+  }
+
+  private void defer(DeferredWrite write) {
+    int pending;
+    boolean superseded;
+    synchronized (deferredWrites) {
+      superseded = deferredWrites.containsKey(write.objectKey());
+      if (!superseded && deferredWrites.size() >= deferredWriteCapacity) {
+        droppedCounter.increment();
+        throw new AwsDependencyUnavailableException(AwsCallGuards.S3, "deferred-queue-full", null);
+      }
+      deferredWrites.put(write.objectKey(), write);
+      pending = deferredWrites.size();
+    }
+    deferredCounter.increment();
+    if (superseded) {
+      supersededCounter.increment();
+    }
+    log.warn(
+        "S3 circuit breaker {}; deferred metadata {} key={} pending={}",
+        s3Guard.getState(),
+        write.operation(),
+        write.objectKey(),
+        pending);
+  }
+
+  private void replayDeferredWrites() {
+    while (s3Guard.isCallPermitted()) {
+      DeferredWrite write;
+      synchronized (deferredWrites) {
+        if (deferredWrites.isEmpty()) {
+          return;
+        }
+        write = deferredWrites.values().iterator().next();
+      }
+      try {
+        s3Guard.run(write.call());
+        log.info("Replayed deferred S3 metadata {} key={}", write.operation(), write.objectKey());
+      } catch (AwsDependencyUnavailableException ex) {
+        return;
+      } catch (RuntimeException ex) {
+        if (AwsCallGuards.isDependencyFailure(ex)) {
+          return;
+        }
+        droppedCounter.increment();
+        log.warn(
+            "Dropping deferred S3 metadata {} key={}", write.operation(), write.objectKey(), ex);
+      }
+      synchronized (deferredWrites) {
+        deferredWrites.remove(write.objectKey(), write);
+      }
+    }
   }
 
   private S3Context resolveContext() {
@@ -88,9 +256,10 @@ public class S3MetadataService {
       throw new IllegalStateException(
           "S3 metadata enabled but aws.s3.bucket-name is not configured");
     }
-    S3Client client =
-        s3Client.orElseThrow(
-            () -> new IllegalStateException("S3 metadata enabled but S3 client is not available"));
+    S3Client client = s3Client.getIfAvailable();
+    if (client == null) {
+      throw new IllegalStateException("S3 metadata enabled but S3 client is not available");
+    }
     String prefix = awsProperties.getS3().getPrefix();
     String deploymentTarget = appProperties.getDeploymentTarget();
     return new S3Context(client, bucketName, prefix, deploymentTarget);
@@ -107,5 +276,7 @@ public class S3MetadataService {
     }
   }
 
+  private record DeferredWrite(String operation, String objectKey, Runnable call) {}
+
   private record WidgetMetadata(WidgetDto widget, Instant capturedAt, String deploymentTarget) {}
 }
@@ -0,0 +1,417 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.ArchiveProperties;
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.repository.WidgetArchiveRepository;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuard;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.AwsDependencyUnavailableException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@Service
+public class WidgetArchiveService {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetArchiveService.class);
+
+  private final ArchiveProperties archiveProperties;
+  private final AwsProperties awsProperties;
+  private final ObjectProvider<S3Client> s3Client;
+  private final WidgetArchiveRepository archiveRepository;
+  private final WidgetWriteEpoch writeEpoch;
+  private final AwsCallGuard s3Guard;
+  private final ObjectWriter recordWriter;
+  private final ObjectReader recordReader;
+  private final Clock clock;
+  private final Map<UUID, CachedRecord> cache;
+  private final Counter archivedCounter;
+  private final DistributionSummary archiveSize;
+  private final Timer cacheRehydration;
+  private final Timer s3Rehydration;
+  private final ScheduledExecutorService archiveExecutor;
+
+  @Autowired
+  public WidgetArchiveService(
+      ArchiveProperties archiveProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<S3Client> s3Client,
+      WidgetArchiveRepository archiveRepository,
+      WidgetWriteEpoch writeEpoch,
+      AwsCallGuards awsCallGuards,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this(
+        archiveProperties,
+        awsProperties,
+        s3Client,
+        archiveRepository,
+        writeEpoch,
+        awsCallGuards,
+        objectMapper,
+        meterRegistry,
+        Clock.systemUTC());
+  }
+
+  WidgetArchiveService(
+      ArchiveProperties archiveProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<S3Client> s3Client,
+      WidgetArchiveRepository archiveRepository,
+      WidgetWriteEpoch writeEpoch,
+      AwsCallGuards awsCallGuards,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.archiveProperties = archiveProperties;
+    this.awsProperties = awsProperties;
+    this.s3Client = s3Client;
+    this.archiveRepository = archiveRepository;
+    this.writeEpoch = writeEpoch;
+    this.s3Guard = awsCallGuards.s3();
+    this.recordWriter = objectMapper.writerFor(WidgetImportRecord.class);
+    this.recordReader = objectMapper.readerFor(WidgetImportRecord.class);
+    this.clock = clock;
+    int cacheSize = archiveProperties.getCacheSize();
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, CachedRecord> eldest) {
+            return size() > cacheSize;
+          }
+        };
+    this.archivedCounter = meterRegistry.counter("widgets.archived");
+    this.archiveSize =
+        DistributionSummary.builder("widgets.archive.size")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    this.cacheRehydration =
+        Timer.builder("widgets.archive.rehydration").tag("source", "cache").register(meterRegistry);
+    this.s3Rehydration =
+        Timer.builder("widgets.archive.rehydration").tag("source", "s3").register(meterRegistry);
+    meterRegistry.gauge("widgets.archive.cache.size", cache, this::cacheSize);
+    if (archiveProperties.isEnabled()) {
+      this.archiveExecutor =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "widget-archive");
+                thread.setDaemon(true);
+                return thread;
+              });
+      long intervalMillis = Math.max(1000, archiveProperties.getInterval().toMillis());
+      archiveExecutor.scheduleWithFixedDelay(
+          this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      this.archiveExecutor = null;
+    }
+  }
+
+  public int archive() {
+    long started = System.nanoTime();
+    Instant cutoff = clock.instant().minus(archiveProperties.getOlderThan());
+    int archived = 0;
+    int batches = 0;
+    while (batches < archiveProperties.getMaxBatchesPerRun()) {
+      List<String> uploaded = new ArrayList<>(1);
+      int count;
+      try {
+        count =
+            archiveRepository.archiveBatch(
+                cutoff,
+                archiveProperties.getBatchSize(),
+                records -> {
+                  String archiveKey = upload(records);
+                  uploaded.add(archiveKey);
+                  return archiveKey;
+                });
+      } catch (RuntimeException ex) {
+        uploaded.forEach(this::release);
+        throw ex;
+      }
+      if (count == 0) {
+        break;
+      }
+      archived += count;
+      batches++;
+      archivedCounter.increment(count);
+      if (count < archiveProperties.getBatchSize()) {
+        break;
+      }
+    }
+    if (archived > 0) {
+      writeEpoch.advanceAfterCommit();
+    }
+    log.info(
+        "widgetArchiveRun archived={} batches={} cutoff={} durationMs={}",
+        archived,
+        batches,
+        cutoff,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    return archived;
+  }
+
+  public Optional<WidgetImportRecord> find(UUID id) {
+    return Optional.ofNullable(findAll(List.of(id)).get(id));
+  }
+
+  public Map<UUID, WidgetImportRecord> findAll(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Map<UUID, String> archiveKeys = archiveRepository.findArchiveKeys(ids);
+    Map<UUID, WidgetImportRecord> found = new HashMap<>(archiveKeys.size() * 2);
+    Map<String, Set<UUID>> misses = new HashMap<>();
+    archiveKeys.forEach(
+        (id, archiveKey) -> {
+          long started = System.nanoTime();
+          WidgetImportRecord cached = cached(id, archiveKey);
+          if (cached != null) {
+            found.put(id, cached);
+            cacheRehydration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+          } else {
+            misses.computeIfAbsent(archiveKey, key -> new HashSet<>()).add(id);
+          }
+        });
+    misses.forEach((archiveKey, wanted) -> found.putAll(rehydrate(archiveKey, wanted)));
+    return found;
+  }
+
+  public boolean restore(UUID id) {
+    String archiveKey = archiveRepository.findArchiveKeys(List.of(id)).get(id);
+    if (archiveKey == null) {
+      return false;
+    }
+    WidgetImportRecord record = cached(id, archiveKey);
+    if (record == null) {
+      record = rehydrate(archiveKey, Set.of(id)).get(id);
+    }
+    if (record == null || !archiveRepository.restore(record)) {
+      return false;
+    }
+    evict(id);
+    releaseAfterCommit(archiveKey);
+    log.info("Widget {} restored from archive key={}", id, archiveKey);
+    return true;
+  }
+
+  public boolean discard(UUID id) {
+    Optional<String> archiveKey = archiveRepository.discard(id);
+    archiveKey.ifPresent(
+        key -> {
+          evict(id);
+          releaseAfterCommit(key);
+        });
+    return archiveKey.isPresent();
+  }
+
+  public void releaseAll(Collection<String> archiveKeys) {
+    archiveKeys.forEach(this::releaseAfterCommit);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (archiveExecutor != null) {
+      archiveExecutor.shutdownNow();
+    }
+  }
+
+  private String upload(List<WidgetImportRecord> records) {
+    S3Client client = requireClient();
+    byte[] archive = compress(records);
+    String archiveKey = objectKey();
+    PutObjectRequest request =
+        PutObjectRequest.builder()
+            .bucket(bucketName())
+            .key(archiveKey)
+            .contentType("application/gzip")
+            .build();
+    try {
+      s3Guard.run(() -> client.putObject(request, RequestBody.fromBytes(archive)));
+    } catch (AwsDependencyUnavailableException ex) {
+      throw new IllegalStateException("Widget archive storage unavailable", ex);
+    }
+    archiveSize.record(archive.length);
+    log.info(
+        "Widget archive written key={} widgets={} bytes={}",
+        archiveKey,
+        records.size(),
+        archive.length);
+    return archiveKey;
+  }
+
+  private Map<UUID, WidgetImportRecord> rehydrate(String archiveKey, Set<UUID> wanted) {
+    long started = System.nanoTime();
+    S3Client client = requireClient();
+    GetObjectRequest request =
+        GetObjectRequest.builder().bucket(bucketName()).key(archiveKey).build();
+    Map<UUID, WidgetImportRecord> found = new HashMap<>(wanted.size() * 2);
+    try (InputStream archive = s3Guard.call(() -> client.getObject(request));
+        MappingIterator<WidgetImportRecord> records =
+            recordReader.readValues(new GZIPInputStream(archive))) {
+      while (records.hasNext() && found.size() < wanted.size()) {
+        WidgetImportRecord record = records.next();
+        if (wanted.contains(record.id())) {
+          found.put(record.id(), record);
+        }
+      }
+    } catch (AwsDependencyUnavailableException ex) {
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Widget archive storage unavailable", ex);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Failed to read widget archive " + archiveKey, ex);
+    }
+    synchronized (cache) {
+      found.forEach((id, record) -> cache.put(id, new CachedRecord(archiveKey, record)));
+    }
+    s3Rehydration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    return found;
+  }
+
+  private byte[] compress(List<WidgetImportRecord> records) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        SequenceWriter lines = recordWriter.withRootValueSeparator("\n").writeValues(gzip)) {
+      lines.writeAll(records);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return bytes.toByteArray();
+  }
+
+  private WidgetImportRecord cached(UUID id, String archiveKey) {
+    synchronized (cache) {
+      CachedRecord cached = cache.get(id);
+      return cached != null && cached.archiveKey().equals(archiveKey) ? cached.record() : null;
+    }
+  }
+
+  private void evict(UUID id) {
+    synchronized (cache) {
+      cache.remove(id);
+    }
+  }
+
+  private double cacheSize(Map<UUID, CachedRecord> cache) {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private void releaseAfterCommit(String archiveKey) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              release(archiveKey);
+            }
+          });
+    } else {
+      release(archiveKey);
+    }
+  }
+
+  private void release(String archiveKey) {
+    try {
+      if (archiveRepository.countByArchiveKey(archiveKey) > 0) {
+        return;
+      }
+      S3Client client = requireClient();
+      DeleteObjectRequest request =
+          DeleteObjectRequest.builder().bucket(bucketName()).key(archiveKey).build();
+      s3Guard.run(() -> client.deleteObject(request));
+      log.info("Widget archive removed from S3 key={}", archiveKey);
+    } catch (SdkException | DataAccessException | IllegalStateException ex) {
+      log.warn("Failed to remove empty widget archive key={}", archiveKey, ex);
+    }
+  }
+
+  private void archiveQuietly() {
+    try {
+      archive();
+    } catch (RuntimeException ex) {
+      log.warn("Widget archive run failed", ex);
+    }
+  }
+
+  private String objectKey() {
+    String prefix = archiveProperties.getPrefix();
+    String normalisedPrefix = StringUtils.hasText(prefix) ? prefix : "";
+    if (!normalisedPrefix.isEmpty() && !normalisedPrefix.endsWith("/")) {
+      normalisedPrefix = normalisedPrefix + "/";
+    }
+    return normalisedPrefix
+        + clock.instant().toEpochMilli()
+        + "-"
+        + UUID.randomUUID()
+        + ".ndjson.gz";
+  }
+
+  private String bucketName() {
+    String bucketName = awsProperties.getS3().getBucketName();
+    if (!StringUtils.hasText(bucketName)) {
+      throw new IllegalStateException("Widget archive requires aws.s3.bucket-name");
+    }
+    return bucketName;
+  }
+
+  private S3Client requireClient() {
+    S3Client client = s3Client.getIfAvailable();
+    if (client == null) {
+      throw new IllegalStateException("Widget archive requires an S3 client");
+    }
+    return client;
+  }
+
+  private record CachedRecord(String archiveKey, WidgetImportRecord record) {}
+}
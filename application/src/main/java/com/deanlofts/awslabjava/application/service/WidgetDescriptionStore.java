@@ -0,0 +1,328 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.config.DescriptionProperties;
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.repository.WidgetDescriptionRepository;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuard;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.AwsDependencyUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@Service
+public class WidgetDescriptionStore {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetDescriptionStore.class);
+
+  private final DescriptionProperties descriptionProperties;
+  private final AwsProperties awsProperties;
+  private final ObjectProvider<S3Client> s3Client;
+  private final WidgetDescriptionRepository descriptionRepository;
+  private final TransactionTemplate releaseTransaction;
+  private final AwsCallGuard s3Guard;
+  private final Counter offloadedCounter;
+  private final DistributionSummary offloadedSize;
+  private final ScheduledExecutorService cleanupExecutor;
+
+  public WidgetDescriptionStore(
+      DescriptionProperties descriptionProperties,
+      AwsProperties awsProperties,
+      ObjectProvider<S3Client> s3Client,
+      WidgetDescriptionRepository descriptionRepository,
+      PlatformTransactionManager transactionManager,
+      AwsCallGuards awsCallGuards,
+      MeterRegistry meterRegistry) {
+    this.descriptionProperties = descriptionProperties;
+    this.awsProperties = awsProperties;
+    this.s3Client = s3Client;
+    this.descriptionRepository = descriptionRepository;
+    this.releaseTransaction = new TransactionTemplate(transactionManager);
+    this.releaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.s3Guard = awsCallGuards.s3();
+    this.offloadedCounter = meterRegistry.counter("widgets.description.offloaded");
+    this.offloadedSize =
+        DistributionSummary.builder("widgets.description.offloaded.size")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    this.cleanupExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "widget-description-cleanup");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public PreparedDescription prepare(String description) {
+    byte[] bytes = offloadCandidate(description);
+    if (bytes == null) {
+      return new PreparedDescription(
+          description,
+          null,
+          description != null ? sha256(description.getBytes(StandardCharsets.UTF_8)) : null,
+          null);
+    }
+    String sha256 = sha256(bytes);
+    String objectKey = objectKey(sha256);
+    upload(objectKey, bytes);
+    offloadedCounter.increment();
+    offloadedSize.record(bytes.length);
+    return new PreparedDescription(description, objectKey, sha256, (long) bytes.length);
+  }
+
+  public void assign(WidgetEntity entity, String description) {
+    assign(entity, prepare(description));
+  }
+
+  public void assign(WidgetEntity entity, PreparedDescription description) {
+    String previousRef = entity.getDescriptionRef();
+    entity.setDescription(description.objectKey() == null ? description.text() : null);
+    entity.setDescriptionRef(description.objectKey());
+    entity.setDescriptionSha256(description.sha256());
+    entity.setDescriptionSize(description.size());
+    if (description.objectKey() != null
+        && TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              confirmStored(description.objectKey(), description.text());
+            }
+          });
+    }
+    if (previousRef != null && !Objects.equals(previousRef, entity.getDescriptionRef())) {
+      releaseAfterCommit(previousRef);
+    }
+  }
+
+  public void discard(PreparedDescription description) {
+    if (description != null) {
+      releaseAfterCommit(description.objectKey());
+    }
+  }
+
+  public void releaseAfterCommit(String descriptionRef) {
+    if (descriptionRef == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              schedule("remove", descriptionRef, () -> release(descriptionRef), 1, 0L);
+            }
+          });
+    } else {
+      schedule("remove", descriptionRef, () -> release(descriptionRef), 1, 0L);
+    }
+  }
+
+  public void confirmStored(String descriptionRef, String description) {
+    if (descriptionRef == null) {
+      return;
+    }
+    schedule("confirm", descriptionRef, () -> confirm(descriptionRef, description), 1, 0L);
+  }
+
+  public InputStream open(String descriptionRef) {
+    S3Client client = requireClient();
+    GetObjectRequest request =
+        GetObjectRequest.builder().bucket(bucketName()).key(descriptionRef).build();
+    try {
+      return s3Guard.call(() -> client.getObject(request));
+    } catch (AwsDependencyUnavailableException ex) {
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Widget description storage unavailable", ex);
+    }
+  }
+
+  private byte[] offloadCandidate(String description) {
+    if (!descriptionProperties.isOffloadEnabled() || description == null) {
+      return null;
+    }
+    long threshold = descriptionProperties.getOffloadThreshold().toBytes();
+    if ((long) description.length() * 3 <= threshold) {
+      return null;
+    }
+    byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+    return bytes.length > threshold ? bytes : null;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    cleanupExecutor.shutdownNow();
+  }
+
+  private void schedule(
+      String action, String descriptionRef, Runnable task, int attempt, long delayMillis) {
+    try {
+      cleanupExecutor.schedule(
+          () -> attempt(action, descriptionRef, task, attempt), delayMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      log.warn("Skipped widget description {} key={} during shutdown", action, descriptionRef);
+    }
+  }
+
+  private void attempt(String action, String descriptionRef, Runnable task, int attempt) {
+    try {
+      task.run();
+    } catch (SdkException
+        | DataAccessException
+        | TransactionException
+        | IllegalStateException
+        | ResponseStatusException ex) {
+      if (attempt < descriptionProperties.getCleanupAttempts()) {
+        log.info(
+            "Retrying widget description {} key={} attempt={}: {}",
+            action,
+            descriptionRef,
+            attempt,
+            ex.getMessage());
+        schedule(
+            action,
+            descriptionRef,
+            task,
+            attempt + 1,
+            descriptionProperties.getCleanupRetryDelay().toMillis());
+      } else {
+        log.warn(
+            "Failed to {} widget description key={} after {} attempts",
+            action,
+            descriptionRef,
+            attempt,
+            ex);
+      }
+    }
+  }
+
+  private void confirm(String descriptionRef, String description) {
+    releaseTransaction.executeWithoutResult(
+        status -> {
+          descriptionRepository.lockShared(descriptionRef);
+          if (!exists(descriptionRef)) {
+            log.warn("Widget description removed before its row committed key={}", descriptionRef);
+            upload(descriptionRef, description.getBytes(StandardCharsets.UTF_8));
+          }
+        });
+  }
+
+  private boolean exists(String objectKey) {
+    S3Client client = requireClient();
+    HeadObjectRequest request =
+        HeadObjectRequest.builder().bucket(bucketName()).key(objectKey).build();
+    try {
+      s3Guard.run(() -> client.headObject(request));
+      return true;
+    } catch (NoSuchKeyException ex) {
+      return false;
+    }
+  }
+
+  private void upload(String objectKey, byte[] bytes) {
+    S3Client client = requireClient();
+    PutObjectRequest request =
+        PutObjectRequest.builder()
+            .bucket(bucketName())
+            .key(objectKey)
+            .contentType("text/plain; charset=utf-8")
+            .build();
+    try {
+      s3Guard.run(() -> client.putObject(request, RequestBody.fromBytes(bytes)));
+    } catch (AwsDependencyUnavailableException ex) {
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Widget description storage unavailable", ex);
+    }
+    log.info("Widget description offloaded to S3 key={} bytes={}", objectKey, bytes.length);
+  }
+
+  private void release(String descriptionRef) {
+    releaseTransaction.executeWithoutResult(
+        status -> {
+          descriptionRepository.lockExclusive(descriptionRef);
+          if (descriptionRepository.countReferences(descriptionRef) > 0) {
+            return;
+          }
+          S3Client client = requireClient();
+          DeleteObjectRequest request =
+              DeleteObjectRequest.builder().bucket(bucketName()).key(descriptionRef).build();
+          s3Guard.run(() -> client.deleteObject(request));
+          log.info("Widget description removed from S3 key={}", descriptionRef);
+        });
+  }
+
+  private String objectKey(String sha256) {
+    String prefix = descriptionProperties.getPrefix();
+    String normalisedPrefix = StringUtils.hasText(prefix) ? prefix : "";
+    if (!normalisedPrefix.isEmpty() && !normalisedPrefix.endsWith("/")) {
+      normalisedPrefix = normalisedPrefix + "/";
+    }
+    return normalisedPrefix + sha256 + ".txt";
+  }
+
+  private String bucketName() {
+    String bucketName = awsProperties.getS3().getBucketName();
+    if (!StringUtils.hasText(bucketName)) {
+      throw new IllegalStateException(
+          "Description offload enabled but aws.s3.bucket-name is not configured");
+    }
+    return bucketName;
+  }
+
+  private S3Client requireClient() {
+    S3Client client = s3Client.getIfAvailable();
+    if (client == null) {
+      throw new IllegalStateException("Description offload enabled but S3 client is not available");
+    }
+    return client;
+  }
+
+  static String sha256(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 not available", ex);
+    }
+  }
+
+  public record PreparedDescription(String text, String objectKey, String sha256, Long size) {}
+}
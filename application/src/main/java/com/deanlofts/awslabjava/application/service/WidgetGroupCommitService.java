@@ -0,0 +1,256 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.GroupCommitProperties;
+import com.deanlofts.awslabjava.application.config.IdProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.observability.WidgetOperationEvent;
+import com.deanlofts.awslabjava.application.repository.WidgetBatchInserter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+@Service
+public class WidgetGroupCommitService {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetGroupCommitService.class);
+
+  private final GroupCommitProperties properties;
+  private final IdProperties idProperties;
+  private final WidgetService widgetService;
+  private final WidgetBatchInserter batchInserter;
+  private final WidgetDescriptionStore descriptionStore;
+  private final S3MetadataService s3MetadataService;
+  private final WidgetStatsService widgetStatsService;
+  private final WidgetWriteEpoch writeEpoch;
+  private final BlockingQueue<PendingCreate> queue;
+  private final DistributionSummary batchSize;
+  private final Counter rejectedCounter;
+  private final Thread flusher;
+  private volatile boolean running;
+
+  public WidgetGroupCommitService(
+      GroupCommitProperties properties,
+      IdProperties idProperties,
+      WidgetService widgetService,
+      WidgetBatchInserter batchInserter,
+      WidgetDescriptionStore descriptionStore,
+      S3MetadataService s3MetadataService,
+      WidgetStatsService widgetStatsService,
+      WidgetWriteEpoch writeEpoch,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.idProperties = idProperties;
+    this.widgetService = widgetService;
+    this.batchInserter = batchInserter;
+    this.descriptionStore = descriptionStore;
+    this.s3MetadataService = s3MetadataService;
+    this.widgetStatsService = widgetStatsService;
+    this.writeEpoch = writeEpoch;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+    this.batchSize =
+        DistributionSummary.builder("widgets.create.batch.size")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.rejectedCounter = meterRegistry.counter("widgets.create.rejected");
+    meterRegistry.gaugeCollectionSize("widgets.create.queue.pending", Tags.empty(), queue);
+    if (properties.isEnabled()) {
+      this.running = true;
+      this.flusher = new Thread(this::runFlusher, "widget-group-commit");
+      this.flusher.setDaemon(true);
+      this.flusher.start();
+      log.info(
+          "Widget group commit enabled maxBatchSize={} maxDelay={}",
+          properties.getMaxBatchSize(),
+          properties.getMaxDelay());
+    } else {
+      this.flusher = null;
+    }
+  }
+
+  public WidgetDto create(WidgetRequest request) {
+    if (!properties.isEnabled()) {
+      return widgetService.create(request);
+    }
+    WidgetOperationEvent event = WidgetOperationEvent.begin("create");
+    try {
+      Instant now = Instant.now();
+      WidgetEntity entity =
+          WidgetEntity.builder()
+              .id(idProperties.getUuidVersion().newId())
+              .name(request.name())
+              .createdAt(now)
+              .updatedAt(now)
+              .build();
+      descriptionStore.assign(entity, request.description());
+      entity.setContentSha256(WidgetService.contentSha256(entity));
+      PendingCreate pending =
+          new PendingCreate(entity, new AtomicBoolean(), new CompletableFuture<>());
+      WidgetDto saved;
+      try {
+        if (!running || !queue.offer(pending)) {
+          rejectedCounter.increment();
+          throw new ResponseStatusException(
+              HttpStatus.SERVICE_UNAVAILABLE, "Widget create queue is full");
+        }
+        saved = await(pending);
+      } catch (RuntimeException ex) {
+        descriptionStore.releaseAfterCommit(entity.getDescriptionRef());
+        throw ex;
+      }
+      descriptionStore.confirmStored(entity.getDescriptionRef(), request.description());
+      s3MetadataService.writeWidgetMetadata(saved);
+      event.succeeded(saved.id());
+      return saved;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    if (flusher == null) {
+      return;
+    }
+    running = false;
+    flusher.interrupt();
+    flusher.join(properties.getAwaitTimeout().toMillis());
+  }
+
+  private WidgetDto await(PendingCreate pending) {
+    try {
+      return pending
+          .result()
+          .get(
+              properties.getMaxDelay().plus(properties.getAwaitTimeout()).toNanos(),
+              TimeUnit.NANOSECONDS);
+    } catch (ExecutionException ex) {
+      throw failure(ex.getCause());
+    } catch (TimeoutException ex) {
+      if (pending.claimed().compareAndSet(false, true)) {
+        throw new ResponseStatusException(
+            HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for widget group commit");
+      }
+      return awaitClaimed(pending);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      if (pending.claimed().compareAndSet(false, true)) {
+        throw new ResponseStatusException(
+            HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for widget group commit");
+      }
+      return awaitClaimed(pending);
+    }
+  }
+
+  private static WidgetDto awaitClaimed(PendingCreate pending) {
+    try {
+      return pending.result().join();
+    } catch (CompletionException ex) {
+      throw failure(ex.getCause());
+    }
+  }
+
+  private static RuntimeException failure(Throwable cause) {
+    if (cause instanceof RuntimeException runtime) {
+      return runtime;
+    }
+    return new IllegalStateException("Widget group commit failed", cause);
+  }
+
+  private void runFlusher() {
+    int maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+    long maxDelayNanos = properties.getMaxDelay().toNanos();
+    List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+    while (running) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          PendingCreate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+          queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      flush(batch);
+      batch.clear();
+    }
+    queue.drainTo(batch);
+    while (!batch.isEmpty()) {
+      List<PendingCreate> chunk = batch.subList(0, Math.min(maxBatchSize, batch.size()));
+      flush(new ArrayList<>(chunk));
+      chunk.clear();
+    }
+  }
+
+  private void flush(List<PendingCreate> batch) {
+    List<PendingCreate> live =
+        batch.stream().filter(pending -> pending.claimed().compareAndSet(false, true)).toList();
+    if (!live.isEmpty()) {
+      insert(live);
+    }
+  }
+
+  private void insert(List<PendingCreate> live) {
+    try {
+      batchInserter.insertAll(live.stream().map(PendingCreate::entity).toList());
+    } catch (RuntimeException ex) {
+      if (live.size() == 1) {
+        live.get(0).result().completeExceptionally(ex);
+        return;
+      }
+      log.warn("Group commit of {} widgets failed; retrying individually", live.size(), ex);
+      live.forEach(pending -> insert(List.of(pending)));
+      return;
+    }
+    batchSize.record(live.size());
+    writeEpoch.advanceAfterCommit();
+    for (PendingCreate pending : live) {
+      widgetStatsService.recordCreated();
+      pending.result().complete(toDto(pending.entity()));
+    }
+  }
+
+  private static WidgetDto toDto(WidgetEntity entity) {
+    return new WidgetDto(
+        entity.getId(),
+        entity.getName(),
+        entity.getDescription(),
+        entity.getCreatedAt(),
+        entity.getUpdatedAt(),
+        entity.getDescriptionRef() != null ? Boolean.TRUE : null);
+  }
+
+  private record PendingCreate(
+      WidgetEntity entity, AtomicBoolean claimed, CompletableFuture<WidgetDto> result) {}
+}
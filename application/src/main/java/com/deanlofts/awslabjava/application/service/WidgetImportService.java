@@ -0,0 +1,418 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.config.ImportProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetImportFormat;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.dto.WidgetImportStatus;
+import com.deanlofts.awslabjava.application.repository.WidgetBulkLoader;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+@Service
+public class WidgetImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetImportService.class);
+
+  private static final String S3_SCHEME = "s3://";
+
+  private final ImportProperties importProperties;
+  private final AwsProperties awsProperties;
+  private final WidgetBulkLoader bulkLoader;
+  private final S3MetadataService s3MetadataService;
+  private final WidgetStatsService widgetStatsService;
+  private final WidgetWriteEpoch writeEpoch;
+  private final WidgetArchiveService widgetArchive;
+  private final WidgetDescriptionStore descriptionStore;
+  private final ObjectProvider<S3Client> s3Client;
+  private final AwsCallGuards awsCallGuards;
+  private final ObjectReader ndjsonReader;
+  private final ObjectReader csvReader;
+  private final ExecutorService executor;
+  private final Map<UUID, ImportJob> jobs = new LinkedHashMap<>();
+  private final Counter rowsCounter;
+  private final Counter rejectedCounter;
+  private final MeterRegistry meterRegistry;
+
+  public WidgetImportService(
+      ImportProperties importProperties,
+      AwsProperties awsProperties,
+      WidgetBulkLoader bulkLoader,
+      S3MetadataService s3MetadataService,
+      WidgetStatsService widgetStatsService,
+      WidgetWriteEpoch writeEpoch,
+      WidgetArchiveService widgetArchive,
+      WidgetDescriptionStore descriptionStore,
+      ObjectProvider<S3Client> s3Client,
+      AwsCallGuards awsCallGuards,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.importProperties = importProperties;
+    this.awsProperties = awsProperties;
+    this.bulkLoader = bulkLoader;
+    this.s3MetadataService = s3MetadataService;
+    this.widgetStatsService = widgetStatsService;
+    this.writeEpoch = writeEpoch;
+    this.widgetArchive = widgetArchive;
+    this.descriptionStore = descriptionStore;
+    this.s3Client = s3Client;
+    this.awsCallGuards = awsCallGuards;
+    this.meterRegistry = meterRegistry;
+    this.ndjsonReader =
+        objectMapper
+            .readerFor(WidgetImportRecord.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    CsvMapper csvMapper = new CsvMapper();
+    csvMapper.registerModule(new JavaTimeModule());
+    this.csvReader =
+        csvMapper
+            .readerFor(WidgetImportRecord.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "widget-import");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.rowsCounter = meterRegistry.counter("widgets.import.rows", "outcome", "accepted");
+    this.rejectedCounter = meterRegistry.counter("widgets.import.rows", "outcome", "rejected");
+  }
+
+  public WidgetImportStatus importStream(
+      InputStream inputStream, WidgetImportFormat format, String source) {
+    ImportJob job = register(source, format);
+    run(job, () -> inputStream);
+    return job.status();
+  }
+
+  public WidgetImportStatus start(String source, String format) {
+    if (!StringUtils.hasText(source)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import source is required");
+    }
+    WidgetImportFormat resolvedFormat = WidgetImportFormat.resolve(format, source);
+    ImportJob job = register(source, resolvedFormat);
+    SourceOpener opener =
+        source.startsWith(S3_SCHEME) ? s3Opener(source) : fileOpener(resolveLocalFile(source));
+    executor.execute(() -> run(job, opener));
+    return job.status();
+  }
+
+  public Optional<WidgetImportStatus> find(UUID jobId) {
+    synchronized (jobs) {
+      return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::status);
+    }
+  }
+
+  public List<WidgetImportStatus> list() {
+    synchronized (jobs) {
+      List<WidgetImportStatus> statuses = new ArrayList<>(jobs.size());
+      jobs.values().forEach(job -> statuses.add(job.status()));
+      return statuses;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run(ImportJob job, SourceOpener opener) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "completed";
+    job.startedAt = Instant.now();
+    try (InputStream inputStream = opener.open()) {
+      job.phase = Phase.STAGING;
+      log.info("Widget import {} started source={} format={}", job.id, job.source, job.format);
+      WidgetBulkLoader.LoadResult result =
+          bulkLoader.load(
+              job.id,
+              records(inputStream, job.format),
+              importProperties.getCopyBufferSize(),
+              Math.max(1, importProperties.getProgressInterval()),
+              rows -> {
+                job.rowsRead.set(rows);
+                log.info(
+                    "Widget import {} staged rows={} rowsPerSecond={}",
+                    job.id,
+                    rows,
+                    Math.round(job.rowsPerSecond()));
+              },
+              () -> job.phase = Phase.MERGING);
+      job.rowsRejected.set(result.rejected());
+      job.rowsMerged.set(result.merged());
+      widgetStatsService.recordImported(result.inserted(), result.updated());
+      writeEpoch.advanceAfterCommit();
+      widgetArchive.releaseAll(result.discardedArchiveKeys());
+      result.replacedDescriptionRefs().forEach(descriptionStore::releaseAfterCommit);
+      rowsCounter.increment(result.accepted());
+      rejectedCounter.increment(result.rejected());
+      if (s3MetadataService.isEnabled()) {
+        job.phase = Phase.METADATA;
+        bulkLoader.forEachImported(
+            job.id,
+            Math.max(1, importProperties.getMetadataPageSize()),
+            widget -> {
+              s3MetadataService.writeWidgetMetadata(widget);
+              job.metadataWritten.incrementAndGet();
+            });
+      }
+      job.phase = Phase.COMPLETED;
+      log.info(
+          "Widget import {} completed rowsRead={} rejected={} merged={} rowsPerSecond={}",
+          job.id,
+          job.rowsRead.get(),
+          job.rowsRejected.get(),
+          job.rowsMerged.get(),
+          Math.round(job.rowsPerSecond()));
+    } catch (IOException | RuntimeException ex) {
+      outcome = "failed";
+      job.phase = Phase.FAILED;
+      job.error = ex.getMessage();
+      log.warn("Widget import {} failed source={}", job.id, job.source, ex);
+    } finally {
+      job.finishedAt = Instant.now();
+      sample.stop(meterRegistry.timer("widgets.import.duration", "outcome", outcome));
+      try {
+        bulkLoader.clearStaging(job.id);
+      } catch (RuntimeException ex) {
+        log.warn("Failed to clear staging rows for widget import {}", job.id, ex);
+      }
+    }
+  }
+
+  private Iterator<WidgetImportRecord> records(InputStream inputStream, WidgetImportFormat format)
+      throws IOException {
+    if (format == WidgetImportFormat.CSV) {
+      return new CsvRecords(csvReader.readValues(inputStream));
+    }
+    return new NdjsonRecords(
+        new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+        ndjsonReader);
+  }
+
+  private ImportJob register(String source, WidgetImportFormat format) {
+    ImportJob job = new ImportJob(UUID.randomUUID(), source, format);
+    synchronized (jobs) {
+      jobs.put(job.id, job);
+      Iterator<ImportJob> iterator = jobs.values().iterator();
+      while (jobs.size() > Math.max(1, importProperties.getRetainedJobs()) && iterator.hasNext()) {
+        ImportJob candidate = iterator.next();
+        if (candidate.finishedAt != null) {
+          iterator.remove();
+        }
+      }
+    }
+    return job;
+  }
+
+  private Path resolveLocalFile(String source) {
+    String directory = importProperties.getLocalDirectory();
+    if (!StringUtils.hasText(directory)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "File imports require app.import.local-directory to be configured");
+    }
+    Path root = Path.of(directory).toAbsolutePath().normalize();
+    Path file = root.resolve(source).normalize();
+    if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+      throw new ResponseStatusException(
+          HttpStatus.NOT_FOUND, "Import file %s not found".formatted(source));
+    }
+    return file;
+  }
+
+  private SourceOpener fileOpener(Path file) {
+    return () -> Files.newInputStream(file);
+  }
+
+  private SourceOpener s3Opener(String source) {
+    String location = source.substring(S3_SCHEME.length());
+    int slash = location.indexOf('/');
+    String bucket =
+        slash > 0 ? location.substring(0, slash) : awsProperties.getS3().getBucketName();
+    String key = slash >= 0 ? location.substring(slash + 1) : location;
+    if (!StringUtils.hasText(bucket) || !StringUtils.hasText(key)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Import source %s is not an S3 object".formatted(source));
+    }
+    GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(key).build();
+    return () -> {
+      S3Client client = s3Client.getIfAvailable();
+      if (client == null) {
+        throw new IllegalStateException("S3 import requested but S3 client is not available");
+      }
+      return awsCallGuards.s3().call(() -> client.getObject(request));
+    };
+  }
+
+  private static final class NdjsonRecords implements Iterator<WidgetImportRecord> {
+    private final BufferedReader reader;
+    private final ObjectReader recordReader;
+    private String nextLine;
+
+    private NdjsonRecords(BufferedReader reader, ObjectReader recordReader) {
+      this.reader = reader;
+      this.recordReader = recordReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (nextLine == null) {
+          String line = reader.readLine();
+          if (line == null) {
+            return false;
+          }
+          if (!line.isBlank()) {
+            nextLine = line;
+          }
+        }
+        return true;
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+
+    @Override
+    public WidgetImportRecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      String line = nextLine;
+      nextLine = null;
+      try {
+        return recordReader.readValue(line);
+      } catch (JsonProcessingException ex) {
+        log.debug("Rejected malformed NDJSON import line: {}", ex.getOriginalMessage());
+        return null;
+      }
+    }
+  }
+
+  private static final class CsvRecords implements Iterator<WidgetImportRecord> {
+    private final MappingIterator<WidgetImportRecord> iterator;
+
+    private CsvRecords(MappingIterator<WidgetImportRecord> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public WidgetImportRecord next() {
+      try {
+        return iterator.next();
+      } catch (RuntimeJsonMappingException ex) {
+        log.debug("Rejected malformed CSV import row: {}", ex.getMessage());
+        return null;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface SourceOpener {
+    InputStream open() throws IOException;
+  }
+
+  private enum Phase {
+    QUEUED,
+    STAGING,
+    MERGING,
+    METADATA,
+    COMPLETED,
+    FAILED
+  }
+
+  private static final class ImportJob {
+    private final UUID id;
+    private final String source;
+    private final WidgetImportFormat format;
+    private volatile Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsMerged = new AtomicLong();
+    private final AtomicLong metadataWritten = new AtomicLong();
+    private volatile Phase phase = Phase.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private ImportJob(UUID id, String source, WidgetImportFormat format) {
+      this.id = id;
+      this.source = source;
+      this.format = format;
+    }
+
+    private double rowsPerSecond() {
+      Instant end = finishedAt != null ? finishedAt : Instant.now();
+      long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+      return rowsRead.get() * 1000.0 / millis;
+    }
+
+    private WidgetImportStatus status() {
+      return new WidgetImportStatus(
+          id,
+          source,
+          format.name(),
+          phase.name(),
+          rowsRead.get(),
+          rowsRejected.get(),
+          rowsMerged.get(),
+          metadataWritten.get(),
+          rowsPerSecond(),
+          startedAt,
+          finishedAt,
+          error);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import com.deanlofts.awslabjava.application.config.ListCacheProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.dto.WidgetJsonWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class WidgetListCache {
+
+  private final WidgetService widgetService;
+  private final WidgetWriteEpoch writeEpoch;
+  private final ObjectMapper objectMapper;
+  private final ListCacheProperties properties;
+  private final Map<Set<WidgetField>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private long cachedBytes;
+
+  public WidgetListCache(
+      WidgetService widgetService,
+      WidgetWriteEpoch writeEpoch,
+      ObjectMapper objectMapper,
+      ListCacheProperties properties,
+      MeterRegistry meterRegistry) {
+    this.widgetService = widgetService;
+    this.writeEpoch = writeEpoch;
+    this.objectMapper = objectMapper;
+    this.properties = properties;
+    this.hitCounter = meterRegistry.counter("widgets.list.cache", "result", "hit");
+    this.missCounter = meterRegistry.counter("widgets.list.cache", "result", "miss");
+    Gauge.builder("widgets.list.cache.size", this, WidgetListCache::cachedBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  public CachedList list(Set<WidgetField> fields) {
+    if (!properties.isEnabled()) {
+      return render(widgetService.findAll(fields));
+    }
+    WidgetWriteEpoch.Epoch epoch = writeEpoch.current();
+    Entry cached = get(fields);
+    if (cached != null && cached.epoch().equals(epoch)) {
+      hitCounter.increment();
+      return cached.body();
+    }
+    missCounter.increment();
+    CachedList body = render(widgetService.findAll(fields));
+    put(fields, new Entry(epoch, body));
+    return body;
+  }
+
+  public CachedList render(List<WidgetDto> widgets) {
+    try {
+      byte[] json =
+          properties.isStreamingSerializer()
+              ? WidgetJsonWriter.toJson(widgets)
+              : objectMapper.writeValueAsBytes(widgets);
+      boolean compress =
+          properties.isEnabled()
+              && properties.isGzip()
+              && json.length >= properties.getGzipMinSize().toBytes();
+      return new CachedList(json, compress ? gzip(json) : null);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Failed to serialise widget list", ex);
+    }
+  }
+
+  private synchronized Entry get(Set<WidgetField> fields) {
+    return entries.get(fields);
+  }
+
+  private synchronized void put(Set<WidgetField> fields, Entry entry) {
+    long maxBytes = properties.getMaxSize().toBytes();
+    if (entry.body().size() > maxBytes) {
+      return;
+    }
+    Entry current = entries.get(fields);
+    if (current != null && current.epoch().isAfter(entry.epoch())) {
+      return;
+    }
+    Entry previous = entries.put(fields, entry);
+    if (previous != null) {
+      cachedBytes -= previous.body().size();
+    }
+    cachedBytes += entry.body().size();
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (cachedBytes > maxBytes && eldest.hasNext()) {
+      cachedBytes -= eldest.next().body().size();
+      eldest.remove();
+    }
+  }
+
+  private synchronized long cachedBytes() {
+    return cachedBytes;
+  }
+
+  private static byte[] gzip(byte[] json) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+      gzip.write(json);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return buffer.toByteArray();
+  }
+
+  public record CachedList(byte[] json, byte[] gzip) {
+    long size() {
+      return json.length + (gzip != null ? gzip.length : 0);
+    }
+  }
+
+  private record Entry(WidgetWriteEpoch.Epoch epoch, CachedList body) {}
+}
@@ -1,18 +1,56 @@
 package com.deanlofts.awslabjava.application.service;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+import org.hibernate.Hibernate;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.deanlofts.awslabjava.application.config.ReadCoalescingProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.domain.WidgetPatch;
 import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetBatchGetResult;
+import com.deanlofts.awslabjava.application.dto.WidgetDescriptionContent;
 import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
 import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.observability.WidgetOperationEvent;
+import com.deanlofts.awslabjava.application.repository.WidgetDescriptionView;
+import com.deanlofts.awslabjava.application.repository.WidgetDetailView;
 import com.deanlofts.awslabjava.application.repository.WidgetRepository;
+import com.deanlofts.awslabjava.application.repository.WidgetSummaryView;
+import com.deanlofts.awslabjava.application.service.WidgetDescriptionStore.PreparedDescription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 
 @Service
 @Transactional
@@ -20,58 +58,418 @@ public class WidgetService {
 
   private final WidgetRepository widgetRepository;
   private final S3MetadataService s3MetadataService;
+  private final WidgetStatsService widgetStatsService;
+  private final WidgetDescriptionStore descriptionStore;
+  private final WidgetWriteEpoch writeEpoch;
+  private final WidgetArchiveService widgetArchive;
+  private final ReadCoalescingProperties readCoalescingProperties;
+  private final TransactionTemplate writeTransaction;
+  private final ConcurrentMap<ReadKey, InFlightRead> inFlightReads = new ConcurrentHashMap<>();
+  private final Counter coalescedCounter;
+  private final Counter coalescedTimeoutCounter;
+  private final Counter unchangedCounter;
+  private final Counter batchGetFoundCounter;
+  private final Counter batchGetMissingCounter;
 
-  public WidgetService(WidgetRepository widgetRepository, S3MetadataService s3MetadataService) {
+  public WidgetService(
+      WidgetRepository widgetRepository,
+      S3MetadataService s3MetadataService,
+      WidgetStatsService widgetStatsService,
+      WidgetDescriptionStore descriptionStore,
+      WidgetWriteEpoch writeEpoch,
+      WidgetArchiveService widgetArchive,
+      ReadCoalescingProperties readCoalescingProperties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
     this.widgetRepository = widgetRepository;
     this.s3MetadataService = s3MetadataService;
+    this.widgetStatsService = widgetStatsService;
+    this.descriptionStore = descriptionStore;
+    this.writeEpoch = writeEpoch;
+    this.widgetArchive = widgetArchive;
+    this.readCoalescingProperties = readCoalescingProperties;
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.coalescedCounter = meterRegistry.counter("widgets.get.coalesced");
+    this.coalescedTimeoutCounter = meterRegistry.counter("widgets.get.coalesced.timeouts");
+    this.unchangedCounter = meterRegistry.counter("widgets.update.unchanged");
+    this.batchGetFoundCounter = meterRegistry.counter("widgets.batch.ids", "result", "found");
+    this.batchGetMissingCounter = meterRegistry.counter("widgets.batch.ids", "result", "missing");
+    meterRegistry.gaugeMapSize("widgets.get.inflight", Tags.empty(), inFlightReads);
   }
 
   @Transactional(readOnly = true)
   public List<WidgetDto> findAll() {
-    return widgetRepository.findAll().stream().map(this::toDto).toList();
+    return findAll(WidgetField.ALL);
   }
 
   @Transactional(readOnly = true)
+  public List<WidgetDto> findAll(Set<WidgetField> fields) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("list");
+    try {
+      List<WidgetDto> widgets =
+          fields.contains(WidgetField.DESCRIPTION)
+              ? widgetRepository.findAllDetailsBy().stream()
+                  .map(view -> toDto(view, fields))
+                  .toList()
+              : widgetRepository.findAllSummariesBy().stream()
+                  .map(view -> toDto(view, fields))
+                  .toList();
+      event.succeeded(null);
+      return widgets;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public WidgetDto findById(UUID id) {
-    return widgetRepository
-        .findById(id)
-        .map(this::toDto)
-        .orElseThrow(
-            () ->
-                new ResponseStatusException(
-                    HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id)));
+    return findById(id, WidgetField.ALL);
   }
 
-  public WidgetDto create(WidgetRequest request) {
-    WidgetEntity entity =
-        WidgetEntity.builder().name(request.name()).description(request.description()).build();
-    WidgetDto saved = toDto(widgetRepository.save(entity));
-    s3MetadataService.writeWidgetMetadata(saved);
-    return saved;
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public WidgetDto findById(UUID id, Set<WidgetField> fields) {
+    if (!readCoalescingProperties.isEnabled()) {
+      return load(id, fields);
+    }
+    ReadKey key = new ReadKey(id, fields);
+    InFlightRead read = new InFlightRead(new CompletableFuture<>(), System.nanoTime());
+    while (true) {
+      InFlightRead existing = inFlightReads.putIfAbsent(key, read);
+      if (existing == null) {
+        return lead(key, read);
+      }
+      long remainingNanos =
+          readCoalescingProperties.getMaxWait().toNanos()
+              - (read.startedAt() - existing.startedAt());
+      if (remainingNanos > 0) {
+        coalescedCounter.increment();
+        return await(id, existing, remainingNanos);
+      }
+      if (inFlightReads.replace(key, existing, read)) {
+        return lead(key, read);
+      }
+    }
   }
 
-  public WidgetDto update(UUID id, WidgetRequest request) {
-    WidgetEntity entity =
+  @Transactional(readOnly = true)
+  public List<WidgetBatchGetResult> findByIds(List<UUID> ids, Set<WidgetField> fields) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("batchGet");
+    try {
+      UUID[] distinct = new LinkedHashSet<>(ids).toArray(UUID[]::new);
+      Map<UUID, WidgetDto> found = new HashMap<>(distinct.length * 2);
+      if (fields.contains(WidgetField.DESCRIPTION)) {
         widgetRepository
-            .findById(id)
+            .findDetailsByIds(distinct)
+            .forEach(view -> found.put(view.getId(), toDto(view, fields)));
+      } else {
+        widgetRepository
+            .findSummariesByIds(distinct)
+            .forEach(view -> found.put(view.getId(), toDto(view, fields)));
+      }
+      if (found.size() < distinct.length) {
+        List<UUID> missing = Arrays.stream(distinct).filter(id -> !found.containsKey(id)).toList();
+        widgetArchive
+            .findAll(missing)
+            .forEach((id, record) -> found.put(id, toDto(record, fields)));
+      }
+      List<WidgetBatchGetResult> results = new ArrayList<>(ids.size());
+      for (UUID id : ids) {
+        WidgetDto widget = found.get(id);
+        results.add(
+            widget != null
+                ? WidgetBatchGetResult.found(id, widget)
+                : WidgetBatchGetResult.notFound(id));
+      }
+      batchGetFoundCounter.increment(found.size());
+      batchGetMissingCounter.increment(distinct.length - found.size());
+      event.succeeded(null);
+      return results;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public WidgetStatsDto stats(int hours) {
+    return widgetStatsService.stats(hours);
+  }
+
+  @Transactional(readOnly = true)
+  public WidgetDescriptionContent openDescription(UUID id) {
+    WidgetDescriptionView view =
+        widgetRepository
+            .findDescriptionById(id)
             .orElseThrow(
                 () ->
                     new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id)));
-    entity.setName(request.name());
-    entity.setDescription(request.description());
-    WidgetDto updated = toDto(widgetRepository.save(entity));
-    s3MetadataService.writeWidgetMetadata(updated);
-    return updated;
+    if (view.getDescriptionRef() == null) {
+      byte[] bytes = view.getDescription().getBytes(StandardCharsets.UTF_8);
+      return new WidgetDescriptionContent(new ByteArrayInputStream(bytes), bytes.length, null);
+    }
+    return new WidgetDescriptionContent(
+        descriptionStore.open(view.getDescriptionRef()),
+        view.getDescriptionSize(),
+        view.getDescriptionSha256());
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public WidgetDto create(WidgetRequest request) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("create");
+    try {
+      PreparedDescription description = descriptionStore.prepare(request.description());
+      WidgetDto saved =
+          write(
+              description,
+              () -> {
+                WidgetEntity entity = WidgetEntity.builder().name(request.name()).build();
+                descriptionStore.assign(entity, description);
+                entity.setContentSha256(contentSha256(entity));
+                WidgetDto created = toDto(widgetRepository.save(entity));
+                s3MetadataService.writeWidgetMetadata(created);
+                widgetStatsService.recordCreated();
+                writeEpoch.advanceAfterCommit();
+                return created;
+              });
+      event.succeeded(saved.id());
+      return saved;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public WidgetDto update(UUID id, WidgetRequest request) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("update");
+    try {
+      PreparedDescription description = descriptionStore.prepare(request.description());
+      WidgetDto updated = write(description, () -> update(id, request, description));
+      event.succeeded(id);
+      return updated;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public WidgetDto patch(UUID id, WidgetPatch patch) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("patch");
+    try {
+      PreparedDescription description =
+          patch.description() != null ? descriptionStore.prepare(patch.description()) : null;
+      WidgetDto patched = write(description, () -> patch(id, patch, description));
+      event.succeeded(id);
+      return patched;
+    } finally {
+      event.finish();
+    }
   }
 
   public void delete(UUID id) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("delete");
     try {
-      widgetRepository.deleteById(id);
+      Optional<WidgetEntity> existing = widgetRepository.findById(id);
+      existing.ifPresent(
+          entity -> {
+            widgetRepository.delete(entity);
+            descriptionStore.releaseAfterCommit(entity.getDescriptionRef());
+            forgetInFlightReadsAfterCommit(id);
+            writeEpoch.advanceAfterCommit();
+          });
+      boolean archived = widgetArchive.discard(id);
       s3MetadataService.deleteWidgetMetadata(id.toString());
+      if (existing.isPresent() || archived) {
+        widgetStatsService.recordDeleted();
+      }
+      event.succeeded(id);
     } catch (EmptyResultDataAccessException ex) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id));
+    } finally {
+      event.finish();
+    }
+  }
+
+  private WidgetDto write(PreparedDescription description, Supplier<WidgetDto> write) {
+    try {
+      return writeTransaction.execute(status -> write.get());
+    } catch (RuntimeException | Error ex) {
+      descriptionStore.discard(description);
+      throw ex;
+    }
+  }
+
+  private WidgetDto update(UUID id, WidgetRequest request, PreparedDescription description) {
+    WidgetEntity entity = findForWrite(id);
+    String contentSha256 = contentSha256(request);
+    if (contentSha256.equals(entity.getContentSha256())) {
+      unchangedCounter.increment();
+      descriptionStore.discard(description);
+      return unchanged(entity, request);
+    }
+    entity.setName(request.name());
+    entity.setContentSha256(contentSha256);
+    descriptionStore.assign(entity, description);
+    WidgetDto updated = toDto(widgetRepository.save(entity));
+    forgetInFlightReadsAfterCommit(id);
+    s3MetadataService.writeWidgetMetadata(updated);
+    widgetStatsService.recordUpdated();
+    writeEpoch.advanceAfterCommit();
+    return updated;
+  }
+
+  private WidgetDto patch(UUID id, WidgetPatch patch, PreparedDescription description) {
+    WidgetEntity entity = findForWrite(id);
+    String name = patch.name() != null ? patch.name() : entity.getName();
+    boolean unchanged =
+        patch.description() != null
+            ? contentSha256(name, patch.description()).equals(entity.getContentSha256())
+            : name.equals(entity.getName());
+    if (unchanged) {
+      unchangedCounter.increment();
+      descriptionStore.discard(description);
+      return patched(entity, patch);
     }
+    entity.setName(name);
+    if (description != null) {
+      descriptionStore.assign(entity, description);
+    }
+    entity.setContentSha256(contentSha256(entity));
+    WidgetEntity saved = widgetRepository.save(entity);
+    WidgetDto patched = s3MetadataService.isEnabled() ? toDto(saved) : patched(saved, patch);
+    forgetInFlightReadsAfterCommit(id);
+    s3MetadataService.writeWidgetMetadata(patched);
+    widgetStatsService.recordUpdated();
+    writeEpoch.advanceAfterCommit();
+    return patched;
+  }
+
+  private WidgetDto lead(ReadKey key, InFlightRead read) {
+    try {
+      WidgetDto found = load(key.id(), key.fields());
+      read.result().complete(found);
+      return found;
+    } catch (RuntimeException | Error ex) {
+      read.result().completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlightReads.remove(key, read);
+    }
+  }
+
+  private WidgetDto await(UUID id, InFlightRead read, long timeoutNanos) {
+    try {
+      return read.result().get(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (ex.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException("Widget lookup failed", ex.getCause());
+    } catch (TimeoutException ex) {
+      coalescedTimeoutCounter.increment();
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for widget %s".formatted(id));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for widget %s".formatted(id));
+    }
+  }
+
+  private void forgetInFlightReadsAfterCommit(UUID id) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              inFlightReads.keySet().removeIf(key -> key.id().equals(id));
+            }
+          });
+    } else {
+      inFlightReads.keySet().removeIf(key -> key.id().equals(id));
+    }
+  }
+
+  private WidgetDto load(UUID id, Set<WidgetField> fields) {
+    WidgetOperationEvent event = WidgetOperationEvent.begin("get");
+    try {
+      Optional<WidgetDto> widget =
+          fields.contains(WidgetField.DESCRIPTION)
+              ? widgetRepository.findDetailById(id).map(view -> toDto(view, fields))
+              : widgetRepository.findSummaryById(id).map(view -> toDto(view, fields));
+      WidgetDto found =
+          widget
+              .or(() -> widgetArchive.find(id).map(record -> toDto(record, fields)))
+              .orElseThrow(
+                  () ->
+                      new ResponseStatusException(
+                          HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id)));
+      event.succeeded(id);
+      return found;
+    } finally {
+      event.finish();
+    }
+  }
+
+  private WidgetEntity findForWrite(UUID id) {
+    Optional<WidgetEntity> entity = widgetRepository.findById(id);
+    if (entity.isEmpty() && widgetArchive.restore(id)) {
+      writeEpoch.advanceAfterCommit();
+      entity = widgetRepository.findById(id);
+    }
+    return entity.orElseThrow(
+        () ->
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Widget %s not found".formatted(id)));
+  }
+
+  private WidgetDto unchanged(WidgetEntity entity, WidgetRequest request) {
+    return new WidgetDto(
+        entity.getId(),
+        entity.getName(),
+        entity.getDescriptionRef() == null ? request.description() : null,
+        entity.getCreatedAt(),
+        entity.getUpdatedAt(),
+        offloaded(entity.getDescriptionRef()));
+  }
+
+  static String contentSha256(WidgetRequest request) {
+    return contentSha256(request.name(), request.description());
+  }
+
+  static String contentSha256(String name, String description) {
+    return contentDigest(
+        name, WidgetDescriptionStore.sha256(description.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  static String contentSha256(WidgetEntity entity) {
+    String descriptionSha256 = entity.getDescriptionSha256();
+    return descriptionSha256 != null ? contentDigest(entity.getName(), descriptionSha256) : null;
+  }
+
+  private static String contentDigest(String name, String descriptionSha256) {
+    return WidgetDescriptionStore.sha256(
+        (descriptionSha256 + name).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private WidgetDto patched(WidgetEntity entity, WidgetPatch patch) {
+    String description = null;
+    if (entity.getDescriptionRef() == null) {
+      description =
+          patch.description() != null
+              ? patch.description()
+              : Hibernate.isPropertyInitialized(entity, "description")
+                  ? entity.getDescription()
+                  : null;
+    }
+    return new WidgetDto(
+        entity.getId(),
+        entity.getName(),
+        description,
+        entity.getCreatedAt(),
+        entity.getUpdatedAt(),
+        offloaded(entity.getDescriptionRef()));
   }
 
   private WidgetDto toDto(WidgetEntity entity) {
@@ -80,6 +478,43 @@ public class WidgetService {
         entity.getName(),
         entity.getDescription(),
         entity.getCreatedAt(),
-        entity.getUpdatedAt());
+        entity.getUpdatedAt(),
+        offloaded(entity.getDescriptionRef()));
   }
+
+  private WidgetDto toDto(WidgetDetailView view, Set<WidgetField> fields) {
+    return new WidgetDto(
+        fields.contains(WidgetField.ID) ? view.getId() : null,
+        fields.contains(WidgetField.NAME) ? view.getName() : null,
+        fields.contains(WidgetField.DESCRIPTION) ? view.getDescription() : null,
+        fields.contains(WidgetField.CREATED_AT) ? view.getCreatedAt() : null,
+        fields.contains(WidgetField.UPDATED_AT) ? view.getUpdatedAt() : null,
+        offloaded(view.getDescriptionRef()));
+  }
+
+  private WidgetDto toDto(WidgetImportRecord record, Set<WidgetField> fields) {
+    return new WidgetDto(
+        fields.contains(WidgetField.ID) ? record.id() : null,
+        fields.contains(WidgetField.NAME) ? record.name() : null,
+        fields.contains(WidgetField.DESCRIPTION) ? record.description() : null,
+        fields.contains(WidgetField.CREATED_AT) ? record.createdAt() : null,
+        fields.contains(WidgetField.UPDATED_AT) ? record.updatedAt() : null);
+  }
+
+  private WidgetDto toDto(WidgetSummaryView view, Set<WidgetField> fields) {
+    return new WidgetDto(
+        fields.contains(WidgetField.ID) ? view.getId() : null,
+        fields.contains(WidgetField.NAME) ? view.getName() : null,
+        null,
+        fields.contains(WidgetField.CREATED_AT) ? view.getCreatedAt() : null,
+        fields.contains(WidgetField.UPDATED_AT) ? view.getUpdatedAt() : null);
+  }
+
+  private static Boolean offloaded(String descriptionRef) {
+    return descriptionRef != null ? Boolean.TRUE : null;
+  }
+
+  private record ReadKey(UUID id, Set<WidgetField> fields) {}
+
+  private record InFlightRead(CompletableFuture<WidgetDto> result, long startedAt) {}
 }
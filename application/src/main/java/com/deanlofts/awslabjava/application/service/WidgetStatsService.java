@@ -0,0 +1,218 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deanlofts.awslabjava.application.config.StatsProperties;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+import com.deanlofts.awslabjava.application.repository.WidgetStatsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class WidgetStatsService {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetStatsService.class);
+
+  private final StatsProperties statsProperties;
+  private final WidgetStatsRepository statsRepository;
+  private final Clock clock;
+  private final Map<Instant, PendingCounts> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flushExecutor;
+  private final Counter flushFailures;
+
+  @Autowired
+  public WidgetStatsService(
+      StatsProperties statsProperties,
+      WidgetStatsRepository statsRepository,
+      MeterRegistry meterRegistry) {
+    this(statsProperties, statsRepository, meterRegistry, Clock.systemUTC());
+  }
+
+  WidgetStatsService(
+      StatsProperties statsProperties,
+      WidgetStatsRepository statsRepository,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.statsProperties = statsProperties;
+    this.statsRepository = statsRepository;
+    this.clock = clock;
+    this.flushFailures = meterRegistry.counter("widgets.stats.flush.failures");
+    this.flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "widget-stats-flush");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalMillis = Math.max(100, statsProperties.getFlushInterval().toMillis());
+    flushExecutor.scheduleWithFixedDelay(
+        this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void recordCreated() {
+    afterCommit(() -> currentBucket().created.incrementAndGet());
+  }
+
+  public void recordUpdated() {
+    afterCommit(() -> currentBucket().updated.incrementAndGet());
+  }
+
+  public void recordDeleted() {
+    afterCommit(() -> currentBucket().deleted.incrementAndGet());
+  }
+
+  public void recordImported(long inserted, long updated) {
+    afterCommit(
+        () -> {
+          PendingCounts bucket = currentBucket();
+          bucket.created.addAndGet(inserted);
+          bucket.updated.addAndGet(updated);
+        });
+  }
+
+  public WidgetStatsDto stats(int hours) {
+    int window = Math.max(1, Math.min(hours, statsProperties.getMaxHours()));
+    Instant currentHour = hourOf(clock.instant());
+    Instant from = currentHour.minus(window - 1L, ChronoUnit.HOURS);
+
+    Map<Instant, long[]> buckets = new HashMap<>();
+    for (WidgetStatsDto.HourlyActivity activity : statsRepository.readHourly(from)) {
+      buckets.put(
+          activity.hour(), new long[] {activity.created(), activity.updated(), activity.deleted()});
+    }
+    long pendingCreated = 0;
+    long pendingUpdated = 0;
+    long pendingDeleted = 0;
+    for (Map.Entry<Instant, PendingCounts> entry : pending.entrySet()) {
+      PendingCounts counts = entry.getValue();
+      long created = counts.created.get();
+      long updated = counts.updated.get();
+      long deleted = counts.deleted.get();
+      pendingCreated += created;
+      pendingUpdated += updated;
+      pendingDeleted += deleted;
+      if (!entry.getKey().isBefore(from)) {
+        long[] bucket = buckets.computeIfAbsent(entry.getKey(), key -> new long[3]);
+        bucket[0] += created;
+        bucket[1] += updated;
+        bucket[2] += deleted;
+      }
+    }
+
+    List<WidgetStatsDto.HourlyActivity> hourly = new ArrayList<>(window);
+    for (int i = 0; i < window; i++) {
+      Instant hour = from.plus(i, ChronoUnit.HOURS);
+      long[] bucket = buckets.getOrDefault(hour, new long[3]);
+      hourly.add(new WidgetStatsDto.HourlyActivity(hour, bucket[0], bucket[1], bucket[2]));
+    }
+
+    WidgetStatsRepository.Totals totals = statsRepository.readTotals();
+    return new WidgetStatsDto(
+        totals.widgetCount() + pendingCreated - pendingDeleted,
+        totals.created() + pendingCreated,
+        totals.updated() + pendingUpdated,
+        totals.deleted() + pendingDeleted,
+        clock.instant(),
+        hourly);
+  }
+
+  public synchronized void flush() {
+    Map<Instant, WidgetStatsRepository.Counts> drained = new HashMap<>();
+    Instant currentHour = hourOf(clock.instant());
+    pending.forEach(
+        (hour, counts) -> {
+          WidgetStatsRepository.Counts snapshot = counts.drain();
+          if (snapshot.created() != 0 || snapshot.updated() != 0 || snapshot.deleted() != 0) {
+            drained.put(hour, snapshot);
+          }
+          if (hour.isBefore(currentHour.minus(1, ChronoUnit.HOURS))) {
+            pending.remove(hour, counts);
+          }
+        });
+    if (drained.isEmpty()) {
+      return;
+    }
+    try {
+      statsRepository.apply(drained, clock.instant().minus(statsProperties.getRetention()));
+    } catch (RuntimeException ex) {
+      drained.forEach(
+          (hour, counts) -> pending.computeIfAbsent(hour, key -> new PendingCounts()).add(counts));
+      throw ex;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flushExecutor.shutdownNow();
+    flushQuietly();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      flushFailures.increment();
+      log.warn("Failed to flush widget stats; deltas retained for the next attempt", ex);
+    }
+  }
+
+  private PendingCounts currentBucket() {
+    return pending.computeIfAbsent(hourOf(clock.instant()), key -> new PendingCounts());
+  }
+
+  private static Instant hourOf(Instant instant) {
+    return instant.truncatedTo(ChronoUnit.HOURS);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private static final class PendingCounts {
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+
+    private WidgetStatsRepository.Counts drain() {
+      return new WidgetStatsRepository.Counts(
+          created.getAndSet(0), updated.getAndSet(0), deleted.getAndSet(0));
+    }
+
+    private void add(WidgetStatsRepository.Counts counts) {
+      created.addAndGet(counts.created());
+      updated.addAndGet(counts.updated());
+      deleted.addAndGet(counts.deleted());
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.deanlofts.awslabjava.application.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deanlofts.awslabjava.application.config.ListCacheProperties;
+import com.deanlofts.awslabjava.application.repository.WidgetWriteEpochRepository;
+
+@Service
+public class WidgetWriteEpoch {
+
+  private static final Logger log = LoggerFactory.getLogger(WidgetWriteEpoch.class);
+
+  private final WidgetWriteEpochRepository repository;
+  private final long checkIntervalNanos;
+  private final AtomicLong shared = new AtomicLong(-1);
+  private final AtomicLong local = new AtomicLong();
+  private volatile long checkedAt;
+
+  public WidgetWriteEpoch(
+      WidgetWriteEpochRepository repository, ListCacheProperties listCacheProperties) {
+    this.repository = repository;
+    this.checkIntervalNanos = listCacheProperties.getEpochCheckInterval().toNanos();
+  }
+
+  public Epoch current() {
+    long now = System.nanoTime();
+    if (shared.get() < 0 || now - checkedAt >= checkIntervalNanos) {
+      shared.accumulateAndGet(repository.current(), Math::max);
+      checkedAt = now;
+    }
+    return new Epoch(shared.get(), local.get());
+  }
+
+  public void advanceAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              advance();
+            }
+          });
+    } else {
+      advance();
+    }
+  }
+
+  private void advance() {
+    local.incrementAndGet();
+    try {
+      shared.accumulateAndGet(repository.advance(), Math::max);
+    } catch (DataAccessException ex) {
+      log.warn("Failed to advance the shared widget write epoch", ex);
+    }
+  }
+
+  public record Epoch(long shared, long local) {
+    public boolean isAfter(Epoch other) {
+      return shared >= other.shared && local >= other.local && !equals(other);
+    }
+  }
+}
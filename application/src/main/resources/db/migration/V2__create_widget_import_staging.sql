@@ -0,0 +1,10 @@
+CREATE UNLOGGED TABLE IF NOT EXISTS widget_import_staging (
+    import_id UUID NOT NULL,
+    line_number BIGINT NOT NULL,
+    id UUID NOT NULL,
+    name TEXT NOT NULL,
+    description TEXT NOT NULL,
+    created_at TIMESTAMPTZ,
+    updated_at TIMESTAMPTZ
+);
+CREATE INDEX IF NOT EXISTS idx_widget_import_staging_import_id ON widget_import_staging(import_id, id);
@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS widget_stats (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    widget_count BIGINT NOT NULL,
+    created_count BIGINT NOT NULL,
+    updated_count BIGINT NOT NULL,
+    deleted_count BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS widget_stats_hourly (
+    bucket_start TIMESTAMPTZ PRIMARY KEY,
+    created_count BIGINT NOT NULL,
+    updated_count BIGINT NOT NULL,
+    deleted_count BIGINT NOT NULL
+);
+
+INSERT INTO widget_stats (id, widget_count, created_count, updated_count, deleted_count)
+SELECT 1, count(*), count(*), 0, 0 FROM widgets
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO widget_stats_hourly (bucket_start, created_count, updated_count, deleted_count)
+SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', count(*), 0, 0
+FROM widgets
+GROUP BY 1
+ON CONFLICT (bucket_start) DO NOTHING;
+
+INSERT INTO widget_stats_hourly (bucket_start, created_count, updated_count, deleted_count)
+SELECT date_trunc('hour', updated_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', 0, count(*), 0
+FROM widgets
+WHERE updated_at > created_at
+GROUP BY 1
+ON CONFLICT (bucket_start) DO UPDATE
+  SET updated_count = widget_stats_hourly.updated_count + EXCLUDED.updated_count;
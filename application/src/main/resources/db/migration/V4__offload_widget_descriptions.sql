@@ -0,0 +1,10 @@
+ALTER TABLE widgets ALTER COLUMN description DROP NOT NULL;
+ALTER TABLE widgets ADD COLUMN IF NOT EXISTS description_ref TEXT;
+ALTER TABLE widgets ADD COLUMN IF NOT EXISTS description_sha256 TEXT;
+ALTER TABLE widgets ADD COLUMN IF NOT EXISTS description_size BIGINT;
+ALTER TABLE widgets
+    ADD CONSTRAINT widgets_description_present
+    CHECK (description IS NOT NULL OR description_ref IS NOT NULL);
+CREATE INDEX IF NOT EXISTS idx_widgets_description_ref
+    ON widgets(description_ref)
+    WHERE description_ref IS NOT NULL;
@@ -0,0 +1 @@
+ALTER TABLE widgets ADD COLUMN IF NOT EXISTS content_sha256 TEXT;
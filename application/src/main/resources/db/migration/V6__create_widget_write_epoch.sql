@@ -0,0 +1 @@
+CREATE SEQUENCE IF NOT EXISTS widget_write_epoch;
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS widget_tombstones (
+    id UUID PRIMARY KEY,
+    archive_key TEXT NOT NULL,
+    archived_at TIMESTAMPTZ NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_widget_tombstones_archive_key ON widget_tombstones(archive_key);
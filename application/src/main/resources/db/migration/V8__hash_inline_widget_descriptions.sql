@@ -0,0 +1,7 @@
+UPDATE widgets
+SET description_sha256 = encode(sha256(convert_to(description, 'UTF8')), 'hex')
+WHERE description_ref IS NULL AND description IS NOT NULL;
+
+UPDATE widgets
+SET content_sha256 = encode(sha256(convert_to(description_sha256 || name, 'UTF8')), 'hex')
+WHERE description_sha256 IS NOT NULL;
@@ -8,7 +8,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-@SpringBootTest(properties = "app.auth-token=test-token")
+@SpringBootTest(properties = {"app.auth-token=test-token", "app.warmup.iterations=50"})
 @Testcontainers
 class AwsLabJavaDemoApplicationTests {
 
@@ -1,18 +1,32 @@
 package com.deanlofts.awslabjava.application;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.domain.WidgetPatch;
 import com.deanlofts.awslabjava.application.domain.WidgetRequest;
 import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.observability.SqlStatementBudget;
+import com.deanlofts.awslabjava.application.observability.SqlStatementTracker;
+import com.deanlofts.awslabjava.application.repository.WidgetArchiveRepository;
+import com.deanlofts.awslabjava.application.repository.WidgetBulkLoader;
 import com.deanlofts.awslabjava.application.service.WidgetService;
 
 @SpringBootTest
@@ -33,9 +47,13 @@ class WidgetServiceIntegrationTest {
     registry.add("spring.datasource.username", POSTGRES::getUsername);
     registry.add("spring.datasource.password", POSTGRES::getPassword);
     registry.add("app.auth-token", () -> "integration-token");
+    registry.add("app.warmup.iterations", () -> "50");
   }
 
   @Autowired private WidgetService widgetService;
+  @Autowired private WidgetBulkLoader bulkLoader;
+  @Autowired private WidgetArchiveRepository archiveRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
 
   @Test
   void createAndFetchWidget() {
@@ -55,4 +73,62 @@ class WidgetServiceIntegrationTest {
     widgetService.delete(created.id());
     assertThat(widgetService.findAll()).isEmpty();
   }
+
+  @Test
+  void crudStaysWithinStatementBudget() {
+    WidgetRequest request = new WidgetRequest("budget widget", "statement budget");
+    WidgetDto[] created = new WidgetDto[1];
+
+    SqlStatementBudget.of(() -> created[0] = widgetService.create(request)).issuesExactly(2);
+    SqlStatementBudget.of(() -> widgetService.findById(created[0].id())).issuesExactly(1);
+    SqlStatementBudget.of(() -> widgetService.findAll()).issuesExactly(1);
+    SqlStatementBudget.of(() -> widgetService.update(created[0].id(), request)).issuesAtMost(2);
+    SqlStatementBudget.of(() -> widgetService.delete(created[0].id())).issuesAtMost(4);
+  }
+
+  @Test
+  void reimportedArchivedWidgetStaysDeleted() {
+    UUID id = UUID.randomUUID();
+    WidgetImportRecord record =
+        new WidgetImportRecord(id, "archived widget", "cold", Instant.EPOCH, Instant.EPOCH);
+    bulkLoader.load(UUID.randomUUID(), List.of(record).iterator(), 8192, 100, rows -> {}, () -> {});
+    archiveRepository.archiveBatch(
+        Instant.now().plusSeconds(60), 1000, records -> "widget-archive/test.ndjson.gz");
+    WidgetBulkLoader.LoadResult reimported =
+        bulkLoader.load(
+            UUID.randomUUID(), List.of(record).iterator(), 8192, 100, rows -> {}, () -> {});
+
+    assertThat(reimported.discardedArchiveKeys()).containsExactly("widget-archive/test.ndjson.gz");
+    assertThat(archiveRepository.findArchiveKeys(List.of(id))).isEmpty();
+
+    jdbcTemplate.update(
+        "INSERT INTO widget_tombstones (id, archive_key, archived_at) VALUES (?, ?, now())",
+        id,
+        "widget-archive/test.ndjson.gz");
+    widgetService.delete(id);
+
+    assertThat(archiveRepository.findArchiveKeys(List.of(id))).isEmpty();
+    assertThatThrownBy(() -> widgetService.findById(id))
+        .isInstanceOfSatisfying(
+            ResponseStatusException.class,
+            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+  }
+
+  @Test
+  void namePatchNeverReadsTheDescription() {
+    WidgetDto created = widgetService.create(new WidgetRequest("patch widget", "kept as is"));
+
+    try (SqlStatementTracker tracker = SqlStatementTracker.capture()) {
+      WidgetDto patched = widgetService.patch(created.id(), new WidgetPatch("renamed", null));
+
+      assertThat(patched.name()).isEqualTo("renamed");
+      assertThat(tracker.capturedSql())
+          .noneMatch(sql -> sql.matches("(?s).*\\.description\\b(?!_).*"));
+    }
+    SqlStatementBudget.of(
+            () -> widgetService.update(created.id(), new WidgetRequest("renamed", "kept as is")))
+        .issuesExactly(1);
+    assertThat(widgetService.findById(created.id()).description()).isEqualTo("kept as is");
+    widgetService.delete(created.id());
+  }
 }
@@ -0,0 +1,155 @@
+package com.deanlofts.awslabjava.application.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer;
+import com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer.Outcome;
+import com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer.Service;
+import com.deanlofts.awslabjava.application.fakeaws.FaultProfile;
+import com.deanlofts.awslabjava.application.fakeaws.LatencyDistribution;
+import com.deanlofts.awslabjava.application.observability.AwsSdkMetricPublisher;
+import com.deanlofts.awslabjava.application.observability.TracingExecutionInterceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+
+class AwsClientConfigurationTest {
+
+  private final FakeAwsServer fake =
+      FakeAwsServer.start(0, 42)
+          .bucket("widgets")
+          .secret("demo/auth-token", "secret-token")
+          .parameter("/demo/auth-token", "parameter-token");
+  private final AwsClientConfiguration configuration = new AwsClientConfiguration();
+  private final AwsProperties properties = properties();
+  private final SdkHttpClient httpClient = configuration.awsHttpClient(properties);
+  private final S3Client s3 =
+      configuration.s3Client(
+          properties,
+          httpClient,
+          StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")),
+          new AwsSdkMetricPublisher(new SimpleMeterRegistry()),
+          new TracingExecutionInterceptor(OpenTelemetry.noop().getTracer("test")));
+  private final SecretsManagerClient secretsManager =
+      configuration.secretsManagerClient(
+          properties,
+          httpClient,
+          StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")),
+          new AwsSdkMetricPublisher(new SimpleMeterRegistry()),
+          new TracingExecutionInterceptor(OpenTelemetry.noop().getTracer("test")));
+
+  @AfterEach
+  void tearDown() {
+    s3.close();
+    secretsManager.close();
+    httpClient.close();
+    fake.close();
+  }
+
+  @Test
+  void endpointOverridesRouteEveryClientToTheFake() {
+    s3.headBucket(request -> request.bucket("widgets"));
+    s3.putObject(
+        request -> request.bucket("widgets").key("widget-metadata/a.json"),
+        RequestBody.fromString("{\"id\":\"a\"}"));
+
+    assertThat(fake.object("widgets", "widget-metadata/a.json"))
+        .hasValueSatisfying(
+            content ->
+                assertThat(new String(content, StandardCharsets.UTF_8))
+                    .isEqualTo("{\"id\":\"a\"}"));
+    assertThat(
+            s3.getObjectAsBytes(request -> request.bucket("widgets").key("widget-metadata/a.json"))
+                .asUtf8String())
+        .isEqualTo("{\"id\":\"a\"}");
+    assertThat(secretsManager.getSecretValue(request -> request.secretId("demo/auth-token")))
+        .satisfies(response -> assertThat(response.secretString()).isEqualTo("secret-token"));
+  }
+
+  @Test
+  void ssmParametersAreServedByTheFake() {
+    try (SsmClient ssm =
+        configuration.ssmClient(
+            properties,
+            httpClient,
+            StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")),
+            new AwsSdkMetricPublisher(new SimpleMeterRegistry()),
+            new TracingExecutionInterceptor(OpenTelemetry.noop().getTracer("test")))) {
+      assertThat(ssm.getParameter(request -> request.name("/demo/auth-token")).parameter().value())
+          .isEqualTo("parameter-token");
+    }
+  }
+
+  @Test
+  void sdkRetriesThrottledCallsBeforeSurfacingTheError() {
+    fake.faults(Service.S3, FaultProfile.healthy().withThrottleRate(1));
+
+    assertThatThrownBy(() -> s3.headBucket(request -> request.bucket("widgets")))
+        .isInstanceOfSatisfying(
+            S3Exception.class, ex -> assertThat(ex.statusCode()).isEqualTo(503));
+    assertThat(fake.requests("S3.HeadBucket", Outcome.THROTTLED)).isGreaterThan(1);
+  }
+
+  @Test
+  void droppedConnectionsAreRetriedAsClientErrors() {
+    fake.faults(Service.SECRETS_MANAGER, FaultProfile.healthy().withDropRate(1));
+
+    assertThatThrownBy(
+            () -> secretsManager.getSecretValue(request -> request.secretId("demo/auth-token")))
+        .isInstanceOf(SdkClientException.class);
+    assertThat(fake.requests("SecretsManager.GetSecretValue", Outcome.DROPPED)).isGreaterThan(1);
+  }
+
+  @Test
+  void attemptTimeoutBoundsSlowCalls() {
+    fake.faults(
+        Service.SECRETS_MANAGER,
+        FaultProfile.healthy().withLatency(LatencyDistribution.fixed(Duration.ofSeconds(2))));
+
+    long started = System.nanoTime();
+    assertThatThrownBy(
+            () -> secretsManager.getSecretValue(request -> request.secretId("demo/auth-token")))
+        .isInstanceOfAny(ApiCallTimeoutException.class, ApiCallAttemptTimeoutException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+  }
+
+  private AwsProperties properties() {
+    AwsProperties.Dependency dependency =
+        new AwsProperties.Dependency(
+            Duration.ofSeconds(1),
+            Duration.ofMillis(300),
+            50f,
+            Duration.ofSeconds(2),
+            20,
+            10,
+            Duration.ofSeconds(30),
+            10,
+            Duration.ofMillis(100));
+    return new AwsProperties(
+        "us-east-1",
+        null,
+        null,
+        null,
+        new AwsProperties.Resilience(dependency, dependency, dependency),
+        null,
+        new AwsProperties.Endpoints(fake.endpoint(), fake.endpoint(), fake.endpoint()));
+  }
+}
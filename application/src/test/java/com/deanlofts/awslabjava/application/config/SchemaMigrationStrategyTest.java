@@ -0,0 +1,86 @@
+package com.deanlofts.awslabjava.application.config;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.flywaydb.core.api.output.ValidateResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class SchemaMigrationStrategyTest {
+
+  private final Flyway flyway = mock(Flyway.class);
+  private final MigrationInfoService info = mock(MigrationInfoService.class);
+
+  @Test
+  void skipsTheLockWhenNothingIsPending() {
+    when(flyway.info()).thenReturn(info);
+    when(info.pending()).thenReturn(new MigrationInfo[0]);
+
+    strategy(MigrationProperties.Mode.MIGRATE).migrate(flyway);
+
+    verify(flyway, never()).getConfiguration();
+    verify(flyway, never()).migrate();
+  }
+
+  @Test
+  void migratesWhileHoldingTheAdvisoryLock() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    Configuration configuration = mock(Configuration.class);
+    when(flyway.info()).thenReturn(info);
+    when(info.pending()).thenReturn(new MigrationInfo[] {mock(MigrationInfo.class)});
+    when(flyway.getConfiguration()).thenReturn(configuration);
+    when(configuration.getDataSource()).thenReturn(dataSource);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(connection.createStatement()).thenReturn(mock(Statement.class));
+    when(flyway.migrate()).thenReturn(new MigrateResult());
+
+    strategy(MigrationProperties.Mode.MIGRATE_ONLY).migrate(flyway);
+
+    InOrder order = inOrder(connection, flyway);
+    order.verify(connection).prepareStatement("SELECT pg_advisory_lock(hashtext(?))");
+    order.verify(flyway).migrate();
+    order.verify(connection).prepareStatement("SELECT pg_advisory_unlock(hashtext(?))");
+    order.verify(connection).close();
+    verify(statement).setString(1, "30000ms");
+  }
+
+  @Test
+  void validateModeRefusesToStartWithPendingMigrations() {
+    when(flyway.validateWithResult())
+        .thenReturn(new ValidateResult(null, null, null, false, 0, List.of(), List.of()));
+
+    assertThatThrownBy(() -> strategy(MigrationProperties.Mode.VALIDATE).migrate(flyway))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("migrate-only");
+    verify(flyway, never()).info();
+    verify(flyway, never()).migrate();
+  }
+
+  private static SchemaMigrationStrategy strategy(MigrationProperties.Mode mode) {
+    return new SchemaMigrationStrategy(
+        new MigrationProperties(mode, "schema-lock", Duration.ofSeconds(30)));
+  }
+}
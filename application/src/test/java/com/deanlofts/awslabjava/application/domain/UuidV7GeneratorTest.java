@@ -0,0 +1,55 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+  private static final Comparator<UUID> UNSIGNED_BYTE_ORDER =
+      Comparator.comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+          .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  @Test
+  void encodesTimestampVersionAndVariant() {
+    UuidV7Generator generator = new UuidV7Generator(() -> 0x0189_7A3B_C4D5L, new Random(1));
+
+    UUID id = generator.generate();
+
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+    assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(0x0189_7A3B_C4D5L);
+    assertThat(id.toString()).startsWith("01897a3b-c4d5-7");
+  }
+
+  @Test
+  void staysSortedWithinTheSameMillisecondAndWhenTheClockStepsBack() {
+    long[] now = {1_700_000_000_000L};
+    UuidV7Generator generator = new UuidV7Generator(() -> now[0], new Random(2));
+    List<UUID> ids = new ArrayList<>();
+
+    for (int i = 0; i < 5_000; i++) {
+      ids.add(generator.generate());
+    }
+    now[0] -= 10;
+    ids.add(generator.generate());
+    now[0] += 1_000;
+    ids.add(generator.generate());
+
+    assertThat(ids).doesNotHaveDuplicates().isSortedAccordingTo(UNSIGNED_BYTE_ORDER);
+  }
+
+  @Test
+  void parsesConfiguredVersion() {
+    assertThat(WidgetIdVersion.parse("v7")).isEqualTo(WidgetIdVersion.V7);
+    assertThat(WidgetIdVersion.parse(null)).isEqualTo(WidgetIdVersion.V4);
+    assertThat(WidgetIdVersion.V4.newId().version()).isEqualTo(4);
+    assertThat(WidgetIdVersion.V7.newId().version()).isEqualTo(7);
+  }
+}
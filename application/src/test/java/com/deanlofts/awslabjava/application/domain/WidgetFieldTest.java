@@ -0,0 +1,24 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class WidgetFieldTest {
+
+  @Test
+  void parsesRequestedFieldsAndDefaultsToAll() {
+    assertThat(WidgetField.parse("id, name,,updatedAt"))
+        .containsExactly(WidgetField.ID, WidgetField.NAME, WidgetField.UPDATED_AT);
+    assertThat(WidgetField.parse(null)).isEqualTo(WidgetField.ALL);
+    assertThat(WidgetField.parse(" , ")).isEqualTo(WidgetField.ALL);
+  }
+
+  @Test
+  void rejectsUnknownFields() {
+    assertThatThrownBy(() -> WidgetField.parse("id,colour"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("colour");
+  }
+}
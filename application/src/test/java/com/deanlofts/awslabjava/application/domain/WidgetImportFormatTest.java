@@ -0,0 +1,27 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+class WidgetImportFormatTest {
+
+  @Test
+  void resolvesFormatFromMediaType() {
+    assertThat(WidgetImportFormat.fromMediaType(MediaType.parseMediaType("text/csv;charset=UTF-8")))
+        .isEqualTo(WidgetImportFormat.CSV);
+    assertThat(WidgetImportFormat.fromMediaType(MediaType.APPLICATION_NDJSON))
+        .isEqualTo(WidgetImportFormat.NDJSON);
+  }
+
+  @Test
+  void explicitFormatWinsOverSourceExtension() {
+    assertThat(WidgetImportFormat.resolve(null, "s3://bucket/widgets.CSV"))
+        .isEqualTo(WidgetImportFormat.CSV);
+    assertThat(WidgetImportFormat.resolve("ndjson", "widgets.csv"))
+        .isEqualTo(WidgetImportFormat.NDJSON);
+    assertThat(WidgetImportFormat.resolve(" ", "widgets.jsonl"))
+        .isEqualTo(WidgetImportFormat.NDJSON);
+  }
+}
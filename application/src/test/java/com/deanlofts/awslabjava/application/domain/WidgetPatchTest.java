@@ -0,0 +1,42 @@
+package com.deanlofts.awslabjava.application.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class WidgetPatchTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void absentMembersAreLeftUnset() throws JsonProcessingException {
+    WidgetPatch patch = WidgetPatch.fromMergePatch(objectMapper.readTree("{\"name\":\"renamed\"}"));
+
+    assertThat(patch.name()).isEqualTo("renamed");
+    assertThat(patch.description()).isNull();
+  }
+
+  @Test
+  void rejectsRemovingRequiredFields() {
+    assertThatThrownBy(
+            () -> WidgetPatch.fromMergePatch(objectMapper.readTree("{\"description\":null}")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("cannot be removed");
+  }
+
+  @Test
+  void rejectsReadOnlyAndUnknownFields() {
+    assertThatThrownBy(() -> WidgetPatch.fromMergePatch(objectMapper.readTree("{\"id\":\"x\"}")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("read-only");
+    assertThatThrownBy(() -> WidgetPatch.fromMergePatch(objectMapper.readTree("{\"size\":3}")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unknown widget field 'size'");
+    assertThatThrownBy(() -> WidgetPatch.fromMergePatch(objectMapper.readTree("[]")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,142 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+public final class WidgetJsonBenchmark {
+
+  private WidgetJsonBenchmark() {}
+
+  public static void main(String[] args) throws JsonProcessingException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    int widgetCount = Integer.parseInt(options.getOrDefault("widgets", "1000"));
+    int descriptionLength = Integer.parseInt(options.getOrDefault("description", "200"));
+    Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+    Duration measure = Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "10")));
+
+    JsonMapper objectMapper =
+        JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    List<WidgetDto> widgets = widgets(widgetCount, descriptionLength);
+    byte[] expected = objectMapper.writeValueAsBytes(widgets);
+    if (!Arrays.equals(expected, WidgetJsonWriter.toJson(widgets))) {
+      throw new IllegalStateException("Streaming serializer output differs from Jackson");
+    }
+    System.out.printf(
+        "widgets=%d descriptionChars=%d responseBytes=%d%n",
+        widgetCount, descriptionLength, expected.length);
+
+    Serializer jackson = () -> objectMapper.writeValueAsBytes(widgets);
+    Serializer streaming = () -> WidgetJsonWriter.toJson(widgets);
+    run("jackson", jackson, warmup);
+    run("streaming", streaming, warmup);
+    report("jackson", run("jackson", jackson, measure));
+    report("streaming", run("streaming", streaming, measure));
+  }
+
+  private static Result run(String name, Serializer serializer, Duration duration)
+      throws JsonProcessingException {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+    System.gc();
+    long gcCount = gcCount();
+    long gcMillis = gcMillis();
+    long allocated = threads.getThreadAllocatedBytes(threadId);
+    long started = System.nanoTime();
+    long deadline = started + duration.toNanos();
+    long operations = 0;
+    long sink = 0;
+    while (System.nanoTime() < deadline) {
+      for (int i = 0; i < 10; i++) {
+        sink += serializer.serialize().length;
+      }
+      operations += 10;
+    }
+    long elapsed = System.nanoTime() - started;
+    if (sink == 0) {
+      throw new IllegalStateException(name + " produced no output");
+    }
+    return new Result(
+        operations,
+        elapsed,
+        threads.getThreadAllocatedBytes(threadId) - allocated,
+        gcCount() - gcCount,
+        gcMillis() - gcMillis);
+  }
+
+  private static void report(String name, Result result) {
+    double seconds = result.elapsedNanos() / 1e9;
+    System.out.printf(
+        "%-9s ops/s=%.0f us/op=%.1f allocatedBytes/op=%d gcCount=%d gcMs=%d%n",
+        name,
+        result.operations() / seconds,
+        result.elapsedNanos() / 1e3 / result.operations(),
+        result.allocatedBytes() / result.operations(),
+        result.gcCount(),
+        result.gcMillis());
+  }
+
+  private static List<WidgetDto> widgets(int count, int descriptionLength) {
+    Random random = new Random(1);
+    Instant base = Instant.parse("2026-01-01T00:00:00Z");
+    List<WidgetDto> widgets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Instant createdAt = base.plusNanos(random.nextLong(30L * 86_400 * 1_000_000_000));
+      StringBuilder description = new StringBuilder(descriptionLength);
+      while (description.length() < descriptionLength) {
+        description.append("Widget description text ").append(i).append(". ");
+      }
+      widgets.add(
+          new WidgetDto(
+              UUID.randomUUID(),
+              "widget-" + i,
+              description.substring(0, descriptionLength),
+              createdAt,
+              createdAt.plusSeconds(random.nextInt(86_400))));
+    }
+    return widgets;
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+        .sum();
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+        .sum();
+  }
+
+  @FunctionalInterface
+  private interface Serializer {
+    byte[] serialize() throws JsonProcessingException;
+  }
+
+  private record Result(
+      long operations, long elapsedNanos, long allocatedBytes, long gcCount, long gcMillis) {}
+}
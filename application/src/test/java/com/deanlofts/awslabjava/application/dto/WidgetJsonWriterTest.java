@@ -0,0 +1,148 @@
+package com.deanlofts.awslabjava.application.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class WidgetJsonWriterTest {
+
+  private final JsonMapper objectMapper =
+      JsonMapper.builder()
+          .findAndAddModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .build();
+
+  @Test
+  void matchesJacksonForEdgeCases() throws JsonProcessingException {
+    List<WidgetDto> widgets =
+        List.of(
+            new WidgetDto(null, null, null, null, null),
+            new WidgetDto(
+                new UUID(0, 0), "", "", Instant.EPOCH, Instant.ofEpochSecond(0, 1), false),
+            new WidgetDto(
+                new UUID(-1, -1),
+                "quote \" backslash \\ slash / tab \t newline \n nul \u0000 unit \u001f del \u007f",
+                "é ß € 中文 😀 lone \uD800 \uDFFF end",
+                Instant.parse("1969-12-31T23:59:59.999Z"),
+                Instant.parse("2026-10-19T09:50:11.396608Z"),
+                true),
+            new WidgetDto(
+                UUID.randomUUID(),
+                "x".repeat(5000) + "é".repeat(3000),
+                null,
+                Instant.parse("0000-01-01T00:00:00Z"),
+                Instant.parse("9999-12-31T23:59:59.999999999Z")),
+            new WidgetDto(
+                UUID.randomUUID(),
+                "out of range",
+                null,
+                Instant.MIN,
+                Instant.parse("+10000-01-01T00:00:00Z")));
+
+    assertThat(new String(WidgetJsonWriter.toJson(widgets), StandardCharsets.UTF_8))
+        .isEqualTo(new String(objectMapper.writeValueAsBytes(widgets), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void matchesJacksonForRandomWidgets() throws JsonProcessingException {
+    Random random = new Random(42);
+    List<WidgetDto> widgets = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      widgets.add(
+          new WidgetDto(
+              new UUID(random.nextLong(), random.nextLong()),
+              randomString(random, 40),
+              random.nextInt(4) == 0 ? null : randomString(random, 400),
+              randomInstant(random),
+              randomInstant(random),
+              random.nextBoolean() ? null : random.nextBoolean()));
+    }
+
+    assertThat(WidgetJsonWriter.toJson(widgets)).isEqualTo(objectMapper.writeValueAsBytes(widgets));
+    assertThat(WidgetJsonWriter.toJson(List.of()))
+        .isEqualTo(objectMapper.writeValueAsBytes(List.of()));
+  }
+
+  @Test
+  void threadsSharingSpareSegmentsKeepTheirOutputIntact() throws Exception {
+    List<List<WidgetDto>> lists = new ArrayList<>();
+    for (int thread = 0; thread < 4; thread++) {
+      Random random = new Random(thread);
+      List<WidgetDto> widgets = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        widgets.add(
+            new WidgetDto(
+                new UUID(random.nextLong(), random.nextLong()),
+                randomString(random, 40),
+                randomString(random, 600),
+                randomInstant(random),
+                randomInstant(random)));
+      }
+      lists.add(widgets);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(lists.size());
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (List<WidgetDto> widgets : lists) {
+        byte[] expected = objectMapper.writeValueAsBytes(widgets);
+        results.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 20; i++) {
+                    if (!Arrays.equals(WidgetJsonWriter.toJson(widgets), expected)) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String randomString(Random random, int maxLength) {
+    StringBuilder value = new StringBuilder();
+    int length = random.nextInt(maxLength);
+    for (int i = 0; i < length; i++) {
+      value.append(
+          switch (random.nextInt(5)) {
+            case 0 -> (char) random.nextInt(0x80);
+            case 1 -> (char) (0x80 + random.nextInt(0x780));
+            case 2 -> (char) (0x800 + random.nextInt(0xF7FF));
+            default -> (char) ('a' + random.nextInt(26));
+          });
+    }
+    return value.toString();
+  }
+
+  private static Instant randomInstant(Random random) {
+    long seconds = random.nextLong(-62_167_219_200L, 253_402_300_800L);
+    int nanos =
+        switch (random.nextInt(4)) {
+          case 0 -> 0;
+          case 1 -> random.nextInt(1000) * 1_000_000;
+          case 2 -> random.nextInt(1_000_000) * 1_000;
+          default -> random.nextInt(1_000_000_000);
+        };
+    return Instant.ofEpochSecond(seconds, nanos);
+  }
+}
@@ -0,0 +1,510 @@
+package com.deanlofts.awslabjava.application.fakeaws;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public final class FakeAwsServer implements AutoCloseable {
+
+  public enum Service {
+    S3,
+    SECRETS_MANAGER,
+    SSM
+  }
+
+  public enum Outcome {
+    OK,
+    ERROR,
+    THROTTLED,
+    DROPPED
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(FakeAwsServer.class);
+  private static final String JSON_CONTENT_TYPE = "application/x-amz-json-1.1";
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Random random;
+  private final Map<Service, FaultProfile> faults =
+      new ConcurrentHashMap<>(new EnumMap<>(Service.class));
+  private final Map<String, Map<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+  private final Map<String, String> secrets = new ConcurrentHashMap<>();
+  private final Map<String, String> parameters = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+  private FakeAwsServer(int port, long seed) throws IOException {
+    this.random = new Random(seed);
+    for (Service service : Service.values()) {
+      faults.put(service, FaultProfile.healthy());
+    }
+    this.server =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public static FakeAwsServer start() {
+    return start(0, System.nanoTime());
+  }
+
+  public static FakeAwsServer start(int port, long seed) {
+    try {
+      return new FakeAwsServer(port, seed);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Failed to start fake AWS server", ex);
+    }
+  }
+
+  public URI endpoint() {
+    return URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  public FakeAwsServer bucket(String name) {
+    buckets.computeIfAbsent(name, ignored -> new ConcurrentHashMap<>());
+    return this;
+  }
+
+  public FakeAwsServer secret(String secretId, String value) {
+    secrets.put(secretId, value);
+    return this;
+  }
+
+  public FakeAwsServer parameter(String name, String value) {
+    parameters.put(name, value);
+    return this;
+  }
+
+  public FakeAwsServer faults(Service service, FaultProfile profile) {
+    faults.put(service, profile);
+    return this;
+  }
+
+  public Optional<byte[]> object(String bucket, String key) {
+    return Optional.ofNullable(buckets.getOrDefault(bucket, Map.of()).get(key))
+        .map(StoredObject::content);
+  }
+
+  public long requests(String operation) {
+    long total = 0;
+    for (Outcome outcome : Outcome.values()) {
+      total += requests(operation, outcome);
+    }
+    return total;
+  }
+
+  public long requests(String operation, Outcome outcome) {
+    LongAdder counter = requests.get(operation + "/" + outcome);
+    return counter != null ? counter.sum() : 0;
+  }
+
+  public Map<String, Long> requestCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    requests.forEach((key, counter) -> counts.put(key, counter.sum()));
+    return counts;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      exchange.getResponseHeaders().set("x-amz-request-id", UUID.randomUUID().toString());
+      if (exchange.getRequestURI().getPath().startsWith("/_fake/")) {
+        control(exchange);
+        return;
+      }
+      String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+      Service service = service(target);
+      String operation = operation(service, exchange, target);
+      byte[] body = exchange.getRequestBody().readAllBytes();
+      FaultProfile profile = faults.get(service);
+      pause(profile.latency().sample(random));
+      double roll = random.nextDouble();
+      if (roll < profile.dropRate()) {
+        record(operation, Outcome.DROPPED);
+        return;
+      }
+      if (roll < profile.dropRate() + profile.throttleRate()) {
+        record(operation, Outcome.THROTTLED);
+        throttle(service, exchange);
+        return;
+      }
+      Outcome outcome =
+          switch (service) {
+            case S3 -> s3(operation, exchange, body);
+            case SECRETS_MANAGER -> getSecretValue(operation, exchange, body);
+            case SSM -> getParameter(operation, exchange, body);
+          };
+      record(operation, outcome);
+    } catch (RuntimeException ex) {
+      log.warn("Fake AWS request failed", ex);
+    }
+  }
+
+  private static Service service(String target) {
+    if (target == null) {
+      return Service.S3;
+    }
+    return target.startsWith("AmazonSSM.") ? Service.SSM : Service.SECRETS_MANAGER;
+  }
+
+  private static String operation(Service service, HttpExchange exchange, String target) {
+    if (service != Service.S3) {
+      return (service == Service.SSM ? "SSM." : "SecretsManager.")
+          + target.substring(target.indexOf('.') + 1);
+    }
+    boolean objectRequest = S3Path.parse(exchange.getRequestURI()).key() != null;
+    return switch (exchange.getRequestMethod()) {
+      case "HEAD" -> objectRequest ? "S3.HeadObject" : "S3.HeadBucket";
+      case "GET" -> objectRequest ? "S3.GetObject" : "S3.ListObjects";
+      case "PUT" -> objectRequest ? "S3.PutObject" : "S3.CreateBucket";
+      case "DELETE" -> objectRequest ? "S3.DeleteObject" : "S3.DeleteBucket";
+      default -> "S3." + exchange.getRequestMethod();
+    };
+  }
+
+  private Outcome s3(String operation, HttpExchange exchange, byte[] body) throws IOException {
+    S3Path path = S3Path.parse(exchange.getRequestURI());
+    Map<String, StoredObject> objects = buckets.get(path.bucket());
+    if (objects == null) {
+      s3Error(exchange, 404, "NoSuchBucket", "The specified bucket does not exist");
+      return Outcome.ERROR;
+    }
+    switch (operation) {
+      case "S3.HeadBucket" -> exchange.sendResponseHeaders(200, -1);
+      case "S3.PutObject" -> {
+        byte[] content = isAwsChunked(exchange) ? decodeAwsChunked(body) : body;
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        StoredObject stored = new StoredObject(content, contentType, md5(content));
+        objects.put(path.key(), stored);
+        exchange.getResponseHeaders().set("ETag", stored.etag());
+        exchange.sendResponseHeaders(200, -1);
+      }
+      case "S3.HeadObject" -> {
+        StoredObject stored = objects.get(path.key());
+        if (stored == null) {
+          s3Error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+          return Outcome.ERROR;
+        }
+        exchange.getResponseHeaders().set("ETag", stored.etag());
+        exchange.sendResponseHeaders(200, -1);
+      }
+      case "S3.GetObject" -> {
+        StoredObject stored = objects.get(path.key());
+        if (stored == null) {
+          s3Error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+          return Outcome.ERROR;
+        }
+        if (stored.contentType() != null) {
+          exchange.getResponseHeaders().set("Content-Type", stored.contentType());
+        }
+        exchange.getResponseHeaders().set("ETag", stored.etag());
+        send(exchange, 200, stored.content());
+      }
+      case "S3.DeleteObject" -> {
+        objects.remove(path.key());
+        exchange.sendResponseHeaders(204, -1);
+      }
+      default -> {
+        s3Error(exchange, 501, "NotImplemented", operation + " is not supported");
+        return Outcome.ERROR;
+      }
+    }
+    return Outcome.OK;
+  }
+
+  private Outcome getSecretValue(String operation, HttpExchange exchange, byte[] body)
+      throws IOException {
+    if (!operation.equals("SecretsManager.GetSecretValue")) {
+      jsonError(exchange, "UnknownOperationException", operation + " is not supported");
+      return Outcome.ERROR;
+    }
+    String secretId = objectMapper.readTree(body).path("SecretId").asText();
+    String value = secrets.get(secretId);
+    if (value == null) {
+      jsonError(exchange, "ResourceNotFoundException", "Secrets Manager can't find the secret.");
+      return Outcome.ERROR;
+    }
+    Map<String, Object> response = new HashMap<>();
+    response.put("ARN", "arn:aws:secretsmanager:us-east-1:000000000000:secret:" + secretId);
+    response.put("Name", secretId);
+    response.put("SecretString", value);
+    response.put("VersionId", UUID.nameUUIDFromBytes(value.getBytes(StandardCharsets.UTF_8)));
+    response.put("VersionStages", new String[] {"AWSCURRENT"});
+    response.put("CreatedDate", System.currentTimeMillis() / 1000.0);
+    json(exchange, response);
+    return Outcome.OK;
+  }
+
+  private Outcome getParameter(String operation, HttpExchange exchange, byte[] body)
+      throws IOException {
+    if (!operation.equals("SSM.GetParameter")) {
+      jsonError(exchange, "UnknownOperationException", operation + " is not supported");
+      return Outcome.ERROR;
+    }
+    String name = objectMapper.readTree(body).path("Name").asText();
+    String value = parameters.get(name);
+    if (value == null) {
+      jsonError(exchange, "ParameterNotFound", "Parameter " + name + " not found.");
+      return Outcome.ERROR;
+    }
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("Name", name);
+    parameter.put("Type", "SecureString");
+    parameter.put("Value", value);
+    parameter.put("Version", 1);
+    json(exchange, Map.of("Parameter", parameter));
+    return Outcome.OK;
+  }
+
+  private void throttle(Service service, HttpExchange exchange) throws IOException {
+    if (service == Service.S3) {
+      s3Error(exchange, 503, "SlowDown", "Please reduce your request rate.");
+    } else {
+      jsonError(exchange, "ThrottlingException", "Rate exceeded");
+    }
+  }
+
+  private void control(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    if (exchange.getRequestMethod().equals("GET") && path.equals("/_fake/requests")) {
+      json(exchange, requestCounts());
+      return;
+    }
+    if (exchange.getRequestMethod().equals("POST") && path.startsWith("/_fake/faults/")) {
+      Service service = serviceNamed(path.substring("/_fake/faults/".length()));
+      Map<String, String> query = query(exchange.getRequestURI());
+      FaultProfile profile = faults.get(service);
+      faults.put(service, withOptions(profile, query));
+      log.info("Fake AWS faults for {} set to {}", service, faults.get(service));
+      json(exchange, Map.of("service", service, "faults", faults.get(service).toString()));
+      return;
+    }
+    send(exchange, 404, new byte[0]);
+  }
+
+  private void record(String operation, Outcome outcome) {
+    requests.computeIfAbsent(operation + "/" + outcome, ignored -> new LongAdder()).increment();
+  }
+
+  private void s3Error(HttpExchange exchange, int status, String code, String message)
+      throws IOException {
+    if (exchange.getRequestMethod().equals("HEAD")) {
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    String xml =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>%s</Code><Message>%s</Message><RequestId>%s</RequestId></Error>"
+            .formatted(code, message, exchange.getResponseHeaders().getFirst("x-amz-request-id"));
+    exchange.getResponseHeaders().set("Content-Type", "application/xml");
+    send(exchange, status, xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void jsonError(HttpExchange exchange, String type, String message) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+    exchange.getResponseHeaders().set("x-amzn-ErrorType", type);
+    send(exchange, 400, objectMapper.writeValueAsBytes(Map.of("__type", type, "message", message)));
+  }
+
+  private void json(HttpExchange exchange, Object body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+    send(exchange, 200, objectMapper.writeValueAsBytes(body));
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    if (body.length > 0) {
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+
+  private static void pause(Duration latency) {
+    if (latency.isZero() || latency.isNegative()) {
+      return;
+    }
+    try {
+      Thread.sleep(latency);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static boolean isAwsChunked(HttpExchange exchange) {
+    String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+    String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+    return (contentSha != null && contentSha.startsWith("STREAMING-"))
+        || (contentEncoding != null && contentEncoding.contains("aws-chunked"));
+  }
+
+  static byte[] decodeAwsChunked(byte[] body) {
+    ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.length);
+    int position = 0;
+    while (position < body.length) {
+      int lineEnd = position;
+      while (lineEnd + 1 < body.length && (body[lineEnd] != '\r' || body[lineEnd + 1] != '\n')) {
+        lineEnd++;
+      }
+      String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+      int extension = header.indexOf(';');
+      int size = Integer.parseInt(extension >= 0 ? header.substring(0, extension) : header, 16);
+      if (size == 0) {
+        break;
+      }
+      position = lineEnd + 2;
+      decoded.write(body, position, size);
+      position += size + 2;
+    }
+    return decoded.toByteArray();
+  }
+
+  private static String md5(byte[] content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      return "\"" + HexFormat.of().formatHex(digest.digest(content)) + "\"";
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static Service serviceNamed(String name) {
+    return switch (name.toLowerCase(Locale.ROOT)) {
+      case "s3" -> Service.S3;
+      case "secretsmanager", "secrets-manager" -> Service.SECRETS_MANAGER;
+      case "ssm" -> Service.SSM;
+      default -> throw new IllegalArgumentException("Unknown service " + name);
+    };
+  }
+
+  private static FaultProfile withOptions(FaultProfile profile, Map<String, String> options) {
+    FaultProfile updated = profile;
+    if (options.containsKey("latency")) {
+      updated = updated.withLatency(LatencyDistribution.parse(options.get("latency")));
+    }
+    if (options.containsKey("throttle")) {
+      updated = updated.withThrottleRate(Double.parseDouble(options.get("throttle")));
+    }
+    if (options.containsKey("drop")) {
+      updated = updated.withDropRate(Double.parseDouble(options.get("drop")));
+    }
+    return updated;
+  }
+
+  private static Map<String, String> query(URI uri) {
+    Map<String, String> values = new HashMap<>();
+    if (uri.getRawQuery() == null) {
+      return values;
+    }
+    for (String pair : uri.getRawQuery().split("&")) {
+      int separator = pair.indexOf('=');
+      if (separator > 0) {
+        values.put(
+            URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return values;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      options.merge(
+          arg.substring(2, separator), arg.substring(separator + 1), (a, b) -> a + "," + b);
+    }
+    FakeAwsServer fake =
+        start(
+            Integer.parseInt(options.getOrDefault("port", "4566")),
+            Long.parseLong(options.getOrDefault("seed", "1")));
+    for (String bucket : options.getOrDefault("bucket", "").split(",")) {
+      if (!bucket.isBlank()) {
+        fake.bucket(bucket);
+      }
+    }
+    pairs(options.get("secret")).forEach(fake::secret);
+    pairs(options.get("parameter")).forEach(fake::parameter);
+    for (Service service : Service.values()) {
+      String prefix = service.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-";
+      Map<String, String> serviceOptions = new HashMap<>();
+      options.forEach(
+          (name, value) -> {
+            if (name.startsWith(prefix)) {
+              serviceOptions.put(name.substring(prefix.length()), value);
+            }
+          });
+      fake.faults(service, withOptions(FaultProfile.healthy(), serviceOptions));
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(fake::close));
+    log.info("Fake AWS endpoints listening on {} with faults {}", fake.endpoint(), fake.faults);
+    Thread.currentThread().join();
+  }
+
+  private static Map<String, String> pairs(String values) {
+    Map<String, String> pairs = new HashMap<>();
+    if (values == null) {
+      return pairs;
+    }
+    for (String pair : values.split(",")) {
+      int separator = pair.indexOf('=');
+      if (separator > 0) {
+        pairs.put(pair.substring(0, separator), pair.substring(separator + 1));
+      }
+    }
+    return pairs;
+  }
+
+  private record StoredObject(byte[] content, String contentType, String etag) {}
+
+  private record S3Path(String bucket, String key) {
+    static S3Path parse(URI uri) {
+      String path = uri.getRawPath().substring(1);
+      int slash = path.indexOf('/');
+      if (slash < 0 || slash == path.length() - 1) {
+        return new S3Path(decode(slash < 0 ? path : path.substring(0, slash)), null);
+      }
+      return new S3Path(decode(path.substring(0, slash)), decode(path.substring(slash + 1)));
+    }
+
+    private static String decode(String value) {
+      return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+  }
+}
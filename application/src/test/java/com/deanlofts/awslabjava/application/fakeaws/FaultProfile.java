@@ -0,0 +1,26 @@
+package com.deanlofts.awslabjava.application.fakeaws;
+
+public record FaultProfile(LatencyDistribution latency, double throttleRate, double dropRate) {
+
+  public FaultProfile {
+    if (throttleRate < 0 || throttleRate > 1 || dropRate < 0 || dropRate > 1) {
+      throw new IllegalArgumentException("Fault rates must be between 0 and 1");
+    }
+  }
+
+  public static FaultProfile healthy() {
+    return new FaultProfile(LatencyDistribution.none(), 0, 0);
+  }
+
+  public FaultProfile withLatency(LatencyDistribution latency) {
+    return new FaultProfile(latency, throttleRate, dropRate);
+  }
+
+  public FaultProfile withThrottleRate(double throttleRate) {
+    return new FaultProfile(latency, throttleRate, dropRate);
+  }
+
+  public FaultProfile withDropRate(double dropRate) {
+    return new FaultProfile(latency, throttleRate, dropRate);
+  }
+}
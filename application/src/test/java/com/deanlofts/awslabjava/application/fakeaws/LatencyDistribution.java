@@ -0,0 +1,87 @@
+package com.deanlofts.awslabjava.application.fakeaws;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+public sealed interface LatencyDistribution {
+
+  double P99_Z_SCORE = 2.3263478740408408;
+
+  Duration sample(RandomGenerator random);
+
+  static LatencyDistribution none() {
+    return new Fixed(Duration.ZERO);
+  }
+
+  static LatencyDistribution fixed(Duration latency) {
+    return new Fixed(latency);
+  }
+
+  static LatencyDistribution uniform(Duration min, Duration max) {
+    if (max.compareTo(min) < 0) {
+      throw new IllegalArgumentException("max latency must not be below min latency");
+    }
+    return new Uniform(min, max);
+  }
+
+  static LatencyDistribution logNormal(Duration median, Duration p99) {
+    if (median.isNegative() || median.isZero() || p99.compareTo(median) < 0) {
+      throw new IllegalArgumentException("p99 latency must be at least a positive median");
+    }
+    double mu = Math.log(median.toNanos());
+    double sigma = (Math.log(p99.toNanos()) - mu) / P99_Z_SCORE;
+    return new LogNormal(mu, sigma);
+  }
+
+  static LatencyDistribution parse(String spec) {
+    String value = spec.trim();
+    if (value.isEmpty() || value.equals("0")) {
+      return none();
+    }
+    if (value.startsWith("p50=")) {
+      String[] parts = value.split(",");
+      if (parts.length != 2 || !parts[1].startsWith("p99=")) {
+        throw new IllegalArgumentException("Expected p50=<duration>,p99=<duration>: " + spec);
+      }
+      return logNormal(duration(parts[0].substring(4)), duration(parts[1].substring(4)));
+    }
+    int range = value.indexOf("..");
+    if (range > 0) {
+      return uniform(duration(value.substring(0, range)), duration(value.substring(range + 2)));
+    }
+    return fixed(duration(value));
+  }
+
+  private static Duration duration(String value) {
+    String trimmed = value.trim();
+    if (trimmed.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+    }
+    if (trimmed.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+    }
+    throw new IllegalArgumentException("Durations must end in ms or s: " + value);
+  }
+
+  record Fixed(Duration latency) implements LatencyDistribution {
+    @Override
+    public Duration sample(RandomGenerator random) {
+      return latency;
+    }
+  }
+
+  record Uniform(Duration min, Duration max) implements LatencyDistribution {
+    @Override
+    public Duration sample(RandomGenerator random) {
+      long spread = max.toNanos() - min.toNanos();
+      return spread == 0 ? min : min.plusNanos(random.nextLong(spread + 1));
+    }
+  }
+
+  record LogNormal(double mu, double sigma) implements LatencyDistribution {
+    @Override
+    public Duration sample(RandomGenerator random) {
+      return Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+  }
+}
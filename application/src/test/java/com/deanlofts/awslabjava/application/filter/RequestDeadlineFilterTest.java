@@ -0,0 +1,97 @@
+package com.deanlofts.awslabjava.application.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.deanlofts.awslabjava.application.config.DeadlineProperties;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestDeadlineFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RequestDeadlineFilter filter =
+      new RequestDeadlineFilter(
+          new DeadlineProperties(
+              true, Duration.ofSeconds(30), "X-Request-Timeout-Ms", List.of("/actuator/**")),
+          meterRegistry);
+
+  @Test
+  void inboundHeaderCanOnlyShortenTheBudget() {
+    assertThat(filter.budget(null)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(filter.budget("250")).isEqualTo(Duration.ofMillis(250));
+    assertThat(filter.budget("120000")).isEqualTo(Duration.ofSeconds(30));
+    assertThat(filter.budget("soon")).isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  void translatesDatabaseTimeoutsAfterTheDeadlineIntoGatewayTimeouts() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/widgets");
+    request.addHeader("X-Request-Timeout-Ms", "1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(
+        request,
+        response,
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                try {
+                  Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                  Thread.currentThread().interrupt();
+                }
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+              }
+            }));
+
+    assertThat(response.getStatus()).isEqualTo(504);
+    assertThat(
+            meterRegistry
+                .get("http.server.deadline.exceeded")
+                .tag("dependency", "postgres")
+                .counter()
+                .count())
+        .isEqualTo(1.0);
+    assertThat(RequestDeadline.current()).isNull();
+  }
+
+  @Test
+  void leavesFailuresWithinTheBudgetAlone() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/widgets");
+    AtomicReference<RequestDeadline> seen = new AtomicReference<>();
+
+    assertThatThrownBy(
+            () ->
+                filter.doFilter(
+                    request,
+                    new MockHttpServletResponse(),
+                    new MockFilterChain(
+                        new HttpServlet() {
+                          @Override
+                          protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                            seen.set(RequestDeadline.current());
+                            throw new QueryTimeoutException("lock timeout");
+                          }
+                        })))
+        .isInstanceOf(QueryTimeoutException.class);
+    assertThat(seen.get()).isNotNull();
+    assertThat(meterRegistry.find("http.server.deadline.exceeded").counter()).isNull();
+  }
+}
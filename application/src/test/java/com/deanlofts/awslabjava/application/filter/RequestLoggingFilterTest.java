@@ -0,0 +1,50 @@
+package com.deanlofts.awslabjava.application.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.deanlofts.awslabjava.application.config.AppProperties;
+import com.deanlofts.awslabjava.application.config.SqlProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestLoggingFilterTest {
+
+  private final RequestLoggingFilter filter =
+      new RequestLoggingFilter(
+          new AppProperties(
+              "demo", "tester", "test", "token", new AppProperties.Feature(false), null),
+          new SqlProperties(Duration.ofMillis(250)),
+          new SimpleMeterRegistry());
+
+  @Test
+  void fallbackTraceIdIsInTheMdcForTheRestOfTheRequest() throws Exception {
+    AtomicReference<String> seen = new AtomicReference<>();
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v1/widgets"),
+        new MockHttpServletResponse(),
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                seen.set(MDC.get("traceId"));
+              }
+            }));
+
+    assertThat(seen.get()).isNotBlank();
+    assertThat(MDC.get("traceId")).isNull();
+  }
+}
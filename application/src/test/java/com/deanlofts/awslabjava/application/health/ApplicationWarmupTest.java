@@ -0,0 +1,92 @@
+package com.deanlofts.awslabjava.application.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.WarmupProperties;
+import com.deanlofts.awslabjava.application.controller.WidgetController;
+import com.deanlofts.awslabjava.application.service.AuthTokenProvider;
+import com.deanlofts.awslabjava.application.service.WidgetListCache;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ApplicationWarmupTest {
+
+  private final WidgetController widgetController = mock(WidgetController.class);
+  private final WidgetListCache widgetListCache = mock(WidgetListCache.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final AuthTokenProvider authTokenProvider = mock(AuthTokenProvider.class);
+  private final S3HealthIndicator s3HealthIndicator = mock(S3HealthIndicator.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void warmsEveryDependencyBeforeReturning() throws SQLException {
+    when(authTokenProvider.requiredToken()).thenReturn("token");
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(s3HealthIndicator.health()).thenReturn(Health.up().build());
+    when(widgetController.get(any(), any()))
+        .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+    warmup(true).run(null);
+
+    verify(authTokenProvider).requiredToken();
+    verify(dataSource, times(3)).getConnection();
+    verify(connection, times(3)).close();
+    verify(s3HealthIndicator).health();
+    verify(widgetController, times(25)).get(any(), any());
+    verify(widgetListCache, times(25)).render(anyList());
+    assertThat(meterRegistry.get("app.warmup.duration").tag("step", "total").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void failedStepsDoNotHoldBackReadiness() throws SQLException {
+    when(authTokenProvider.requiredToken()).thenThrow(new IllegalStateException("no token"));
+    when(dataSource.getConnection()).thenThrow(new SQLException("database down"));
+    when(s3HealthIndicator.health()).thenReturn(Health.down().build());
+    when(widgetController.get(any(), any()))
+        .thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+
+    assertThatCode(() -> warmup(true).run(null)).doesNotThrowAnyException();
+    verify(widgetController).get(any(), any());
+  }
+
+  @Test
+  void skipsEverythingWhenDisabled() {
+    warmup(false).run(null);
+
+    verifyNoInteractions(authTokenProvider, dataSource, s3HealthIndicator, widgetController);
+  }
+
+  private ApplicationWarmup warmup(boolean enabled) {
+    return new ApplicationWarmup(
+        new WarmupProperties(enabled, 25, Duration.ofSeconds(30), 3),
+        widgetController,
+        widgetListCache,
+        JsonMapper.builder().findAndAddModules().build(),
+        dataSource,
+        authTokenProvider,
+        s3HealthIndicator,
+        meterRegistry);
+  }
+}
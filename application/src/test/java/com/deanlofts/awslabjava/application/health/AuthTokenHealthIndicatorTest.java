@@ -10,15 +10,22 @@ import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.actuate.health.Status;
 
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
 import com.deanlofts.awslabjava.application.service.AuthTokenProvider;
 import com.deanlofts.awslabjava.application.service.AuthTokenProvider.Metadata;
 import com.deanlofts.awslabjava.application.service.AuthTokenProvider.TokenSource;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class AuthTokenHealthIndicatorTest {
 
   private final AuthTokenProvider authTokenProvider = mock(AuthTokenProvider.class);
   private final AuthTokenHealthIndicator indicator =
-      new AuthTokenHealthIndicator(authTokenProvider);
+      new AuthTokenHealthIndicator(
+          authTokenProvider,
+          new AwsCallGuards(
+              new AwsProperties.Resilience(null, null, null), new SimpleMeterRegistry()));
 
   @Test
   void reportsUpWhenMetadataAvailable() {
@@ -6,14 +6,18 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import java.util.Optional;
+import java.time.Duration;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.boot.actuate.health.Status;
 
 import com.deanlofts.awslabjava.application.config.AppProperties;
 import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
@@ -27,10 +31,11 @@ class S3HealthIndicatorTest {
     AppProperties.Feature feature = new AppProperties.Feature(false);
     AppProperties appProperties =
         new AppProperties("demo", "tester", "test", "token", feature, null);
-    AwsProperties awsProperties = new AwsProperties(null, null, null, null);
+    AwsProperties awsProperties = new AwsProperties(null, null, null, null, null, null, null);
 
     S3HealthIndicator indicator =
-        new S3HealthIndicator(appProperties, awsProperties, Optional.empty());
+        new S3HealthIndicator(
+            appProperties, awsProperties, s3ClientProvider(null), guards(awsProperties));
 
     assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
     verifyNoInteractions(s3Client);
@@ -41,11 +46,13 @@ class S3HealthIndicatorTest {
     AppProperties.Feature feature = new AppProperties.Feature(true);
     AppProperties appProperties =
         new AppProperties("demo", "tester", "test", "token", feature, null);
-    AwsProperties.S3 s3 = new AwsProperties.S3(null, "widget-metadata/");
-    AwsProperties awsProperties = new AwsProperties(null, null, null, s3);
+    AwsProperties.S3 s3 =
+        new AwsProperties.S3(null, "widget-metadata/", 500, Duration.ofSeconds(5));
+    AwsProperties awsProperties = new AwsProperties(null, null, null, s3, null, null, null);
 
     S3HealthIndicator indicator =
-        new S3HealthIndicator(appProperties, awsProperties, Optional.of(s3Client));
+        new S3HealthIndicator(
+            appProperties, awsProperties, s3ClientProvider(s3Client), guards(awsProperties));
 
     assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
     assertThat(indicator.health().getDetails()).containsEntry("error", "bucket-not-configured");
@@ -56,15 +63,29 @@ class S3HealthIndicatorTest {
     AppProperties.Feature feature = new AppProperties.Feature(true);
     AppProperties appProperties =
         new AppProperties("demo", "tester", "test", "token", feature, null);
-    AwsProperties.S3 s3 = new AwsProperties.S3("demo-bucket", "widget-metadata/");
-    AwsProperties awsProperties = new AwsProperties(null, null, null, s3);
+    AwsProperties.S3 s3 =
+        new AwsProperties.S3("demo-bucket", "widget-metadata/", 500, Duration.ofSeconds(5));
+    AwsProperties awsProperties = new AwsProperties(null, null, null, s3, null, null, null);
 
     when(s3Client.headBucket(any(HeadBucketRequest.class)))
         .thenThrow(S3Exception.builder().statusCode(500).build());
 
     S3HealthIndicator indicator =
-        new S3HealthIndicator(appProperties, awsProperties, Optional.of(s3Client));
+        new S3HealthIndicator(
+            appProperties, awsProperties, s3ClientProvider(s3Client), guards(awsProperties));
 
     assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
   }
+
+  private static AwsCallGuards guards(AwsProperties awsProperties) {
+    return new AwsCallGuards(awsProperties.getResilience(), new SimpleMeterRegistry());
+  }
+
+  private static ObjectProvider<S3Client> s3ClientProvider(S3Client s3Client) {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    if (s3Client != null) {
+      beanFactory.addBean("s3Client", s3Client);
+    }
+    return beanFactory.getBeanProvider(S3Client.class);
+  }
 }
@@ -0,0 +1,58 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+class AwsSdkMetricPublisherTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AwsSdkMetricPublisher publisher = new AwsSdkMetricPublisher(meterRegistry);
+
+  @Test
+  void recordsPoolUsageAndAcquireWait() {
+    MetricCollector apiCall = MetricCollector.create("ApiCall");
+    apiCall.reportMetric(CoreMetric.SERVICE_ID, "S3");
+    apiCall.reportMetric(CoreMetric.OPERATION_NAME, "PutObject");
+    apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, true);
+    apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(40));
+    MetricCollector http = apiCall.createChild("ApiCallAttempt").createChild("HttpClient");
+    http.reportMetric(HttpMetric.HTTP_CLIENT_NAME, "Apache");
+    http.reportMetric(HttpMetric.MAX_CONCURRENCY, 50);
+    http.reportMetric(HttpMetric.AVAILABLE_CONCURRENCY, 3);
+    http.reportMetric(HttpMetric.LEASED_CONCURRENCY, 7);
+    http.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 2);
+    http.reportMetric(HttpMetric.CONCURRENCY_ACQUIRE_DURATION, Duration.ofMillis(12));
+
+    publisher.publish(apiCall.collect());
+
+    assertThat(
+            meterRegistry.get("aws.sdk.http.pool.leased").tag("client", "Apache").gauge().value())
+        .isEqualTo(7.0);
+    assertThat(meterRegistry.get("aws.sdk.http.pool.pending").gauge().value()).isEqualTo(2.0);
+    assertThat(meterRegistry.get("aws.sdk.http.pool.max").gauge().value()).isEqualTo(50.0);
+    assertThat(
+            meterRegistry
+                .get("aws.sdk.http.pool.acquire")
+                .tag("service", "S3")
+                .timer()
+                .totalTime(TimeUnit.MILLISECONDS))
+        .isEqualTo(12.0);
+    assertThat(
+            meterRegistry
+                .get("aws.sdk.api.call")
+                .tag("operation", "PutObject")
+                .tag("successful", "true")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+}
@@ -0,0 +1,86 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import com.deanlofts.awslabjava.application.config.JfrProperties;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class JfrRecordingsTest {
+
+  private final JfrRecordings recordings =
+      new JfrRecordings(
+          new JfrProperties(
+              false,
+              "default",
+              Duration.ofMinutes(1),
+              DataSize.ofMegabytes(16),
+              "default",
+              Duration.ofSeconds(30),
+              Duration.ofMinutes(2),
+              DataSize.ofMegabytes(16),
+              1));
+
+  @TempDir Path tempDir;
+
+  @AfterEach
+  void tearDown() {
+    recordings.shutdown();
+  }
+
+  @Test
+  void dumpContainsWidgetOperationEvents() throws Exception {
+    JfrRecordings.RecordingSummary summary =
+        recordings.start("test", Duration.ofHours(1), "default");
+    assertThat(summary.duration()).isEqualTo(Duration.ofMinutes(2));
+
+    WidgetOperationEvent event = WidgetOperationEvent.begin("create");
+    event.succeeded("widget-1");
+    event.finish();
+
+    Resource dump = recordings.dump("test").orElseThrow();
+    Path copy = tempDir.resolve("test.jfr");
+    try (InputStream in = dump.getInputStream()) {
+      Files.copy(in, copy);
+    }
+    assertThat(dump.getFile()).doesNotExist();
+
+    List<RecordedEvent> events =
+        RecordingFile.readAllEvents(copy).stream()
+            .filter(
+                e -> e.getEventType().getName().equals("com.deanlofts.awslabjava.WidgetOperation"))
+            .toList();
+    assertThat(events)
+        .anySatisfy(
+            e -> {
+              assertThat(e.getString("operation")).isEqualTo("create");
+              assertThat(e.getString("widgetId")).isEqualTo("widget-1");
+              assertThat(e.getBoolean("success")).isTrue();
+            });
+  }
+
+  @Test
+  void rejectsRecordingsBeyondLimit() {
+    recordings.start("first", null, null);
+
+    assertThatThrownBy(() -> recordings.start("second", null, null))
+        .isInstanceOf(InvalidEndpointRequestException.class);
+    assertThat(recordings.close("first")).isPresent();
+    assertThat(recordings.list()).isEmpty();
+  }
+}
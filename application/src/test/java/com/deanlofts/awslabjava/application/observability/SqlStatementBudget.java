@@ -0,0 +1,58 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import java.util.List;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+
+public final class SqlStatementBudget {
+
+  private final List<String> statements;
+
+  private SqlStatementBudget(List<String> statements) {
+    this.statements = statements;
+  }
+
+  public static SqlStatementBudget of(ThrowingCallable action) {
+    try (SqlStatementTracker tracker = SqlStatementTracker.capture()) {
+      try {
+        action.call();
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new AssertionError("Action under SQL budget failed", ex);
+      }
+      return new SqlStatementBudget(tracker.capturedSql());
+    }
+  }
+
+  public SqlStatementBudget issuesAtMost(int budget) {
+    if (statements.size() > budget) {
+      throw new AssertionError(describe("at most " + budget));
+    }
+    return this;
+  }
+
+  public SqlStatementBudget issuesExactly(int count) {
+    if (statements.size() != count) {
+      throw new AssertionError(describe("exactly " + count));
+    }
+    return this;
+  }
+
+  public List<String> statements() {
+    return statements;
+  }
+
+  private String describe(String expectation) {
+    StringBuilder message =
+        new StringBuilder("Expected ")
+            .append(expectation)
+            .append(" SQL statements but ")
+            .append(statements.size())
+            .append(" were executed:");
+    for (int i = 0; i < statements.size(); i++) {
+      message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+    }
+    return message.toString();
+  }
+}
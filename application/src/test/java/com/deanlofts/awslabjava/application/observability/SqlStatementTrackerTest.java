@@ -0,0 +1,168 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadlineExceededException;
+
+class SqlStatementTrackerTest {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Statement statement = mock(Statement.class);
+  private final DataSource dataSource = new SqlStatementTrackingDataSource(target);
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(connection.createStatement()).thenReturn(statement);
+  }
+
+  @Test
+  void countsStatementsInEveryOpenScope() throws SQLException {
+    try (SqlStatementTracker outer = SqlStatementTracker.capture()) {
+      execute("select 1");
+      try (SqlStatementTracker inner = SqlStatementTracker.start(Duration.ofMinutes(1))) {
+        execute("select 2");
+        assertThat(inner.statements()).isEqualTo(1);
+        assertThat(inner.slowStatements()).isZero();
+      }
+      execute("select 3");
+
+      assertThat(outer.statements()).isEqualTo(3);
+      assertThat(outer.capturedSql()).containsExactly("select 1", "select 2", "select 3");
+      assertThat(outer.jdbcTime()).isPositive();
+    }
+    assertThat(SqlStatementTracker.current()).isNull();
+  }
+
+  @Test
+  void countsJdbcTemplateAndPlainStatements() {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    try (SqlStatementTracker tracker = SqlStatementTracker.capture()) {
+      jdbcTemplate.update("update widget_stats set widget_count = widget_count + ?", 1);
+      jdbcTemplate.execute("select nextval('widget_write_epoch')");
+
+      assertThat(tracker.capturedSql())
+          .containsExactly(
+              "update widget_stats set widget_count = widget_count + ?",
+              "select nextval('widget_write_epoch')");
+    }
+  }
+
+  @Test
+  void flagsStatementsAboveTheSlowThreshold() throws SQLException {
+    when(preparedStatement.execute())
+        .thenAnswer(
+            invocation -> {
+              busyWait(Duration.ofMillis(1));
+              return true;
+            });
+
+    try (SqlStatementTracker tracker = SqlStatementTracker.start(Duration.ofNanos(1))) {
+      execute("select * from widgets where id = ?");
+
+      assertThat(tracker.slowStatements()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void ignoresStatementsOutsideAScope() throws SQLException {
+    execute("select 1");
+
+    assertThat(SqlStatementTracker.current()).isNull();
+    verify(preparedStatement).execute();
+  }
+
+  @Test
+  void refusesToExecuteOnceTheRequestDeadlineHasPassed() throws SQLException {
+    try (RequestDeadline ignored = RequestDeadline.start(Duration.ZERO)) {
+      assertThatThrownBy(() -> execute("select 1"))
+          .isInstanceOf(RequestDeadlineExceededException.class);
+    }
+    verify(preparedStatement, never()).execute();
+  }
+
+  @Test
+  void boundsStatementsByTheRemainingDeadlineAndClearsItAfterwards() throws SQLException {
+    try (Connection tracked = dataSource.getConnection();
+        PreparedStatement prepared = tracked.prepareStatement("select 1")) {
+      prepared.execute();
+      verify(preparedStatement, never()).setQueryTimeout(anyInt());
+      try (RequestDeadline ignored = RequestDeadline.start(Duration.ofSeconds(5))) {
+        prepared.execute();
+      }
+      verify(preparedStatement).setQueryTimeout(5);
+      prepared.execute();
+      verify(preparedStatement).setQueryTimeout(0);
+    }
+  }
+
+  @Test
+  void unwrapsToTheTrackedConnectionAndTheDriverConnection() throws SQLException {
+    when(connection.unwrap(Runnable.class)).thenReturn(() -> {});
+    try (Connection tracked = dataSource.getConnection()) {
+      assertThat(tracked.unwrap(Connection.class)).isSameAs(tracked);
+      assertThat(tracked.unwrap(Runnable.class)).isNotNull();
+      assertThat(tracked.prepareStatement("select 1").getConnection()).isSameAs(tracked);
+    }
+  }
+
+  @Test
+  void countsPlaceholdersOutsideLiterals() {
+    assertThat(
+            SqlStatementTracker.countParameters("update w set n = ?, d = '?' where id in (?, ?)"))
+        .isEqualTo(3);
+  }
+
+  @Test
+  void budgetReportsTheOffendingStatements() {
+    assertThatThrownBy(
+            () ->
+                SqlStatementBudget.of(
+                        () -> {
+                          execute("select a");
+                          execute("select b");
+                        })
+                    .issuesAtMost(1))
+        .isInstanceOf(AssertionError.class)
+        .hasMessageContaining("at most 1 SQL statements but 2")
+        .hasMessageContaining("2. select b");
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection tracked = dataSource.getConnection();
+        PreparedStatement prepared = tracked.prepareStatement(sql)) {
+      prepared.execute();
+    }
+  }
+
+  private static void busyWait(Duration duration) {
+    long deadline = System.nanoTime() + duration.toNanos();
+    while (System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+  }
+}
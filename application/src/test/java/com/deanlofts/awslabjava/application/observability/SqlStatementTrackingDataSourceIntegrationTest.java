@@ -0,0 +1,105 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.postgresql.jdbc.PgStatement;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadlineExceededException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+@Testcontainers
+class SqlStatementTrackingDataSourceIntegrationTest {
+
+  @SuppressWarnings("resource")
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("demo")
+          .withUsername("demo")
+          .withPassword("demo");
+
+  private static HikariDataSource pool;
+  private static SqlStatementTrackingDataSource dataSource;
+
+  @BeforeAll
+  static void start() {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(POSTGRES.getJdbcUrl());
+    config.setUsername(POSTGRES.getUsername());
+    config.setPassword(POSTGRES.getPassword());
+    config.setMaximumPoolSize(1);
+    pool = new HikariDataSource(config);
+    dataSource = new SqlStatementTrackingDataSource(pool);
+  }
+
+  @AfterAll
+  static void stop() {
+    pool.close();
+  }
+
+  @Test
+  void boundsEachStatementByTheRemainingBudgetWithoutExtraRoundTrips() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      try (SqlStatementTracker tracker = SqlStatementTracker.capture();
+          RequestDeadline ignored = RequestDeadline.start(Duration.ofMillis(500));
+          Statement statement = connection.createStatement()) {
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> statement.execute("SELECT pg_sleep(2)"))
+            .isInstanceOf(SQLException.class)
+            .hasMessageContaining("canceling statement");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(tracker.capturedSql()).containsExactly("SELECT pg_sleep(2)");
+      }
+      assertThat(setting(connection, "statement_timeout")).isEqualTo("0");
+    }
+  }
+
+  @Test
+  void clearsTheTimeoutWhenAStatementIsReusedWithoutADeadline() throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      try (RequestDeadline ignored = RequestDeadline.start(Duration.ofSeconds(5))) {
+        statement.execute("SELECT 1");
+        assertThat(statement.unwrap(PgStatement.class).getQueryTimeoutMs()).isBetween(1L, 5000L);
+      }
+      statement.execute("SELECT 1");
+      assertThat(statement.unwrap(PgStatement.class).getQueryTimeoutMs()).isZero();
+    }
+  }
+
+  @Test
+  void refusesStatementsOnceTheBudgetIsSpent() throws SQLException {
+    try (RequestDeadline deadline = RequestDeadline.start(Duration.ZERO);
+        Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      assertThatThrownBy(() -> statement.execute("SELECT 1"))
+          .isInstanceOf(RequestDeadlineExceededException.class);
+      assertThat(deadline.exceededDependencies()).containsExactly(RequestDeadline.POSTGRES);
+    }
+
+    assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  private static String setting(Connection connection, String name) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery("SHOW " + name)) {
+      result.next();
+      return result.getString(1);
+    }
+  }
+}
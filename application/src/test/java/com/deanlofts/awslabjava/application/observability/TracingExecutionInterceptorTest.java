@@ -0,0 +1,92 @@
+package com.deanlofts.awslabjava.application.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+class TracingExecutionInterceptorTest {
+
+  private final InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+  private final SdkTracerProvider tracerProvider =
+      SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+  private final Tracer tracer = tracerProvider.get("test");
+  private final TracingExecutionInterceptor interceptor = new TracingExecutionInterceptor(tracer);
+
+  @AfterEach
+  void tearDown() {
+    tracerProvider.close();
+  }
+
+  @Test
+  void recordsClientSpanAsChildOfCurrentSpan() {
+    ExecutionAttributes attributes = attributes("S3", "PutObject");
+    Context.AfterExecution context = mock(Context.AfterExecution.class);
+    when(context.httpResponse())
+        .thenReturn(
+            SdkHttpResponse.builder()
+                .statusCode(200)
+                .putHeader("x-amz-request-id", "req-1")
+                .build());
+
+    Span parent = tracer.spanBuilder("request").startSpan();
+    try (Scope ignored = parent.makeCurrent()) {
+      interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+      interceptor.afterExecution(context, attributes);
+    } finally {
+      parent.end();
+    }
+
+    SpanData span = exporter.getFinishedSpanItems().get(0);
+    assertThat(span.getName()).isEqualTo("S3.PutObject");
+    assertThat(span.getKind()).isEqualTo(SpanKind.CLIENT);
+    assertThat(span.getParentSpanId()).isEqualTo(parent.getSpanContext().getSpanId());
+    assertThat(span.getAttributes().get(AttributeKey.stringKey("aws.request_id")))
+        .isEqualTo("req-1");
+    assertThat(span.getAttributes().get(AttributeKey.longKey("http.response.status_code")))
+        .isEqualTo(200L);
+  }
+
+  @Test
+  void marksFailedCallsAsErrors() {
+    ExecutionAttributes attributes = attributes("SSM", "GetParameter");
+    Context.FailedExecution context = mock(Context.FailedExecution.class);
+    when(context.exception()).thenReturn(SdkClientException.create("timeout"));
+    when(context.httpResponse()).thenReturn(Optional.empty());
+
+    interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+    interceptor.onExecutionFailure(context, attributes);
+
+    List<SpanData> spans = exporter.getFinishedSpanItems();
+    assertThat(spans).hasSize(1);
+    assertThat(spans.get(0).getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+    assertThat(spans.get(0).getEvents()).extracting("name").containsExactly("exception");
+  }
+
+  private static ExecutionAttributes attributes(String service, String operation) {
+    return ExecutionAttributes.builder()
+        .put(SdkExecutionAttribute.SERVICE_NAME, service)
+        .put(SdkExecutionAttribute.OPERATION_NAME, operation)
+        .build();
+  }
+}
@@ -0,0 +1,97 @@
+package com.deanlofts.awslabjava.application.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+
+@Testcontainers
+class WidgetBulkLoaderIntegrationTest {
+
+  @SuppressWarnings("resource")
+  @Container
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("demo")
+          .withUsername("demo")
+          .withPassword("demo");
+
+  private static WidgetBulkLoader loader;
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void migrate() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    Flyway.configure().dataSource(dataSource).load().migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    loader = new WidgetBulkLoader(dataSource, jdbcTemplate);
+  }
+
+  @Test
+  void pagesImportedIdsOnBothSidesOfTheSignedLongBoundary() {
+    List<UUID> ids =
+        List.of(
+            UUID.fromString("00000000-0000-4000-8000-000000000001"),
+            UUID.fromString("3fffffff-ffff-4fff-bfff-ffffffffffff"),
+            UUID.fromString("7fffffff-ffff-4fff-bfff-ffffffffffff"),
+            UUID.fromString("80000000-0000-4000-8000-000000000000"),
+            UUID.fromString("c0000000-0000-4000-8000-000000000000"),
+            UUID.fromString("ffffffff-ffff-4fff-bfff-ffffffffffff"));
+    UUID importId = UUID.randomUUID();
+    List<WidgetImportRecord> records =
+        ids.stream()
+            .map(id -> new WidgetImportRecord(id, "paged " + id, "description", null, null))
+            .toList();
+
+    loader.load(importId, records.iterator(), 8192, 1000, line -> {}, () -> {});
+    List<UUID> paged = new ArrayList<>();
+    loader.forEachImported(importId, 2, widget -> paged.add(widget.id()));
+
+    assertThat(paged).containsExactlyElementsOf(sortedUnsigned(ids));
+  }
+
+  @Test
+  void returnsTheOffloadedDescriptionsItReplaces() {
+    UUID offloaded = UUID.randomUUID();
+    jdbcTemplate.update(
+        "INSERT INTO widgets (id, name, description_ref, description_sha256, description_size,"
+            + " created_at, updated_at) VALUES (?, 'offloaded', 'widget-descriptions/a.txt', 'a',"
+            + " 1, now(), now())",
+        offloaded);
+    List<WidgetImportRecord> records =
+        List.of(
+            new WidgetImportRecord(offloaded, "inline", "first", null, null),
+            new WidgetImportRecord(offloaded, "inline", "second", null, null),
+            new WidgetImportRecord(UUID.randomUUID(), "new", "description", null, null));
+
+    WidgetBulkLoader.LoadResult result =
+        loader.load(UUID.randomUUID(), records.iterator(), 8192, 1000, line -> {}, () -> {});
+
+    assertThat(result.replacedDescriptionRefs()).containsExactly("widget-descriptions/a.txt");
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT description FROM widgets WHERE id = ? AND description_ref IS NULL",
+                String.class,
+                offloaded))
+        .isEqualTo("second");
+  }
+
+  private static List<UUID> sortedUnsigned(List<UUID> ids) {
+    return ids.stream().sorted(Comparator.comparing(UUID::toString)).toList();
+  }
+}
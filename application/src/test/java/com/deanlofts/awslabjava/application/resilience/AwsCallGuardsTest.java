@@ -0,0 +1,130 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class AwsCallGuardsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AwsProperties.Dependency settings =
+      new AwsProperties.Dependency(
+          Duration.ofSeconds(1),
+          Duration.ofMillis(500),
+          50f,
+          Duration.ofSeconds(1),
+          4,
+          4,
+          Duration.ofMinutes(1),
+          2,
+          Duration.ZERO);
+  private final AwsCallGuards guards =
+      new AwsCallGuards(new AwsProperties.Resilience(settings, null, null), meterRegistry);
+
+  @Test
+  void opensAfterClientFailuresAndFailsFast() {
+    AwsCallGuard guard = guards.s3();
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(
+              () ->
+                  guard.call(
+                      () -> {
+                        throw SdkClientException.create("timeout");
+                      }))
+          .isInstanceOf(SdkClientException.class);
+    }
+
+    AtomicInteger invocations = new AtomicInteger();
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThatThrownBy(() -> guard.call(invocations::incrementAndGet))
+        .isInstanceOf(AwsDependencyUnavailableException.class)
+        .hasMessageContaining("circuit-open");
+    assertThat(invocations).hasValue(0);
+    assertThat(
+            meterRegistry
+                .get("aws.circuitbreaker.transitions")
+                .tag("dependency", AwsCallGuards.S3)
+                .tag("to", "OPEN")
+                .counter()
+                .count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void ignoresClientErrorsWhenComputingFailureRate() {
+    AwsCallGuard guard = guards.s3();
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(
+              () ->
+                  guard.call(
+                      () -> {
+                        throw S3Exception.builder().statusCode(404).build();
+                      }))
+          .isInstanceOf(S3Exception.class);
+    }
+
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  void guardsAreIndependentPerDependency() {
+    guards.secretsManager().getCircuitBreaker().transitionToOpenState();
+
+    assertThat(guards.secretsManager().isCallPermitted()).isFalse();
+    assertThat(guards.ssm().isCallPermitted()).isTrue();
+    assertThat(guards.s3().isCallPermitted()).isTrue();
+  }
+
+  @Test
+  void failsFastOnceTheRequestDeadlineIsSpent() {
+    AwsCallGuard guard = guards.s3();
+    AtomicInteger invocations = new AtomicInteger();
+
+    try (RequestDeadline deadline = RequestDeadline.start(Duration.ZERO)) {
+      assertThatThrownBy(() -> guard.call(invocations::incrementAndGet))
+          .isInstanceOf(AwsDependencyUnavailableException.class)
+          .hasMessageContaining("deadline-exceeded");
+      assertThat(deadline.exceededDependencies()).containsExactly(AwsCallGuards.S3);
+    }
+    assertThat(invocations).hasValue(0);
+  }
+
+  @Test
+  void timeoutsCausedByTheDeadlineDoNotOpenTheCircuit() {
+    AwsCallGuard guard = guards.s3();
+    for (int i = 0; i < 4; i++) {
+      try (RequestDeadline deadline = RequestDeadline.start(Duration.ofMillis(5))) {
+        assertThatThrownBy(
+                () ->
+                    guard.call(
+                        () -> {
+                          sleep(Duration.ofMillis(10));
+                          throw SdkClientException.create("api call timeout");
+                        }))
+            .isInstanceOf(AwsDependencyUnavailableException.class);
+      }
+    }
+
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(RequestDeadline.current()).isNull();
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.deanlofts.awslabjava.application.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer;
+import com.deanlofts.awslabjava.application.fakeaws.FakeAwsServer.Service;
+import com.deanlofts.awslabjava.application.fakeaws.FaultProfile;
+import com.deanlofts.awslabjava.application.fakeaws.LatencyDistribution;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+class DeadlineExecutionInterceptorTest {
+
+  private final FakeAwsServer fake = FakeAwsServer.start(0, 42).bucket("widgets");
+  private final S3Client s3 =
+      S3Client.builder()
+          .region(Region.US_EAST_1)
+          .endpointOverride(fake.endpoint())
+          .forcePathStyle(true)
+          .credentialsProvider(
+              StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+          .overrideConfiguration(
+              ClientOverrideConfiguration.builder()
+                  .apiCallTimeout(Duration.ofSeconds(5))
+                  .addExecutionInterceptor(new DeadlineExecutionInterceptor(Duration.ofSeconds(5)))
+                  .build())
+          .build();
+
+  @AfterEach
+  void tearDown() {
+    s3.close();
+    fake.close();
+  }
+
+  @Test
+  void shortensTheApiCallTimeoutToTheRemainingRequestBudget() {
+    fake.faults(
+        Service.S3,
+        FaultProfile.healthy().withLatency(LatencyDistribution.fixed(Duration.ofSeconds(2))));
+
+    long started = System.nanoTime();
+    try (RequestDeadline ignored = RequestDeadline.start(Duration.ofMillis(200))) {
+      assertThatThrownBy(() -> put("slow.json")).isInstanceOf(ApiCallTimeoutException.class);
+    }
+
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void leavesCallsWithoutADeadlineOnTheClientTimeout() {
+    fake.faults(
+        Service.S3,
+        FaultProfile.healthy().withLatency(LatencyDistribution.fixed(Duration.ofMillis(300))));
+
+    put("unbounded.json");
+
+    assertThat(fake.object("widgets", "widget-metadata/unbounded.json")).isPresent();
+  }
+
+  @Test
+  void keepsTheClientTimeoutWhenItIsShorterThanTheBudget() {
+    fake.faults(
+        Service.S3,
+        FaultProfile.healthy().withLatency(LatencyDistribution.fixed(Duration.ofMillis(300))));
+
+    try (RequestDeadline ignored = RequestDeadline.start(Duration.ofMinutes(1))) {
+      put("generous.json");
+    }
+
+    assertThat(fake.object("widgets", "widget-metadata/generous.json")).isPresent();
+  }
+
+  private void put(String name) {
+    s3.putObject(
+        request -> request.bucket("widgets").key("widget-metadata/" + name),
+        RequestBody.fromString("{}"));
+  }
+}
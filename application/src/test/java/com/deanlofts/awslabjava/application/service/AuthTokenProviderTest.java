@@ -2,12 +2,16 @@ package com.deanlofts.awslabjava.application.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-import java.util.Optional;
-
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 
 import com.deanlofts.awslabjava.application.config.AppProperties;
 import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
 
 class AuthTokenProviderTest {
 
@@ -15,10 +19,15 @@ class AuthTokenProviderTest {
   void fallsBackToApplicationPropertiesWhenAwsSourcesNotConfigured() {
     AppProperties appProperties =
         new AppProperties("demo", "tester", "test", "demo-token", null, null);
-    AwsProperties awsProperties = new AwsProperties(null, null, null, null);
+    AwsProperties awsProperties = new AwsProperties(null, null, null, null, null, null, null);
 
     AuthTokenProvider provider =
-        new AuthTokenProvider(appProperties, awsProperties, Optional.empty(), Optional.empty());
+        new AuthTokenProvider(
+            appProperties,
+            awsProperties,
+            new StaticListableBeanFactory().getBeanProvider(SecretsManagerClient.class),
+            new StaticListableBeanFactory().getBeanProvider(SsmClient.class),
+            new AwsCallGuards(awsProperties.getResilience(), new SimpleMeterRegistry()));
 
     assertThat(provider.requiredToken()).isEqualTo("demo-token");
     assertThat(provider.metadata())
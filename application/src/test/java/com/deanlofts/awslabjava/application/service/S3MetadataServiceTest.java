@@ -0,0 +1,161 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.deanlofts.awslabjava.application.config.AppProperties;
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.resilience.RequestDeadline;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+class S3MetadataServiceTest {
+
+  private final UUID id = UUID.randomUUID();
+  private final S3Client s3Client = mock(S3Client.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AwsCallGuards guards =
+      new AwsCallGuards(
+          new AwsProperties.Resilience(
+              new AwsProperties.Dependency(
+                  Duration.ofSeconds(1),
+                  Duration.ofMillis(500),
+                  50f,
+                  Duration.ofSeconds(1),
+                  4,
+                  4,
+                  Duration.ofMinutes(1),
+                  1,
+                  Duration.ZERO),
+              null,
+              null),
+          new SimpleMeterRegistry());
+  private final S3MetadataService service = service();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    service.shutdown();
+  }
+
+  @Test
+  void aDeleteSupersedesAnOlderDeferredPut() {
+    guards.s3().getCircuitBreaker().transitionToOpenState();
+
+    service.writeWidgetMetadata(widget("first"));
+    service.deleteWidgetMetadata(id.toString());
+    assertThat(service.pendingDeferredWrites()).isEqualTo(1);
+    guards.s3().getCircuitBreaker().transitionToHalfOpenState();
+
+    verify(s3Client, timeout(2000)).deleteObject(any(DeleteObjectRequest.class));
+    verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    assertThat(meterRegistry.counter("aws.s3.metadata.superseded").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void writesDeferredWhileTheCircuitIsClosedAreReplayedWithTheLatestContent() throws IOException {
+    CompletableFuture<Void> holder =
+        CompletableFuture.runAsync(
+            () ->
+                guards
+                    .s3()
+                    .run(
+                        () -> {
+                          try {
+                            release.await();
+                          } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                          }
+                        }));
+    awaitBulkheadFull();
+
+    service.writeWidgetMetadata(widget("first"));
+    service.writeWidgetMetadata(widget("second"));
+    assertThat(service.pendingDeferredWrites()).isEqualTo(1);
+    release.countDown();
+    holder.join();
+
+    ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+    verify(s3Client, timeout(2000)).putObject(any(PutObjectRequest.class), body.capture());
+    try (InputStream in = body.getValue().contentStreamProvider().newStream()) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains("\"second\"");
+    }
+    awaitDrained();
+  }
+
+  @Test
+  void writesDeferredPastTheRequestDeadlineAreReplayedOutsideTheRequest() {
+    try (RequestDeadline ignored = RequestDeadline.start(Duration.ZERO)) {
+      service.writeWidgetMetadata(widget("late"));
+    }
+
+    verify(s3Client, timeout(2000)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    assertThat(meterRegistry.counter("aws.s3.metadata.deferred").count()).isEqualTo(1.0);
+    awaitDrained();
+  }
+
+  private void awaitDrained() {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (service.pendingDeferredWrites() > 0) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.onSpinWait();
+    }
+  }
+
+  private void awaitBulkheadFull() {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (guards.s3().getAvailableConcurrentCalls() > 0) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.onSpinWait();
+    }
+  }
+
+  private WidgetDto widget(String name) {
+    return new WidgetDto(id, name, "description", Instant.EPOCH, Instant.EPOCH);
+  }
+
+  private S3MetadataService service() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("s3Client", s3Client);
+    return new S3MetadataService(
+        new AppProperties("demo", "tester", "test", "token", new AppProperties.Feature(true), null),
+        new AwsProperties(
+            null,
+            null,
+            null,
+            new AwsProperties.S3("bucket", "widget-metadata/", 10, Duration.ofMillis(100)),
+            null,
+            null,
+            null),
+        beanFactory.getBeanProvider(S3Client.class),
+        JsonMapper.builder().findAndAddModules().build(),
+        guards,
+        meterRegistry);
+  }
+}
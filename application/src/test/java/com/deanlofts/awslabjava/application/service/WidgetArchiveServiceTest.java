@@ -0,0 +1,185 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.deanlofts.awslabjava.application.config.ArchiveProperties;
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.repository.WidgetArchiveRepository;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+class WidgetArchiveServiceTest {
+
+  private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+  private final S3Client s3Client = mock(S3Client.class);
+  private final WidgetArchiveRepository archiveRepository = mock(WidgetArchiveRepository.class);
+  private final JsonMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<WidgetImportRecord> records =
+      IntStream.range(0, 3)
+          .mapToObj(
+              i ->
+                  new WidgetImportRecord(
+                      UUID.randomUUID(), "cold-" + i, "description " + i, NOW, NOW))
+          .toList();
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void archivesOldWidgetsAsCompressedNdjson() throws IOException {
+    when(archiveRepository.archiveBatch(any(), anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              invocation.getArgument(2, Function.class).apply(records);
+              return records.size();
+            });
+
+    int archived = service().archive();
+
+    assertThat(archived).isEqualTo(3);
+    verify(archiveRepository, times(1))
+        .archiveBatch(eq(NOW.minus(Duration.ofDays(180))), eq(10), any());
+    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+    ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+    verify(s3Client).putObject(request.capture(), body.capture());
+    assertThat(request.getValue().key()).startsWith("widget-archive/").endsWith(".ndjson.gz");
+    try (InputStream in =
+        new GZIPInputStream(body.getValue().contentStreamProvider().newStream())) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines())
+          .hasSize(3)
+          .allSatisfy(line -> assertThat(line).contains("\"name\":\"cold-"));
+    }
+    assertThat(meterRegistry.get("widgets.archived").counter().count()).isEqualTo(3.0);
+    assertThat(meterRegistry.get("widgets.archive.size").summary().count()).isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void removesTheUploadedObjectWhenTheBatchRollsBack() {
+    when(archiveRepository.archiveBatch(any(), anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              invocation.getArgument(2, Function.class).apply(records);
+              throw new IllegalStateException("Widget archive batch failed");
+            });
+
+    assertThatThrownBy(() -> service().archive()).isInstanceOf(IllegalStateException.class);
+
+    ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(s3Client).putObject(put.capture(), any(RequestBody.class));
+    ArgumentCaptor<DeleteObjectRequest> delete = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+    verify(s3Client).deleteObject(delete.capture());
+    assertThat(delete.getValue().key()).isEqualTo(put.getValue().key());
+  }
+
+  @Test
+  void rehydratesFromS3OnceThenServesTheCache() throws IOException {
+    WidgetImportRecord wanted = records.get(1);
+    when(archiveRepository.findArchiveKeys(List.of(wanted.id())))
+        .thenReturn(Map.of(wanted.id(), "widget-archive/a.ndjson.gz"));
+    when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(archiveObject());
+    WidgetArchiveService service = service();
+
+    assertThat(service.find(wanted.id())).contains(wanted);
+    assertThat(service.find(wanted.id())).contains(wanted);
+
+    verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+    assertThat(meterRegistry.get("widgets.archive.rehydration").tag("source", "s3").timer().count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry.get("widgets.archive.rehydration").tag("source", "cache").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void restoreReinsertsTheRowAndRemovesEmptyArchives() throws IOException {
+    WidgetImportRecord wanted = records.get(0);
+    when(archiveRepository.findArchiveKeys(List.of(wanted.id())))
+        .thenReturn(Map.of(wanted.id(), "widget-archive/a.ndjson.gz"));
+    when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(archiveObject());
+    when(archiveRepository.restore(wanted)).thenReturn(true);
+
+    assertThat(service().restore(wanted.id())).isTrue();
+
+    verify(archiveRepository).restore(wanted);
+    verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  private ResponseInputStream<GetObjectResponse> archiveObject() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      for (WidgetImportRecord record : records) {
+        gzip.write(objectMapper.writeValueAsBytes(record));
+        gzip.write('\n');
+      }
+    }
+    return new ResponseInputStream<>(
+        GetObjectResponse.builder().build(),
+        AbortableInputStream.create(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  private WidgetArchiveService service() {
+    AwsProperties awsProperties =
+        new AwsProperties(
+            null,
+            null,
+            null,
+            new AwsProperties.S3("bucket", "widget-metadata/", 500, Duration.ofSeconds(5)),
+            null,
+            null,
+            null);
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("s3Client", s3Client);
+    return new WidgetArchiveService(
+        new ArchiveProperties(
+            false, Duration.ofDays(180), 10, 5, Duration.ofHours(1), "widget-archive/", 100),
+        awsProperties,
+        beanFactory.getBeanProvider(S3Client.class),
+        archiveRepository,
+        mock(WidgetWriteEpoch.class),
+        new AwsCallGuards(awsProperties.getResilience(), new SimpleMeterRegistry()),
+        objectMapper,
+        meterRegistry,
+        Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+}
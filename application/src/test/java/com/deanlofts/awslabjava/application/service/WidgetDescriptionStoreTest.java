@@ -0,0 +1,174 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.config.DescriptionProperties;
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.repository.WidgetDescriptionRepository;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.deanlofts.awslabjava.application.service.WidgetDescriptionStore.PreparedDescription;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+class WidgetDescriptionStoreTest {
+
+  private final S3Client s3Client = mock(S3Client.class);
+  private final WidgetDescriptionRepository descriptionRepository =
+      mock(WidgetDescriptionRepository.class);
+
+  @Test
+  void keepsSmallDescriptionsInline() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+    WidgetEntity entity = new WidgetEntity();
+
+    store.assign(entity, "short");
+
+    assertThat(entity.getDescription()).isEqualTo("short");
+    assertThat(entity.getDescriptionRef()).isNull();
+    verifyNoInteractions(s3Client);
+  }
+
+  @Test
+  void offloadsDescriptionsAboveThresholdByContentHash() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+    WidgetEntity entity = new WidgetEntity();
+    String description = "é".repeat(10);
+    String sha256 = WidgetDescriptionStore.sha256(description.getBytes(StandardCharsets.UTF_8));
+
+    store.assign(entity, description);
+
+    assertThat(entity.getDescription()).isNull();
+    assertThat(entity.getDescriptionRef()).isEqualTo("widget-descriptions/" + sha256 + ".txt");
+    assertThat(entity.getDescriptionSha256()).isEqualTo(sha256);
+    assertThat(entity.getDescriptionSize()).isEqualTo(20L);
+    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(s3Client).putObject(request.capture(), any(RequestBody.class));
+    assertThat(request.getValue().bucket()).isEqualTo("bucket");
+    assertThat(request.getValue().key()).isEqualTo(entity.getDescriptionRef());
+  }
+
+  @AfterEach
+  void clearSynchronization() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  @Test
+  void uploadsWithoutLockingAndConfirmsTheObjectAfterCommit() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+    WidgetEntity entity = new WidgetEntity();
+
+    PreparedDescription description = store.prepare("x".repeat(32));
+    verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    verifyNoInteractions(descriptionRepository);
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    store.assign(entity, description);
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    clearSynchronization();
+    verifyNoInteractions(descriptionRepository);
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+    verify(s3Client, timeout(5000)).headObject(any(HeadObjectRequest.class));
+    InOrder order = inOrder(descriptionRepository, s3Client);
+    order.verify(descriptionRepository).lockShared(description.objectKey());
+    order.verify(s3Client).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  void discardRemovesAnUnreferencedUpload() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+
+    PreparedDescription description = store.prepare("x".repeat(32));
+    store.discard(description);
+
+    verify(s3Client, timeout(5000)).deleteObject(any(DeleteObjectRequest.class));
+    InOrder order = inOrder(descriptionRepository, s3Client);
+    order.verify(descriptionRepository).lockExclusive(description.objectKey());
+    order.verify(descriptionRepository).countReferences(description.objectKey());
+    order.verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  @Test
+  void retriesAFailedRemoval() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+    when(descriptionRepository.countReferences("widget-descriptions/orphan.txt"))
+        .thenThrow(new QueryTimeoutException("timeout"))
+        .thenReturn(0L);
+
+    store.releaseAfterCommit("widget-descriptions/orphan.txt");
+
+    verify(s3Client, timeout(5000)).deleteObject(any(DeleteObjectRequest.class));
+    verify(descriptionRepository, times(2)).lockExclusive("widget-descriptions/orphan.txt");
+  }
+
+  @Test
+  void keepsAnObjectThatIsStillReferenced() {
+    WidgetDescriptionStore store = store(DataSize.ofBytes(16));
+    when(descriptionRepository.countReferences("widget-descriptions/shared.txt")).thenReturn(1L);
+
+    store.releaseAfterCommit("widget-descriptions/shared.txt");
+
+    verify(descriptionRepository, timeout(5000)).countReferences("widget-descriptions/shared.txt");
+    InOrder order = inOrder(descriptionRepository);
+    order.verify(descriptionRepository).lockExclusive("widget-descriptions/shared.txt");
+    order.verify(descriptionRepository).countReferences("widget-descriptions/shared.txt");
+    verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+  }
+
+  private WidgetDescriptionStore store(DataSize threshold) {
+    AwsProperties awsProperties =
+        new AwsProperties(
+            null,
+            null,
+            null,
+            new AwsProperties.S3("bucket", "widget-metadata/", 500, Duration.ofSeconds(5)),
+            null,
+            null,
+            null);
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("s3Client", s3Client);
+    return new WidgetDescriptionStore(
+        new DescriptionProperties(
+            true, threshold, "widget-descriptions/", 3, Duration.ofMillis(10)),
+        awsProperties,
+        beanFactory.getBeanProvider(S3Client.class),
+        descriptionRepository,
+        mock(PlatformTransactionManager.class),
+        new AwsCallGuards(awsProperties.getResilience(), new SimpleMeterRegistry()),
+        new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,222 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.GroupCommitProperties;
+import com.deanlofts.awslabjava.application.config.IdProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetIdVersion;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.repository.WidgetBatchInserter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WidgetGroupCommitServiceTest {
+
+  private final WidgetService widgetService = mock(WidgetService.class);
+  private final WidgetBatchInserter batchInserter = mock(WidgetBatchInserter.class);
+  private final WidgetDescriptionStore descriptionStore = mock(WidgetDescriptionStore.class);
+  private final S3MetadataService s3MetadataService = mock(S3MetadataService.class);
+  private final WidgetStatsService widgetStatsService = mock(WidgetStatsService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+  private final ExecutorService callers = Executors.newFixedThreadPool(4);
+  private WidgetGroupCommitService service;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    callers.shutdownNow();
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  void delegatesToWidgetServiceWhenDisabled() {
+    service = service(false, 8);
+    WidgetRequest request = new WidgetRequest("name", "description");
+
+    service.create(request);
+
+    verify(widgetService).create(request);
+    verifyNoInteractions(batchInserter);
+  }
+
+  @Test
+  void coalescesConcurrentCreatesIntoOneInsert() {
+    recordBatches();
+    service = service(true, 4);
+
+    List<WidgetDto> created = createConcurrently("a", "b", "c", "d");
+
+    assertThat(created).extracting(WidgetDto::name).containsExactly("a", "b", "c", "d");
+    assertThat(created).allSatisfy(dto -> assertThat(dto.id().version()).isEqualTo(7));
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0)).containsExactlyInAnyOrder("a", "b", "c", "d");
+    verify(widgetStatsService, times(4)).recordCreated();
+    verify(s3MetadataService, times(4)).writeWidgetMetadata(any());
+    assertThat(meterRegistry.get("widgets.create.batch.size").summary().totalAmount()).isEqualTo(4);
+  }
+
+  @Test
+  void failedBatchIsRetriedSoOnlyTheOffendingCallerFails() {
+    recordBatches();
+    doAnswer(
+            invocation -> {
+              List<WidgetEntity> widgets = invocation.getArgument(0);
+              if (widgets.stream().anyMatch(widget -> widget.getName().equals("bad"))) {
+                throw new DataIntegrityViolationException("duplicate");
+              }
+              return null;
+            })
+        .when(batchInserter)
+        .insertAll(anyList());
+    service = service(true, 3);
+
+    List<CompletableFuture<WidgetDto>> results =
+        List.of("ok-1", "bad", "ok-2").stream()
+            .map(name -> CompletableFuture.supplyAsync(() -> create(name), callers))
+            .toList();
+
+    assertThat(results.get(0).join().name()).isEqualTo("ok-1");
+    assertThat(results.get(2).join().name()).isEqualTo("ok-2");
+    assertThatThrownBy(results.get(1)::join)
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    verify(widgetStatsService, times(2)).recordCreated();
+    verify(descriptionStore).releaseAfterCommit(any());
+  }
+
+  @Test
+  void callerThatTimesOutAfterItsRowWasPickedUpStillGetsTheCommittedWidget() {
+    CountDownLatch inserting = new CountDownLatch(1);
+    List<WidgetEntity> inserted = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(
+            invocation -> {
+              inserting.countDown();
+              Thread.sleep(300);
+              inserted.addAll(invocation.getArgument(0));
+              return null;
+            })
+        .when(batchInserter)
+        .insertAll(anyList());
+    service = service(true, 1, Duration.ofMillis(1), Duration.ofMillis(50));
+
+    WidgetDto created = create("slow");
+
+    assertThat(inserting.getCount()).isZero();
+    assertThat(created.name()).isEqualTo("slow");
+    assertThat(inserted)
+        .singleElement()
+        .extracting(WidgetEntity::getContentSha256)
+        .isEqualTo(WidgetService.contentSha256("slow", "description"));
+    verify(widgetStatsService).recordCreated();
+    verify(s3MetadataService).writeWidgetMetadata(created);
+    verify(descriptionStore, times(0)).releaseAfterCommit(any());
+  }
+
+  @Test
+  void callerThatTimesOutBeforeItsRowWasPickedUpIsNeverInserted() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(batchInserter)
+        .insertAll(anyList());
+    service = service(true, 1, Duration.ofMillis(1), Duration.ofMillis(50));
+    CompletableFuture<WidgetDto> blocker =
+        CompletableFuture.supplyAsync(() -> create("blocker"), callers);
+    Thread.sleep(20);
+
+    assertThatThrownBy(() -> create("abandoned"))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Timed out");
+    release.countDown();
+
+    assertThat(blocker.join().name()).isEqualTo("blocker");
+    verify(batchInserter, times(1)).insertAll(anyList());
+    verify(widgetStatsService, times(1)).recordCreated();
+    verify(descriptionStore).releaseAfterCommit(any());
+  }
+
+  private List<WidgetDto> createConcurrently(String... names) {
+    List<CompletableFuture<WidgetDto>> futures =
+        List.of(names).stream()
+            .map(name -> CompletableFuture.supplyAsync(() -> create(name), callers))
+            .toList();
+    return futures.stream().map(CompletableFuture::join).toList();
+  }
+
+  private WidgetDto create(String name) {
+    return service.create(new WidgetRequest(name, "description"));
+  }
+
+  private void recordBatches() {
+    doAnswer(
+            invocation -> {
+              List<WidgetEntity> widgets = invocation.getArgument(0);
+              batches.add(widgets.stream().map(WidgetEntity::getName).toList());
+              return null;
+            })
+        .when(batchInserter)
+        .insertAll(anyList());
+  }
+
+  private WidgetGroupCommitService service(boolean enabled, int maxBatchSize) {
+    return service(enabled, maxBatchSize, Duration.ofSeconds(2), Duration.ofSeconds(5));
+  }
+
+  private WidgetGroupCommitService service(
+      boolean enabled, int maxBatchSize, Duration maxDelay, Duration awaitTimeout) {
+    doAnswer(
+            invocation -> {
+              WidgetEntity entity = invocation.getArgument(0);
+              String description = invocation.getArgument(1);
+              entity.setDescription(description);
+              entity.setDescriptionSha256(
+                  WidgetDescriptionStore.sha256(description.getBytes(StandardCharsets.UTF_8)));
+              return null;
+            })
+        .when(descriptionStore)
+        .assign(any(), anyString());
+    return new WidgetGroupCommitService(
+        new GroupCommitProperties(enabled, maxBatchSize, maxDelay, 100, awaitTimeout),
+        new IdProperties(WidgetIdVersion.V7),
+        widgetService,
+        batchInserter,
+        descriptionStore,
+        s3MetadataService,
+        widgetStatsService,
+        mock(WidgetWriteEpoch.class),
+        meterRegistry);
+  }
+}
@@ -0,0 +1,135 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.deanlofts.awslabjava.application.config.AwsProperties;
+import com.deanlofts.awslabjava.application.config.ImportProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetImportFormat;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.dto.WidgetImportStatus;
+import com.deanlofts.awslabjava.application.repository.WidgetBulkLoader;
+import com.deanlofts.awslabjava.application.resilience.AwsCallGuards;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.s3.S3Client;
+
+class WidgetImportServiceTest {
+
+  private final WidgetBulkLoader bulkLoader = mock(WidgetBulkLoader.class);
+  private final WidgetArchiveService widgetArchive = mock(WidgetArchiveService.class);
+  private final WidgetDescriptionStore descriptionStore = mock(WidgetDescriptionStore.class);
+  private final List<WidgetImportRecord> staged = new ArrayList<>();
+  private final WidgetImportService service = service();
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void malformedNdjsonLinesAreRejectedWithoutFailingTheJob() {
+    String body =
+        """
+        {"name":"first","description":"one"}
+        {"name":"broken",
+        {"id":"not-a-uuid","name":"bad id","description":"two"}
+
+        {"name":"second","description":"three"}
+        """;
+
+    WidgetImportStatus status = importBody(body, WidgetImportFormat.NDJSON);
+
+    assertThat(status.phase()).isEqualTo("COMPLETED");
+    assertThat(status.rowsRejected()).isEqualTo(2);
+    assertThat(staged)
+        .extracting(record -> record == null ? null : record.name())
+        .containsExactly("first", null, null, "second");
+  }
+
+  @Test
+  void malformedCsvRowsAreRejectedWithoutFailingTheJob() {
+    String body =
+        """
+        id,name,description
+        ,first,one
+        not-a-uuid,bad id,two
+        ,second,three
+        """;
+
+    WidgetImportStatus status = importBody(body, WidgetImportFormat.CSV);
+
+    assertThat(status.phase()).isEqualTo("COMPLETED");
+    assertThat(status.rowsRejected()).isEqualTo(1);
+    assertThat(staged)
+        .extracting(record -> record == null ? null : record.name())
+        .containsExactly("first", null, "second");
+  }
+
+  @Test
+  void releasesArchivesWhoseTombstonesTheImportReplaced() {
+    importBody("{\"name\":\"restored\",\"description\":\"one\"}\n", WidgetImportFormat.NDJSON);
+
+    verify(widgetArchive).releaseAll(List.of("widget-archive/old.ndjson.gz"));
+  }
+
+  @Test
+  void releasesOffloadedDescriptionsTheImportReplaced() {
+    importBody("{\"name\":\"inline\",\"description\":\"one\"}\n", WidgetImportFormat.NDJSON);
+
+    verify(descriptionStore).releaseAfterCommit("widget-descriptions/old.txt");
+  }
+
+  private WidgetImportStatus importBody(String body, WidgetImportFormat format) {
+    when(bulkLoader.load(any(), any(), anyInt(), anyLong(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              Iterator<WidgetImportRecord> records = invocation.getArgument(1);
+              records.forEachRemaining(staged::add);
+              long rejected = staged.stream().filter(record -> record == null).count();
+              return new WidgetBulkLoader.LoadResult(
+                  staged.size() - rejected,
+                  rejected,
+                  staged.size() - rejected,
+                  0,
+                  List.of("widget-archive/old.ndjson.gz"),
+                  List.of("widget-descriptions/old.txt"));
+            });
+    return service.importStream(
+        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, "test");
+  }
+
+  private WidgetImportService service() {
+    AwsProperties awsProperties = new AwsProperties(null, null, null, null, null, null, null);
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    return new WidgetImportService(
+        new ImportProperties(null, 8192, 1000, 100, 5),
+        awsProperties,
+        bulkLoader,
+        mock(S3MetadataService.class),
+        mock(WidgetStatsService.class),
+        mock(WidgetWriteEpoch.class),
+        widgetArchive,
+        descriptionStore,
+        beanFactory.getBeanProvider(S3Client.class),
+        new AwsCallGuards(awsProperties.getResilience(), new SimpleMeterRegistry()),
+        JsonMapper.builder().findAndAddModules().build(),
+        new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,115 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.deanlofts.awslabjava.application.config.ListCacheProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WidgetListCacheTest {
+
+  private final WidgetService widgetService = mock(WidgetService.class);
+  private final WidgetWriteEpoch writeEpoch = mock(WidgetWriteEpoch.class);
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<WidgetDto> widgets =
+      List.of(new WidgetDto(UUID.randomUUID(), "cached", "x".repeat(2048), null, null));
+
+  @Test
+  void servesCachedBytesUntilTheEpochMoves() throws IOException {
+    when(widgetService.findAll(WidgetField.ALL)).thenReturn(widgets);
+    when(writeEpoch.current())
+        .thenReturn(new WidgetWriteEpoch.Epoch(1, 0))
+        .thenReturn(new WidgetWriteEpoch.Epoch(1, 0))
+        .thenReturn(new WidgetWriteEpoch.Epoch(2, 0));
+    WidgetListCache cache = cache(true, DataSize.ofMegabytes(1));
+
+    WidgetListCache.CachedList first = cache.list(WidgetField.ALL);
+    WidgetListCache.CachedList second = cache.list(WidgetField.ALL);
+    cache.list(WidgetField.ALL);
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.json()).isEqualTo(objectMapper.writeValueAsBytes(widgets));
+    assertThat(gunzip(first.gzip())).isEqualTo(first.json());
+    verify(widgetService, times(2)).findAll(WidgetField.ALL);
+    assertThat(meterRegistry.counter("widgets.list.cache", "result", "hit").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void keysEntriesByRequestedFields() {
+    Set<WidgetField> idsOnly = WidgetField.parse("id");
+    when(widgetService.findAll(WidgetField.ALL)).thenReturn(widgets);
+    when(widgetService.findAll(idsOnly)).thenReturn(List.of());
+    when(writeEpoch.current()).thenReturn(new WidgetWriteEpoch.Epoch(1, 0));
+    WidgetListCache cache = cache(true, DataSize.ofMegabytes(1));
+
+    cache.list(WidgetField.ALL);
+    cache.list(idsOnly);
+
+    assertThat(cache.list(idsOnly).json()).isEqualTo("[]".getBytes(StandardCharsets.UTF_8));
+    assertThat(cache.list(WidgetField.ALL).json()).hasSizeGreaterThan(2048);
+    verify(widgetService, times(1)).findAll(idsOnly);
+    verify(widgetService, times(1)).findAll(WidgetField.ALL);
+  }
+
+  @Test
+  void evictsEntriesBeyondTheMemoryBound() {
+    when(widgetService.findAll(WidgetField.ALL)).thenReturn(widgets);
+    when(writeEpoch.current()).thenReturn(new WidgetWriteEpoch.Epoch(1, 0));
+    WidgetListCache cache = cache(true, DataSize.ofBytes(1024));
+
+    cache.list(WidgetField.ALL);
+    cache.list(WidgetField.ALL);
+
+    verify(widgetService, times(2)).findAll(WidgetField.ALL);
+    assertThat(meterRegistry.get("widgets.list.cache.size").gauge().value()).isZero();
+  }
+
+  @Test
+  void rendersEveryRequestWhenDisabled() {
+    when(widgetService.findAll(WidgetField.ALL)).thenReturn(widgets);
+    WidgetListCache cache = cache(false, DataSize.ofMegabytes(1));
+
+    WidgetListCache.CachedList body = cache.list(WidgetField.ALL);
+    cache.list(WidgetField.ALL);
+
+    assertThat(body.gzip()).isNull();
+    verify(widgetService, times(2)).findAll(WidgetField.ALL);
+    verify(writeEpoch, times(0)).current();
+  }
+
+  private WidgetListCache cache(boolean enabled, DataSize maxSize) {
+    return new WidgetListCache(
+        widgetService,
+        writeEpoch,
+        objectMapper,
+        new ListCacheProperties(
+            enabled, maxSize, true, DataSize.ofKilobytes(1), Duration.ZERO, true),
+        meterRegistry);
+  }
+
+  private static byte[] gunzip(byte[] gzip) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,355 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.deanlofts.awslabjava.application.config.ReadCoalescingProperties;
+import com.deanlofts.awslabjava.application.domain.WidgetField;
+import com.deanlofts.awslabjava.application.domain.WidgetImportRecord;
+import com.deanlofts.awslabjava.application.domain.WidgetPatch;
+import com.deanlofts.awslabjava.application.domain.WidgetRequest;
+import com.deanlofts.awslabjava.application.dto.WidgetBatchGetResult;
+import com.deanlofts.awslabjava.application.dto.WidgetDto;
+import com.deanlofts.awslabjava.application.entity.WidgetEntity;
+import com.deanlofts.awslabjava.application.repository.WidgetDetailView;
+import com.deanlofts.awslabjava.application.repository.WidgetRepository;
+import com.deanlofts.awslabjava.application.service.WidgetDescriptionStore.PreparedDescription;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WidgetServiceTest {
+
+  private final UUID id = UUID.randomUUID();
+  private final WidgetRepository widgetRepository = mock(WidgetRepository.class);
+  private final S3MetadataService s3MetadataService = mock(S3MetadataService.class);
+  private final WidgetDescriptionStore descriptionStore = mock(WidgetDescriptionStore.class);
+  private final WidgetArchiveService widgetArchive = mock(WidgetArchiveService.class);
+  private final WidgetWriteEpoch writeEpoch = mock(WidgetWriteEpoch.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService callers = Executors.newFixedThreadPool(4);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final WidgetDetailView detail = detail();
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+  }
+
+  @Test
+  void concurrentLookupsShareOneQuery() {
+    when(widgetRepository.findDetailById(id)).thenAnswer(invocation -> blockThen(detail));
+    WidgetService service = service(true, Duration.ofSeconds(5));
+
+    List<CompletableFuture<WidgetDto>> lookups = lookupConcurrently(service, 4);
+    awaitCoalesced(3);
+    release.countDown();
+
+    assertThat(lookups.stream().map(CompletableFuture::join))
+        .extracting(WidgetDto::name)
+        .containsOnly("viral");
+    verify(widgetRepository, times(1)).findDetailById(id);
+    assertThat(meterRegistry.get("widgets.get.inflight").gauge().value()).isZero();
+  }
+
+  @Test
+  void failedQueryIsSharedAndNotRetained() {
+    when(widgetRepository.findDetailById(id))
+        .thenAnswer(invocation -> blockThen(new QueryTimeoutException("timeout")))
+        .thenReturn(Optional.of(detail));
+    WidgetService service = service(true, Duration.ofSeconds(5));
+
+    List<CompletableFuture<WidgetDto>> lookups = lookupConcurrently(service, 3);
+    awaitCoalesced(2);
+    release.countDown();
+
+    assertThat(lookups)
+        .allSatisfy(
+            lookup ->
+                assertThatThrownBy(lookup::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(QueryTimeoutException.class));
+    assertThat(service.findById(id, WidgetField.ALL).name()).isEqualTo("viral");
+    verify(widgetRepository, times(2)).findDetailById(id);
+  }
+
+  @Test
+  void followersGiveUpAfterMaxWait() {
+    when(widgetRepository.findDetailById(id)).thenAnswer(invocation -> blockThen(detail));
+    WidgetService service = service(true, Duration.ofMillis(500));
+
+    CompletableFuture<WidgetDto> leader = lookupConcurrently(service, 1).get(0);
+    awaitInFlight();
+
+    assertThatThrownBy(() -> service.findById(id, WidgetField.ALL))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("503");
+    release.countDown();
+    assertThat(leader.join().name()).isEqualTo("viral");
+    assertThat(meterRegistry.counter("widgets.get.coalesced.timeouts").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void queriesIndependentlyWhenDisabled() {
+    when(widgetRepository.findDetailById(id)).thenReturn(Optional.of(detail));
+    WidgetService service = service(false, Duration.ofSeconds(5));
+
+    service.findById(id, WidgetField.ALL);
+    service.findById(id, WidgetField.ALL);
+
+    verify(widgetRepository, times(2)).findDetailById(id);
+  }
+
+  @Test
+  void missingRowsFallBackToTheArchive() {
+    when(widgetRepository.findDetailById(id)).thenReturn(Optional.empty());
+    when(widgetArchive.find(id))
+        .thenReturn(
+            Optional.of(
+                new WidgetImportRecord(id, "archived", "cold", Instant.EPOCH, Instant.EPOCH)));
+
+    WidgetDto widget = service(false, Duration.ofSeconds(5)).findById(id, WidgetField.ALL);
+
+    assertThat(widget.name()).isEqualTo("archived");
+    assertThat(widget.description()).isEqualTo("cold");
+  }
+
+  @Test
+  void unchangedUpdateSkipsTheRowAndMetadataWrites() {
+    WidgetRequest request = new WidgetRequest("viral", "description");
+    WidgetEntity entity = entity(WidgetService.contentSha256(request));
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+
+    WidgetDto updated = service(true, Duration.ofSeconds(5)).update(id, request);
+
+    assertThat(updated.description()).isEqualTo("description");
+    assertThat(updated.updatedAt()).isEqualTo(Instant.EPOCH);
+    verify(widgetRepository, never()).save(any());
+    verify(descriptionStore, never()).assign(any(), any(PreparedDescription.class));
+    verify(s3MetadataService, never()).writeWidgetMetadata(any());
+    assertThat(meterRegistry.counter("widgets.update.unchanged").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void unchangedUpdateOfAnArchivedWidgetStillAdvancesTheWriteEpoch() {
+    WidgetRequest request = new WidgetRequest("viral", "description");
+    WidgetEntity entity = entity(WidgetService.contentSha256(request));
+    when(widgetRepository.findById(id))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(entity));
+    when(widgetArchive.restore(id)).thenReturn(true);
+
+    service(true, Duration.ofSeconds(5)).update(id, request);
+
+    verify(widgetRepository, never()).save(any());
+    verify(writeEpoch).advanceAfterCommit();
+  }
+
+  @Test
+  void changedUpdateStoresTheNewContentHash() {
+    WidgetRequest request = new WidgetRequest("viral", "new description");
+    WidgetEntity entity = entity(WidgetService.contentSha256(new WidgetRequest("viral", "old")));
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+    when(widgetRepository.save(entity)).thenReturn(entity);
+
+    service(true, Duration.ofSeconds(5)).update(id, request);
+
+    assertThat(entity.getContentSha256()).isEqualTo(WidgetService.contentSha256(request));
+    verify(s3MetadataService).writeWidgetMetadata(any());
+    assertThat(meterRegistry.counter("widgets.update.unchanged").count()).isZero();
+  }
+
+  @Test
+  void failedUpdateDiscardsTheUploadedDescription() {
+    WidgetRequest request = new WidgetRequest("viral", "new description");
+    WidgetEntity entity = entity(WidgetService.contentSha256(new WidgetRequest("viral", "old")));
+    PreparedDescription description =
+        new PreparedDescription(null, "widget-descriptions/new.txt", "new", 3L);
+    WidgetService service = service(true, Duration.ofSeconds(5));
+    when(descriptionStore.prepare("new description")).thenReturn(description);
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+    when(widgetRepository.save(entity)).thenThrow(new QueryTimeoutException("timeout"));
+
+    assertThatThrownBy(() -> service.update(id, request)).isInstanceOf(QueryTimeoutException.class);
+
+    verify(descriptionStore).assign(entity, description);
+    verify(descriptionStore).discard(description);
+  }
+
+  @Test
+  void batchLookupKeepsRequestOrderAndMarksMissingIds() {
+    UUID missing = UUID.randomUUID();
+    when(widgetRepository.findDetailsByIds(new UUID[] {id, missing})).thenReturn(List.of(detail));
+
+    List<WidgetBatchGetResult> results =
+        service(true, Duration.ofSeconds(5)).findByIds(List.of(id, missing, id), WidgetField.ALL);
+
+    assertThat(results)
+        .extracting(WidgetBatchGetResult::id, WidgetBatchGetResult::found)
+        .containsExactly(tuple(id, true), tuple(missing, false), tuple(id, true));
+    assertThat(results.get(0).widget().name()).isEqualTo("viral");
+    assertThat(results.get(1).widget()).isNull();
+    verify(widgetRepository, times(1)).findDetailsByIds(any());
+    assertThat(meterRegistry.counter("widgets.batch.ids", "result", "missing").count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void batchLookupSkipsDescriptionsWhenNotRequested() {
+    when(widgetRepository.findSummariesByIds(new UUID[] {id})).thenReturn(List.of(detail));
+
+    List<WidgetBatchGetResult> results =
+        service(true, Duration.ofSeconds(5)).findByIds(List.of(id), WidgetField.parse("id,name"));
+
+    assertThat(results.get(0).widget().description()).isNull();
+    verify(widgetRepository, never()).findDetailsByIds(any());
+  }
+
+  @Test
+  void namePatchLeavesTheDescriptionAlone() {
+    WidgetEntity entity = entity(WidgetService.contentSha256("viral", "description"));
+    entity.setDescription("description");
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+    when(widgetRepository.save(entity)).thenReturn(entity);
+
+    WidgetDto patched =
+        service(true, Duration.ofSeconds(5)).patch(id, new WidgetPatch("renamed", null));
+
+    assertThat(patched.name()).isEqualTo("renamed");
+    assertThat(patched.description()).isEqualTo("description");
+    verify(descriptionStore, never()).assign(any(), any(PreparedDescription.class));
+    verify(s3MetadataService).writeWidgetMetadata(any());
+  }
+
+  @Test
+  void namePatchRecomputesTheContentHashFromTheDescriptionHash() {
+    WidgetEntity entity = entity(WidgetService.contentSha256("viral", "description"));
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+    when(widgetRepository.save(entity)).thenReturn(entity);
+
+    service(true, Duration.ofSeconds(5)).patch(id, new WidgetPatch("renamed", null));
+
+    assertThat(entity.getDescription()).isNull();
+    assertThat(entity.getContentSha256())
+        .isEqualTo(WidgetService.contentSha256("renamed", "description"));
+  }
+
+  @Test
+  void patchMatchingTheStoredContentIsNotWritten() {
+    WidgetEntity entity = entity(WidgetService.contentSha256("viral", "description"));
+    when(widgetRepository.findById(id)).thenReturn(Optional.of(entity));
+    WidgetService service = service(true, Duration.ofSeconds(5));
+
+    service.patch(id, new WidgetPatch("viral", "description"));
+    service.patch(id, new WidgetPatch("viral", null));
+
+    verify(widgetRepository, never()).save(any());
+    verify(descriptionStore, never()).assign(any(), any(PreparedDescription.class));
+    assertThat(meterRegistry.counter("widgets.update.unchanged").count()).isEqualTo(2.0);
+  }
+
+  @Test
+  void contentHashSeparatesNameFromDescription() {
+    assertThat(WidgetService.contentSha256(new WidgetRequest("ab", "c")))
+        .isNotEqualTo(WidgetService.contentSha256(new WidgetRequest("a", "bc")));
+  }
+
+  private WidgetEntity entity(String contentSha256) {
+    return WidgetEntity.builder()
+        .id(id)
+        .name("viral")
+        .descriptionSha256(
+            WidgetDescriptionStore.sha256("description".getBytes(StandardCharsets.UTF_8)))
+        .contentSha256(contentSha256)
+        .createdAt(Instant.EPOCH)
+        .updatedAt(Instant.EPOCH)
+        .build();
+  }
+
+  private WidgetService service(boolean enabled, Duration maxWait) {
+    when(descriptionStore.prepare(any()))
+        .thenAnswer(
+            invocation -> new PreparedDescription(invocation.getArgument(0), null, null, null));
+    return new WidgetService(
+        widgetRepository,
+        s3MetadataService,
+        mock(WidgetStatsService.class),
+        descriptionStore,
+        writeEpoch,
+        widgetArchive,
+        new ReadCoalescingProperties(enabled, maxWait),
+        mock(PlatformTransactionManager.class),
+        meterRegistry);
+  }
+
+  private List<CompletableFuture<WidgetDto>> lookupConcurrently(WidgetService service, int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                CompletableFuture.supplyAsync(() -> service.findById(id, WidgetField.ALL), callers))
+        .toList();
+  }
+
+  private Optional<WidgetDetailView> blockThen(WidgetDetailView detail)
+      throws InterruptedException {
+    release.await();
+    return Optional.of(detail);
+  }
+
+  private Optional<WidgetDetailView> blockThen(RuntimeException failure)
+      throws InterruptedException {
+    release.await();
+    throw failure;
+  }
+
+  private void awaitCoalesced(int followers) {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (meterRegistry.counter("widgets.get.coalesced").count() < followers) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.onSpinWait();
+    }
+  }
+
+  private void awaitInFlight() {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (meterRegistry.get("widgets.get.inflight").gauge().value() < 1) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.onSpinWait();
+    }
+  }
+
+  private WidgetDetailView detail() {
+    WidgetDetailView view = mock(WidgetDetailView.class);
+    when(view.getId()).thenReturn(id);
+    when(view.getName()).thenReturn("viral");
+    when(view.getDescription()).thenReturn("description");
+    when(view.getCreatedAt()).thenReturn(Instant.EPOCH);
+    when(view.getUpdatedAt()).thenReturn(Instant.EPOCH);
+    return view;
+  }
+}
@@ -0,0 +1,87 @@
+package com.deanlofts.awslabjava.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.deanlofts.awslabjava.application.config.StatsProperties;
+import com.deanlofts.awslabjava.application.dto.WidgetStatsDto;
+import com.deanlofts.awslabjava.application.repository.WidgetStatsRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WidgetStatsServiceTest {
+
+  private static final Instant NOW = Instant.parse("2024-05-01T10:15:00Z");
+  private static final Instant HOUR = Instant.parse("2024-05-01T10:00:00Z");
+
+  private final WidgetStatsRepository repository = mock(WidgetStatsRepository.class);
+  private final WidgetStatsService service =
+      new WidgetStatsService(
+          new StatsProperties(Duration.ofHours(1), 168, Duration.ofDays(30)),
+          repository,
+          new SimpleMeterRegistry(),
+          Clock.fixed(NOW, ZoneOffset.UTC));
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void mergesUnflushedDeltasIntoPersistedStats() {
+    when(repository.readTotals()).thenReturn(new WidgetStatsRepository.Totals(10, 12, 4, 2));
+    when(repository.readHourly(any()))
+        .thenReturn(List.of(new WidgetStatsDto.HourlyActivity(HOUR, 3, 1, 0)));
+
+    service.recordCreated();
+    service.recordCreated();
+    service.recordUpdated();
+    service.recordDeleted();
+
+    WidgetStatsDto stats = service.stats(3);
+
+    assertThat(stats.total()).isEqualTo(11);
+    assertThat(stats.created()).isEqualTo(14);
+    assertThat(stats.hourly()).hasSize(3);
+    assertThat(stats.hourly().get(2)).isEqualTo(new WidgetStatsDto.HourlyActivity(HOUR, 5, 2, 1));
+    verify(repository).readHourly(Instant.parse("2024-05-01T08:00:00Z"));
+  }
+
+  @Test
+  void flushWritesDeltasOnceAndRetainsThemOnFailure() {
+    doThrow(new DataAccessResourceFailureException("down")).when(repository).apply(anyMap(), any());
+    service.recordImported(5, 2);
+
+    assertThatThrownBy(service::flush).isInstanceOf(DataAccessResourceFailureException.class);
+
+    reset(repository);
+    service.flush();
+    verify(repository)
+        .apply(
+            Map.of(HOUR, new WidgetStatsRepository.Counts(5, 2, 0)),
+            NOW.minus(Duration.ofDays(30)));
+
+    reset(repository);
+    service.flush();
+    verify(repository, never()).apply(anyMap(), any());
+  }
+}
@@ -41,8 +41,16 @@ locals {
     {
       name  = "AWS_S3_METADATA_PREFIX"
       value = "widget-metadata/"
+    },
+    {
+      name  = "APP_MIGRATION_MODE"
+      value = "validate"
     }
   ]
+  migration_environment = [
+    for variable in local.container_environment :
+    variable.name == "APP_MIGRATION_MODE" ? merge(variable, { value = "migrate-only" }) : variable
+  ]
   container_secrets = [
     {
       name      = "SPRING_DATASOURCE_URL"
@@ -76,7 +84,7 @@ resource "aws_lb_target_group" "service" {
   vpc_id      = data.terraform_remote_state.core_networking.outputs.vpc_id
 
   health_check {
-    path                = "/actuator/health"
+    path                = "/actuator/health/readiness"
     matcher             = "200-299"
     healthy_threshold   = 3
     unhealthy_threshold = 3
@@ -125,7 +133,7 @@ resource "aws_ecs_task_definition" "app" {
       environment = local.container_environment
       secrets     = local.container_secrets
       healthCheck = {
-        command     = ["CMD-SHELL", "curl -f http://localhost:${local.container_port}/actuator/health || exit 1"]
+        command     = ["CMD-SHELL", "curl -f http://localhost:${local.container_port}/actuator/health/liveness || exit 1"]
         interval    = 30
         timeout     = 5
         retries     = 3
@@ -143,6 +151,34 @@ resource "aws_ecs_task_definition" "app" {
   ])
 }
 
+resource "aws_ecs_task_definition" "migrate" {
+  family                   = "${local.task_family}-migrate"
+  network_mode             = "awsvpc"
+  requires_compatibilities = ["FARGATE"]
+  cpu                      = "512"
+  memory                   = "1024"
+  execution_role_arn       = data.terraform_remote_state.security.outputs.ecs_task_execution_role_arn
+  task_role_arn            = data.terraform_remote_state.security.outputs.ecs_task_role_arn
+
+  container_definitions = jsonencode([
+    {
+      name        = local.container_name
+      image       = "${local.ecr_repository_url}:latest"
+      essential   = true
+      environment = local.migration_environment
+      secrets     = local.container_secrets
+      logConfiguration = {
+        logDriver = "awslogs"
+        options = {
+          "awslogs-group"         = aws_cloudwatch_log_group.service.name
+          "awslogs-region"        = var.aws_region
+          "awslogs-stream-prefix" = "migrate"
+        }
+      }
+    }
+  ])
+}
+
 resource "aws_ecs_service" "app" {
   name                               = local.service_name
   cluster                            = data.terraform_remote_state.ecs_cluster.outputs.cluster_id
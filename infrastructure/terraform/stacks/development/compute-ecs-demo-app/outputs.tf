@@ -13,6 +13,11 @@ output "task_definition_arn" {
   value       = aws_ecs_task_definition.app.arn
 }
 
+output "migration_task_definition_arn" {
+  description = "ARN of the one-off task definition that applies database migrations and exits"
+  value       = aws_ecs_task_definition.migrate.arn
+}
+
 output "listener_rule_arn" {
   description = "ARN of the listener rule forwarding traffic to the service"
   value       = aws_lb_listener_rule.service.arn
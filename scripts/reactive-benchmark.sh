@@ -0,0 +1,134 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Drives the servlet (Tomcat + JPA) and reactive (Netty + R2DBC) builds of the widget API with the
+# same workload at increasing concurrency, and reports throughput, p99 latency and container memory.
+# Both apps run with identical CPU and memory limits against the same PostgreSQL container.
+
+command -v docker >/dev/null 2>&1 || { echo "docker is required" >&2; exit 1; }
+command -v curl >/dev/null 2>&1 || { echo "curl is required" >&2; exit 1; }
+command -v jq >/dev/null 2>&1 || { echo "jq is required" >&2; exit 1; }
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+SERVLET_IMAGE=${SERVLET_IMAGE:-aws-lab-java/demo-app:local}
+REACTIVE_IMAGE=${REACTIVE_IMAGE:-aws-lab-java/demo-app-reactive:local}
+BUILD=${BUILD:-true}
+CONCURRENCY=${CONCURRENCY:-"64 256 1024"}
+DURATION=${DURATION:-30s}
+WARMUP=${WARMUP:-15s}
+SEED_WIDGETS=${SEED_WIDGETS:-1000}
+APP_CPUS=${APP_CPUS:-1}
+APP_MEMORY=${APP_MEMORY:-1g}
+PORT=${PORT:-18080}
+NETWORK=${NETWORK:-reactive-benchmark}
+POSTGRES_IMAGE=${POSTGRES_IMAGE:-public.ecr.aws/docker/library/postgres:16}
+OHA_IMAGE=${OHA_IMAGE:-ghcr.io/hatoo/oha:latest}
+TOKEN=benchmark-token
+
+log() {
+  printf '[reactive-benchmark] %s\n' "$1"
+}
+
+cleanup() {
+  docker rm -f reactive-benchmark-app >/dev/null 2>&1 || true
+  docker rm -f reactive-benchmark-postgres >/dev/null 2>&1 || true
+  docker network rm "${NETWORK}" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+if [[ "${BUILD}" == "true" ]]; then
+  log "Building ${SERVLET_IMAGE} and ${REACTIVE_IMAGE}"
+  docker build -q -t "${SERVLET_IMAGE}" "${ROOT_DIR}/application" >/dev/null
+  docker build -q -t "${REACTIVE_IMAGE}" -f "${ROOT_DIR}/application/reactive/Dockerfile" \
+    "${ROOT_DIR}/application" >/dev/null
+fi
+
+docker network create "${NETWORK}" >/dev/null
+docker run -d --name reactive-benchmark-postgres --network "${NETWORK}" \
+  -e POSTGRES_DB=demo -e POSTGRES_USER=demo -e POSTGRES_PASSWORD=demo \
+  "${POSTGRES_IMAGE}" -c max_connections=200 >/dev/null
+
+log "Waiting for PostgreSQL..."
+until docker exec reactive-benchmark-postgres pg_isready -U demo -d demo >/dev/null 2>&1; do
+  sleep 1
+done
+
+start_app() {
+  local image=$1
+  docker rm -f reactive-benchmark-app >/dev/null 2>&1 || true
+  docker run -d --name reactive-benchmark-app --network "${NETWORK}" -p "${PORT}:8080" \
+    --cpus "${APP_CPUS}" --memory "${APP_MEMORY}" \
+    -e JAVA_OPTS="-XX:MaxRAMPercentage=75" \
+    -e DEMO_AUTH_TOKEN="${TOKEN}" \
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://reactive-benchmark-postgres:5432/demo \
+    -e SPRING_DATASOURCE_USERNAME=demo \
+    -e SPRING_DATASOURCE_PASSWORD=demo \
+    -e SPRING_R2DBC_URL=r2dbc:postgresql://reactive-benchmark-postgres:5432/demo \
+    -e SPRING_R2DBC_USERNAME=demo \
+    -e SPRING_R2DBC_PASSWORD=demo \
+    "${image}" >/dev/null
+  until curl --silent --fail "http://localhost:${PORT}/actuator/health" >/dev/null 2>&1; do
+    sleep 0.5
+  done
+}
+
+seed() {
+  for i in $(seq 1 "${SEED_WIDGETS}"); do
+    curl --silent --fail -o /dev/null -X POST "http://localhost:${PORT}/api/v1/widgets" \
+      -H 'Content-Type: application/json' -H "X-Demo-Auth: ${TOKEN}" \
+      -d "{\"name\":\"seed-${i}\",\"description\":\"benchmark widget ${i}\"}"
+  done
+}
+
+# Prints "<requests/s> <p99 ms> <error ratio>" for one oha run against the app container.
+oha() {
+  local concurrency=$1
+  local duration=$2
+  shift 2
+  docker run --rm --network "${NETWORK}" "${OHA_IMAGE}" --no-tui -j \
+    -c "${concurrency}" -z "${duration}" "$@" |
+    jq -r '[.summary.requestsPerSec, (.latencyPercentiles.p99 * 1000),
+      (1 - .summary.successRate)] | map(. * 100 | round / 100) | @tsv'
+}
+
+memory_mib() {
+  docker stats --no-stream --format '{{.MemUsage}}' reactive-benchmark-app | awk '{ print $1 }'
+}
+
+run_scenario() {
+  local label=$1
+  local concurrency=$2
+  shift 2
+  local result
+  result=$(oha "${concurrency}" "${DURATION}" "$@")
+  printf '%-9s %-8s c=%-5s rps=%-10s p99_ms=%-10s errors=%-6s rss=%s\n' \
+    "${app_label}" "${label}" "${concurrency}" \
+    "$(cut -f1 <<<"${result}")" "$(cut -f2 <<<"${result}")" "$(cut -f3 <<<"${result}")" \
+    "$(memory_mib)"
+}
+
+target="http://reactive-benchmark-app:8080/api/v1/widgets"
+results=()
+for app_label in servlet reactive; do
+  image=${SERVLET_IMAGE}
+  [[ "${app_label}" == "reactive" ]] && image=${REACTIVE_IMAGE}
+  log "Starting ${app_label} (${image}), cpus=${APP_CPUS} memory=${APP_MEMORY}"
+  docker exec reactive-benchmark-postgres psql -U demo -d demo -qc \
+    "DROP SCHEMA public CASCADE; CREATE SCHEMA public;" >/dev/null
+  start_app "${image}"
+  seed
+  widget_id=$(curl --silent "http://localhost:${PORT}/api/v1/widgets" | jq -r '.[0].id')
+  log "Warming up for ${WARMUP}"
+  oha 64 "${WARMUP}" "${target}/${widget_id}" >/dev/null
+  for concurrency in ${CONCURRENCY}; do
+    results+=("$(run_scenario get "${concurrency}" "${target}/${widget_id}")")
+    log "${results[-1]}"
+    results+=("$(run_scenario create "${concurrency}" -m POST \
+      -H 'Content-Type: application/json' -H "X-Demo-Auth: ${TOKEN}" \
+      -d '{"name":"load","description":"benchmark create"}' "${target}")")
+    log "${results[-1]}"
+  done
+done
+
+log "Summary"
+printf '%s\n' "${results[@]}"
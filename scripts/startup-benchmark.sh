@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Measures time from `docker run` to the first healthy /actuator/health response, comparing the
+# image as shipped (Spring AOT + AppCDS archive) against the same image with both disabled.
+
+command -v docker >/dev/null 2>&1 || { echo "docker is required" >&2; exit 1; }
+command -v curl >/dev/null 2>&1 || { echo "curl is required" >&2; exit 1; }
+
+IMAGE=${IMAGE:-aws-lab-java/demo-app:local}
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+NETWORK=${NETWORK:-startup-benchmark}
+POSTGRES_IMAGE=${POSTGRES_IMAGE:-public.ecr.aws/docker/library/postgres:16}
+BASELINE_OPTS=${BASELINE_OPTS:--XX:SharedArchiveFile=/opt/java/openjdk/lib/server/classes.jsa -Dspring.aot.enabled=false}
+
+log() {
+  printf '[startup-benchmark] %s\n' "$1"
+}
+
+cleanup() {
+  docker rm -f startup-benchmark-app >/dev/null 2>&1 || true
+  docker rm -f startup-benchmark-postgres >/dev/null 2>&1 || true
+  docker network rm "${NETWORK}" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+now_ms() {
+  date +%s%3N
+}
+
+docker network create "${NETWORK}" >/dev/null
+docker run -d --name startup-benchmark-postgres --network "${NETWORK}" \
+  -e POSTGRES_DB=demo -e POSTGRES_USER=demo -e POSTGRES_PASSWORD=demo \
+  "${POSTGRES_IMAGE}" >/dev/null
+
+log "Waiting for PostgreSQL..."
+until docker exec startup-benchmark-postgres pg_isready -U demo -d demo >/dev/null 2>&1; do
+  sleep 1
+done
+
+measure() {
+  local java_opts=$1
+  local start end
+  docker rm -f startup-benchmark-app >/dev/null 2>&1 || true
+  start=$(now_ms)
+  docker run -d --name startup-benchmark-app --network "${NETWORK}" -p "${PORT}:8080" \
+    -e JAVA_OPTS="${java_opts}" \
+    -e SPRING_PROFILES_ACTIVE=local \
+    -e DEMO_AUTH_TOKEN=benchmark-token \
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://startup-benchmark-postgres:5432/demo \
+    -e SPRING_DATASOURCE_USERNAME=demo \
+    -e SPRING_DATASOURCE_PASSWORD=demo \
+    "${IMAGE}" >/dev/null
+  until curl --silent --fail "http://localhost:${PORT}/actuator/health" >/dev/null 2>&1; do
+    sleep 0.05
+  done
+  end=$(now_ms)
+  docker rm -f startup-benchmark-app >/dev/null
+  echo $((end - start))
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+run_mode() {
+  local label=$1
+  local java_opts=$2
+  local samples=()
+  for run in $(seq 1 "${RUNS}"); do
+    samples+=("$(measure "${java_opts}")")
+    log "${label} run ${run}: ${samples[-1]}ms"
+  done
+  printf '%s\n' "${samples[@]}" | median
+}
+
+log "Image ${IMAGE}, ${RUNS} runs per mode"
+baseline=$(run_mode "baseline (no AOT, JDK CDS only)" "${BASELINE_OPTS}")
+optimised=$(run_mode "optimised (AOT + AppCDS)" "")
+
+log "Median time to first healthy response: baseline=${baseline}ms optimised=${optimised}ms"
+awk -v b="${baseline}" -v o="${optimised}" 'BEGIN { printf "[startup-benchmark] speed-up: %.2fx\n", b / o }'
@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares random (v4) and time-ordered (v7) UUID primary keys on a widgets-shaped table:
+# insert throughput, primary-key index size and WAL volume after ROWS inserts committed in
+# batches of BATCH rows.
+
+command -v docker >/dev/null 2>&1 || { echo "docker is required" >&2; exit 1; }
+
+ROWS=${ROWS:-20000000}
+BATCH=${BATCH:-10000}
+CONTAINER=${CONTAINER:-uuid-index-benchmark-postgres}
+POSTGRES_IMAGE=${POSTGRES_IMAGE:-public.ecr.aws/docker/library/postgres:16}
+POSTGRES_ARGS=${POSTGRES_ARGS:--c shared_buffers=256MB -c max_wal_size=4GB}
+
+log() {
+  printf '[uuid-index-benchmark] %s\n' "$1"
+}
+
+cleanup() {
+  docker rm -f "${CONTAINER}" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+psql_exec() {
+  docker exec -i "${CONTAINER}" psql -U demo -d demo -v ON_ERROR_STOP=1 -qAt "$@"
+}
+
+now_ms() {
+  date +%s%3N
+}
+
+# shellcheck disable=SC2086
+docker run -d --name "${CONTAINER}" \
+  -e POSTGRES_DB=demo -e POSTGRES_USER=demo -e POSTGRES_PASSWORD=demo \
+  "${POSTGRES_IMAGE}" ${POSTGRES_ARGS} >/dev/null
+
+log "Waiting for PostgreSQL..."
+until docker exec "${CONTAINER}" pg_isready -U demo -d demo >/dev/null 2>&1; do
+  sleep 1
+done
+sleep 2
+
+psql_exec <<'SQL'
+CREATE FUNCTION bench_uuid_v7() RETURNS uuid LANGUAGE sql VOLATILE AS $$
+  SELECT encode(
+    set_bit(set_bit(
+      overlay(uuid_send(gen_random_uuid())
+        PLACING substring(int8send((extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+        FROM 1 FOR 6),
+      52, 1), 53, 1),
+    'hex')::uuid
+$$;
+
+CREATE PROCEDURE bench_fill(variant text, total bigint, batch int) LANGUAGE plpgsql AS $$
+DECLARE
+  inserted bigint := 0;
+  id_expression text := CASE variant WHEN 'v7' THEN 'bench_uuid_v7()' ELSE 'gen_random_uuid()' END;
+BEGIN
+  WHILE inserted < total LOOP
+    EXECUTE format(
+      'INSERT INTO %I (id, name, description, created_at, updated_at)'
+      ' SELECT %s, ''widget '' || n, ''benchmark widget'', clock_timestamp(), clock_timestamp()'
+      ' FROM generate_series(1, %s) AS n',
+      'widgets_' || variant, id_expression, least(batch, total - inserted));
+    inserted := inserted + batch;
+    COMMIT;
+  END LOOP;
+END
+$$;
+SQL
+
+run_variant() {
+  local variant=$1
+  local table="widgets_${variant}"
+  psql_exec <<SQL
+CREATE TABLE ${table} (
+    id UUID PRIMARY KEY,
+    name TEXT NOT NULL,
+    description TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+CREATE INDEX ${table}_updated_at ON ${table}(updated_at DESC);
+CHECKPOINT;
+SQL
+  local wal_start start end
+  wal_start=$(psql_exec -c "SELECT pg_current_wal_lsn()")
+  start=$(now_ms)
+  psql_exec -c "CALL bench_fill('${variant}', ${ROWS}, ${BATCH})"
+  end=$(now_ms)
+  psql_exec -c "SELECT '${variant}',
+      ${ROWS}::bigint * 1000 / greatest($((end - start)), 1),
+      pg_size_pretty(pg_relation_size('${table}_pkey')),
+      pg_size_pretty(pg_relation_size('${table}')),
+      pg_size_pretty(pg_wal_lsn_diff(pg_current_wal_lsn(), '${wal_start}'))" \
+    | awk -F'|' -v ms=$((end - start)) '{
+        printf "[uuid-index-benchmark] %s: %d ms, %s rows/s, pkey index %s, heap %s, WAL %s\n",
+          $1, ms, $2, $3, $4, $5 }'
+}
+
+log "Inserting ${ROWS} rows per variant in batches of ${BATCH}"
+run_variant v4
+run_variant v7